@@ -0,0 +1,332 @@
+package com.mario.assets;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.mario.profiling.AssetEvent;
+
+/**
+ * Owns every native asset (textures, sounds, maps) through libGDX's
+ * AssetManager and counts references per owner ("level:levels/level1.tmx",
+ * "sprites", "audio"...). Assets are loaded on the first acquire. When the
+ * last owner releases an asset it stays cached in an LRU list and is
+ * unloaded as soon as its category exceeds its memory budget (a budget of
+ * 0 unloads immediately).
+ */
+public class GameAssetManager {
+    private static final long MB = 1024L * 1024L;
+    private static final int CELL_BYTES = 24;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    public enum Category { TEXTURE, AUDIO, MAP, OTHER }
+
+    private static GameAssetManager instance;
+
+    private final AssetManager assetManager;
+    private final Map<String, Set<String>> assetsByOwner;
+    private final Map<String, Set<String>> ownersByAsset;
+    private final LinkedHashMap<String, Boolean> unreferenced;
+    private final Map<Category, Long> budgets;
+
+    private long loads;
+    private long unloads;
+
+    private GameAssetManager() {
+        this.assetManager = new AssetManager();
+        this.assetsByOwner = new HashMap<>();
+        this.ownersByAsset = new HashMap<>();
+        this.unreferenced = new LinkedHashMap<>(16, 0.75f, true);
+        this.budgets = new EnumMap<>(Category.class);
+        budgets.put(Category.TEXTURE, Long.getLong("mario.assets.textureBudgetMB", 32) * MB);
+        budgets.put(Category.AUDIO, Long.getLong("mario.assets.audioBudgetMB", 16) * MB);
+        budgets.put(Category.MAP, Long.getLong("mario.assets.mapBudgetMB", 8) * MB);
+        budgets.put(Category.OTHER, 0L);
+    }
+
+    public static GameAssetManager getInstance() {
+        if (instance == null) {
+            instance = new GameAssetManager();
+        }
+        return instance;
+    }
+
+    public static String levelOwner(String levelPath) {
+        return "level:" + levelPath;
+    }
+
+    /** Returns the asset, loading it synchronously on first use, and records {@code owner} as a reference. */
+    public <T> T acquire(String owner, String path, Class<T> type) {
+        if (!isTracked(path)) {
+            // Hold one AssetManager reference of our own, even if the asset is already
+            // resident as another asset's dependency (a map's tileset texture)
+            boolean resident = assetManager.isLoaded(path, type);
+            AssetEvent event = new AssetEvent();
+            event.begin();
+            long start = System.nanoTime();
+            assetManager.load(path, type);
+            assetManager.finishLoadingAsset(path);
+            if (!resident) {
+                commit(event, path, type, AssetEvent.LOAD);
+                loads++;
+                System.out.println(String.format("Asset loaded: %s (%.2f ms)", path, (System.nanoTime() - start) / 1_000_000.0));
+                trackCreated(path, NativeResourceTracker.scopeOf(owner));
+            }
+        }
+        addReference(owner, path);
+        return assetManager.get(path, type);
+    }
+
+    /** Hands a runtime-created asset (procedural texture...) to the manager; it is disposed on unload. */
+    public <T> T register(String owner, String name, Class<T> type, T asset) {
+        if (!isTracked(name)) {
+            AssetEvent event = new AssetEvent();
+            event.begin();
+            assetManager.addAsset(name, type, asset);
+            commit(event, name, type, AssetEvent.REGISTER);
+            loads++;
+            NativeResourceTracker.created(asset, type.getSimpleName(), name, NativeResourceTracker.scopeOf(owner));
+        } else if (asset != assetManager.get(name, type) && asset instanceof Disposable) {
+            // Still cached from an earlier owner: keep that one
+            ((Disposable) asset).dispose();
+        }
+        addReference(owner, name);
+        return assetManager.get(name, type);
+    }
+
+    public void release(String owner, String path) {
+        Set<String> owned = assetsByOwner.get(owner);
+        if (owned != null && owned.remove(path)) {
+            removeReference(owner, path);
+            enforceBudgets();
+        }
+    }
+
+    /** Drops every reference held by {@code owner}, e.g. when a level is unloaded. */
+    public void release(String owner) {
+        Set<String> owned = assetsByOwner.remove(owner);
+        if (owned == null) return;
+        for (String path : owned) {
+            removeReference(owner, path);
+        }
+        enforceBudgets();
+    }
+
+    public boolean isLoaded(String path) {
+        return assetManager.isLoaded(path);
+    }
+
+    /** True when {@code name}, or an asset depending on it, is kept cached with no owner. */
+    boolean isCachedUnreferenced(String name) {
+        if (unreferenced.containsKey(name)) return true;
+        for (String cached : unreferenced.keySet()) {
+            Array<String> dependencies = assetManager.getDependencies(cached);
+            if (dependencies != null && dependencies.contains(name, false)) return true;
+        }
+        return false;
+    }
+
+    public int getReferenceCount(String path) {
+        Set<String> owners = ownersByAsset.get(path);
+        return owners != null ? owners.size() : 0;
+    }
+
+    public void setBudget(Category category, long bytes) {
+        budgets.put(category, Math.max(0, bytes));
+        enforceBudgets();
+    }
+
+    public long getResidentBytes(Category category) {
+        long bytes = 0;
+        for (String name : assetManager.getAssetNames()) {
+            if (categoryOf(name) == category) {
+                bytes += estimateBytes(name);
+            }
+        }
+        return bytes;
+    }
+
+    /** Resident native memory per category, including AssetManager dependencies (map tilesets). */
+    public String getResidentReport() {
+        Map<Category, long[]> totals = new EnumMap<>(Category.class);
+        for (Category category : Category.values()) {
+            totals.put(category, new long[2]);
+        }
+        for (String name : assetManager.getAssetNames()) {
+            long[] total = totals.get(categoryOf(name));
+            total[0]++;
+            total[1] += estimateBytes(name);
+        }
+
+        StringBuilder report = new StringBuilder("Assets resident:");
+        for (Category category : Category.values()) {
+            long[] total = totals.get(category);
+            report.append(String.format(" %s=%d (%.1f MB / %.0f MB)", category.name().toLowerCase(), total[0],
+                total[1] / (double) MB, budgets.get(category) / (double) MB));
+        }
+        report.append(String.format(", cached unreferenced=%d, loads=%d, unloads=%d", unreferenced.size(), loads, unloads));
+        return report.toString();
+    }
+
+    public void dispose() {
+        if (NativeResourceTracker.ENABLED) {
+            for (String name : assetManager.getAssetNames()) {
+                NativeResourceTracker.disposed(assetManager.get(name));
+            }
+        }
+        assetManager.dispose();
+        assetsByOwner.clear();
+        ownersByAsset.clear();
+        unreferenced.clear();
+        instance = null;
+    }
+
+    private boolean isTracked(String path) {
+        return ownersByAsset.containsKey(path) || unreferenced.containsKey(path);
+    }
+
+    private void addReference(String owner, String path) {
+        assetsByOwner.computeIfAbsent(owner, key -> new HashSet<>()).add(path);
+        ownersByAsset.computeIfAbsent(path, key -> new HashSet<>()).add(owner);
+        unreferenced.remove(path);
+    }
+
+    private void removeReference(String owner, String path) {
+        Set<String> owners = ownersByAsset.get(path);
+        if (owners == null) return;
+        owners.remove(owner);
+        if (owners.isEmpty()) {
+            ownersByAsset.remove(path);
+            unreferenced.put(path, Boolean.TRUE);
+        }
+    }
+
+    /** Unloads least recently released assets of each category until it fits its budget. */
+    private void enforceBudgets() {
+        if (unreferenced.isEmpty()) return;
+        for (Category category : Category.values()) {
+            long resident = getResidentBytes(category);
+            long budget = budgets.get(category);
+            List<String> evicted = new ArrayList<>();
+            Iterator<String> it = unreferenced.keySet().iterator();
+            // A zero budget also drops assets whose size is unknown
+            while (it.hasNext() && (resident > budget || budget == 0)) {
+                String path = it.next();
+                if (categoryOf(path) != category) continue;
+                resident -= estimateBytes(path);
+                evicted.add(path);
+                it.remove();
+            }
+            for (String path : evicted) {
+                unload(path);
+                unloads++;
+                System.out.println("Asset unloaded: " + path);
+            }
+        }
+    }
+
+    /** The asset and the dependencies it loaded (a map's tileset textures), for the native tracker. */
+    private void trackCreated(String path, String scope) {
+        if (!NativeResourceTracker.ENABLED) return;
+        NativeResourceTracker.created(assetManager.get(path), assetManager.getAssetType(path).getSimpleName(), path, scope);
+        Array<String> dependencies = assetManager.getDependencies(path);
+        if (dependencies == null) return;
+        for (String dependency : dependencies) {
+            NativeResourceTracker.created(assetManager.get(dependency),
+                assetManager.getAssetType(dependency).getSimpleName(), dependency, scope);
+        }
+    }
+
+    private void unload(String path) {
+        AssetEvent event = new AssetEvent();
+        Class<?> type = event.isEnabled() ? assetManager.getAssetType(path) : null;
+        event.begin();
+        unloadTracked(path);
+        commit(event, path, type, AssetEvent.UNLOAD);
+    }
+
+    private void unloadTracked(String path) {
+        if (!NativeResourceTracker.ENABLED) {
+            assetManager.unload(path);
+            return;
+        }
+        List<String> names = new ArrayList<>();
+        List<Object> assets = new ArrayList<>();
+        names.add(path);
+        Array<String> dependencies = assetManager.getDependencies(path);
+        if (dependencies != null) {
+            for (String dependency : dependencies) names.add(dependency);
+        }
+        for (String name : names) assets.add(assetManager.get(name));
+        assetManager.unload(path);
+        for (int i = 0; i < names.size(); i++) {
+            if (!assetManager.isLoaded(names.get(i))) {
+                NativeResourceTracker.disposed(assets.get(i));
+            }
+        }
+    }
+
+    private static void commit(AssetEvent event, String path, Class<?> type, String action) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.assetType = type != null ? type.getSimpleName() : null;
+            event.action = action;
+            event.commit();
+        }
+    }
+
+    private Category categoryOf(String name) {
+        Class<?> type = assetManager.getAssetType(name);
+        if (type == null) return Category.OTHER;
+        if (Texture.class.isAssignableFrom(type)) return Category.TEXTURE;
+        if (Sound.class.isAssignableFrom(type) || Music.class.isAssignableFrom(type)) return Category.AUDIO;
+        if (TiledMap.class.isAssignableFrom(type)) return Category.MAP;
+        return Category.OTHER;
+    }
+
+    private long estimateBytes(String name) {
+        Class<?> type = assetManager.getAssetType(name);
+        if (type == null || !assetManager.isLoaded(name)) return 0;
+
+        if (Texture.class.isAssignableFrom(type)) {
+            Texture texture = assetManager.get(name, Texture.class);
+            return (long) texture.getWidth() * texture.getHeight() * BYTES_PER_PIXEL;
+        }
+        if (Sound.class.isAssignableFrom(type)) {
+            // Sounds are decoded to PCM; the WAV size is a close estimate
+            FileHandle file = Gdx.files.internal(name);
+            return file.exists() ? file.length() : 0;
+        }
+        if (TiledMap.class.isAssignableFrom(type)) {
+            long bytes = 0;
+            TiledMap map = assetManager.get(name, TiledMap.class);
+            for (MapLayer layer : map.getLayers()) {
+                if (layer instanceof TiledMapTileLayer) {
+                    TiledMapTileLayer tileLayer = (TiledMapTileLayer) layer;
+                    bytes += (long) tileLayer.getWidth() * tileLayer.getHeight() * CELL_BYTES;
+                }
+            }
+            return bytes;
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.mario.assets;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Debug bookkeeping of native objects (textures, sounds, music, maps,
+ * batches and renderers), enabled with -Dmario.native.debug=true.
+ *
+ * Every creation site calls {@link #created} and every dispose
+ * {@link #disposed}; when disabled both return immediately. Each record
+ * keeps the creation stack and the scope it belongs to: a level owner
+ * ("level:levels/level1.tmx") or null for game-lifetime objects. When a
+ * level template unloads, {@link #checkScope} reports the objects of that
+ * level still alive, except assets {@link GameAssetManager} deliberately
+ * keeps cached within its budgets.
+ */
+public class NativeResourceTracker {
+    public static final boolean ENABLED = Boolean.getBoolean("mario.native.debug");
+
+    private static NativeResourceTracker instance;
+
+    private final Map<Object, Record> live = new IdentityHashMap<>();
+    private long created;
+    private long disposed;
+    private long leaks;
+
+    public static NativeResourceTracker getInstance() {
+        if (instance == null) {
+            instance = new NativeResourceTracker();
+        }
+        return instance;
+    }
+
+    /** Records a native object; {@code name} is the asset path when it has one. */
+    public static void created(Object resource, String type, String name, String scope) {
+        if (!ENABLED || resource == null) return;
+        getInstance().add(resource, type, name, scope);
+    }
+
+    public static void disposed(Object resource) {
+        if (!ENABLED || resource == null) return;
+        getInstance().remove(resource);
+    }
+
+    /** Scope for an asset owner: the owner itself for level owners, null otherwise. */
+    public static String scopeOf(String owner) {
+        return owner != null && owner.startsWith("level:") ? owner : null;
+    }
+
+    private synchronized void add(Object resource, String type, String name, String scope) {
+        if (live.containsKey(resource)) return;
+        live.put(resource, new Record(type, name, scope, new Throwable("Created here")));
+        created++;
+    }
+
+    private synchronized void remove(Object resource) {
+        if (live.remove(resource) != null) {
+            disposed++;
+        }
+    }
+
+    /** Reports the objects of {@code scope} still alive after it unloaded; returns how many. */
+    public synchronized int checkScope(String scope) {
+        if (!ENABLED) return 0;
+        GameAssetManager assets = GameAssetManager.getInstance();
+        List<Record> found = new ArrayList<>();
+        for (Record record : live.values()) {
+            if (!scope.equals(record.scope) || record.reported) continue;
+            if (record.name != null && assets.isCachedUnreferenced(record.name)) continue;
+            found.add(record);
+        }
+        for (Record record : found) {
+            record.reported = true;
+            System.err.println("Native leak: " + record.type + (record.name != null ? " " + record.name : "")
+                + " still alive after " + scope + " unloaded");
+            record.site.printStackTrace();
+        }
+        leaks += found.size();
+        return found.size();
+    }
+
+    public synchronized int getLiveCount() {
+        return live.size();
+    }
+
+    public synchronized Map<String, Integer> getLiveCounts() {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Record record : live.values()) {
+            counts.merge(record.type, 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    public synchronized long getLeakCount() {
+        return leaks;
+    }
+
+    public synchronized String getReport() {
+        if (!ENABLED) return "Native resources: tracking disabled (-Dmario.native.debug=true)";
+        return String.format("Native resources: live=%d %s, created=%d, disposed=%d, leaks reported=%d",
+            live.size(), getLiveCounts(), created, disposed, leaks);
+    }
+
+    /** Prints every object still alive (call once everything has been disposed). */
+    public synchronized void reportLive() {
+        for (Record record : live.values()) {
+            System.err.println("Never disposed: " + record.type + (record.name != null ? " " + record.name : "")
+                + (record.scope != null ? " (" + record.scope + ")" : ""));
+            record.site.printStackTrace();
+        }
+    }
+
+    private static final class Record {
+        private final String type;
+        private final String name;
+        private final String scope;
+        private final Throwable site;
+        private boolean reported;
+
+        Record(String type, String name, String scope, Throwable site) {
+            this.type = type;
+            this.name = name;
+            this.scope = scope;
+            this.site = site;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.mario.assets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.mario.model.level.LevelData;
+import com.mario.model.level.LevelLoader;
+import com.mario.model.level.LevelTemplate;
+
+/**
+ * Warms up the assets needed by the first level before it starts.
+ *
+ * Worker threads decode sprite sheet PNGs into Pixmaps, decode the WAV
+ * sound effects (as libGDX's own SoundLoader does off the GL thread) and
+ * parse the first level, then decode its tilesets. The GL thread calls
+ * {@link #update(long)} once per frame: it uploads decoded Pixmaps as
+ * Textures until the frame's time slice is used up, so the window keeps
+ * drawing a loading frame meanwhile. Everything is registered in
+ * {@link GameAssetManager} under the "startup" owner; {@link #finish()}
+ * drops that owner once the game has taken its own references.
+ */
+public class StartupPipeline {
+    private static final String OWNER = "startup";
+
+    private final LevelLoader levelLoader;
+    private final String levelPath;
+    private final String[] texturePaths;
+    private final String[] soundPaths;
+    private final ExecutorService workers;
+    private final ConcurrentLinkedQueue<Decoded> decoded;
+    private final AtomicInteger pendingTasks;
+    private final List<String> timeline;
+    private final long startNanos;
+
+    private Future<LevelTemplate> levelTask;
+    private LevelTemplate levelTemplate;
+    private int uploads;
+    private int frames;
+    private boolean done;
+
+    public StartupPipeline(String levelPath, String[] texturePaths, String[] soundPaths) {
+        this.startNanos = System.nanoTime();
+        this.levelLoader = new LevelLoader();
+        this.levelPath = levelPath;
+        this.texturePaths = texturePaths;
+        this.soundPaths = soundPaths;
+        this.decoded = new ConcurrentLinkedQueue<>();
+        this.pendingTasks = new AtomicInteger();
+        this.timeline = new ArrayList<>();
+
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "startup-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        mark("pipeline started (" + texturePaths.length + " textures, " + soundPaths.length + " sounds)");
+        levelTask = workers.submit(this::parseLevel);
+        for (String path : texturePaths) {
+            submitTexture(path);
+        }
+        for (String path : soundPaths) {
+            submitSound(path);
+        }
+    }
+
+    /**
+     * Uploads decoded assets until {@code budgetNanos} is spent. Call once per
+     * frame on the GL thread; returns true once every asset is resident.
+     */
+    public boolean update(long budgetNanos) {
+        if (done) return true;
+        if (frames++ == 0) {
+            mark("first frame");
+        }
+
+        long deadline = System.nanoTime() + budgetNanos;
+        Decoded next;
+        while (System.nanoTime() < deadline && (next = decoded.poll()) != null) {
+            upload(next);
+        }
+
+        if (levelTemplate == null && levelTask.isDone()) {
+            levelTemplate = takeLevel();
+        }
+        if (levelTask.isDone() && pendingTasks.get() == 0 && decoded.isEmpty()) {
+            if (levelTemplate != null) {
+                levelLoader.finishTemplate(levelTemplate);
+                mark("level ready: " + levelPath);
+            }
+            workers.shutdown();
+            done = true;
+            mark("warm-up complete (" + uploads + " uploads over " + frames + " frames)");
+        }
+        return done;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    /** Fraction of decoded assets already uploaded, for the loading frame. */
+    public float getProgress() {
+        int total = uploads + decoded.size() + pendingTasks.get() + (levelTask.isDone() ? 0 : 1);
+        return total == 0 ? 1f : (float) uploads / total;
+    }
+
+    /** The first level's template, or null when it could not be parsed off the GL thread. */
+    public LevelTemplate getLevelTemplate() {
+        return levelTemplate;
+    }
+
+    public String getLevelPath() {
+        return levelPath;
+    }
+
+    /** Releases the pipeline's own references once the game holds its own. */
+    public void finish() {
+        mark("level 1 started");
+        GameAssetManager.getInstance().release(OWNER);
+        workers.shutdownNow();
+    }
+
+    public synchronized void mark(String label) {
+        timeline.add(String.format("%8.1f ms  %-18s %s", (System.nanoTime() - startNanos) / 1_000_000.0,
+            Thread.currentThread().getName(), label));
+    }
+
+    public synchronized String getTimelineReport() {
+        StringBuilder report = new StringBuilder("Startup timeline:");
+        for (String entry : timeline) {
+            report.append(System.lineSeparator()).append("  ").append(entry);
+        }
+        return report.toString();
+    }
+
+    private LevelTemplate parseLevel() throws Exception {
+        LevelTemplate template = levelLoader.parseTemplate(levelPath);
+        if (template == null) {
+            mark("level needs GL thread: " + levelPath);
+            return null;
+        }
+        mark("level parsed: " + levelPath);
+        String directory = levelPath.substring(0, levelPath.lastIndexOf('/') + 1);
+        for (LevelData.Tileset tileset : template.getTilesets()) {
+            submitTexture(directory + tileset.getImage());
+        }
+        return template;
+    }
+
+    private LevelTemplate takeLevel() {
+        try {
+            return levelTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Startup level parse failed: " + e.getMessage());
+        }
+        return null;
+    }
+
+    private void submitTexture(String path) {
+        pendingTasks.incrementAndGet();
+        workers.submit(() -> {
+            try {
+                decoded.add(new Decoded(path, new Pixmap(Gdx.files.internal(path)), null));
+                mark("decoded " + path);
+            } catch (RuntimeException e) {
+                System.err.println("Startup decode failed: " + path + " (" + e.getMessage() + ")");
+            } finally {
+                pendingTasks.decrementAndGet();
+            }
+        });
+    }
+
+    private void submitSound(String path) {
+        pendingTasks.incrementAndGet();
+        workers.submit(() -> {
+            try {
+                decoded.add(new Decoded(path, null, Gdx.audio.newSound(Gdx.files.internal(path))));
+                mark("decoded " + path);
+            } catch (RuntimeException e) {
+                System.err.println("Startup decode failed: " + path + " (" + e.getMessage() + ")");
+            } finally {
+                pendingTasks.decrementAndGet();
+            }
+        });
+    }
+
+    private void upload(Decoded asset) {
+        GameAssetManager assets = GameAssetManager.getInstance();
+        if (asset.pixmap != null) {
+            Texture texture = new Texture(asset.pixmap);
+            asset.pixmap.dispose();
+            assets.register(OWNER, asset.path, Texture.class, texture);
+        } else {
+            assets.register(OWNER, asset.path, Sound.class, asset.sound);
+        }
+        uploads++;
+    }
+
+    private static final class Decoded {
+        private final String path;
+        private final Pixmap pixmap;
+        private final Sound sound;
+
+        Decoded(String path, Pixmap pixmap, Sound sound) {
+            this.path = path;
+            this.pixmap = pixmap;
+            this.sound = sound;
+        }
+    }
+}
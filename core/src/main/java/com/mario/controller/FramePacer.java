@@ -0,0 +1,121 @@
+package com.mario.controller;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Frame limiter and frame-time statistics for one {@link FramePacingProfile}.
+ *
+ * {@link #beginFrame()} is called first thing in render(). With a limiter
+ * target it parks until shortly before the frame deadline, then spins the
+ * last stretch so the wake-up lands on time. The backend has already
+ * polled and dispatched input before render(), so keys pressed during the
+ * wait are dispatched with the next frame. They carry their OS event
+ * time ({@link InputEventQueue}), so that frame still orders and applies
+ * them by when they were pressed. While the window is unfocused the
+ * unfocused rate applies instead and, if the profile says so,
+ * {@link #isSimulationPaused()} tells the game to stop updating.
+ */
+public class FramePacer {
+    private static final long SPIN_NANOS = 1_500_000L; // park() can overshoot by about a millisecond
+    private static final int MAX_SAMPLES = 1 << 16;
+
+    private final FramePacingProfile profile;
+    private final long limiterPeriod;
+    private final long unfocusedPeriod;
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private volatile boolean focused = true;
+    private long deadline;
+    private long lastFrameStart;
+    private long lastCpuNanos = -1;
+
+    private final long[] frameNanos = new long[MAX_SAMPLES];
+    private int samples;
+    private long frames;
+    private long cpuNanos;
+    private long waitNanos;
+
+    public FramePacer(FramePacingProfile profile, int refreshRate) {
+        this.profile = profile;
+        int limiterFps = profile.getLimiterFps(refreshRate);
+        this.limiterPeriod = limiterFps > 0 ? 1_000_000_000L / limiterFps : 0;
+        this.unfocusedPeriod = profile.getUnfocusedFps() > 0 ? 1_000_000_000L / profile.getUnfocusedFps() : 0;
+    }
+
+    /** Waits for this frame's slot; returns the frame start time. */
+    public long beginFrame() {
+        long period = focused ? limiterPeriod : unfocusedPeriod;
+        long now = System.nanoTime();
+        if (period > 0) {
+            long waitStart = now;
+            if (deadline == 0 || now - deadline > period) {
+                // First frame, or too late to catch up: start a new cadence
+                deadline = now;
+            }
+            long remaining;
+            while ((remaining = deadline - now) > SPIN_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+                now = System.nanoTime();
+            }
+            while (deadline - now > 0) {
+                Thread.onSpinWait();
+                now = System.nanoTime();
+            }
+            waitNanos += now - waitStart;
+            deadline += period;
+        }
+        record(now);
+        return now;
+    }
+
+    private void record(long now) {
+        if (lastFrameStart != 0) {
+            frameNanos[samples++ & (MAX_SAMPLES - 1)] = now - lastFrameStart;
+            frames++;
+        }
+        lastFrameStart = now;
+        if (threads.isCurrentThreadCpuTimeSupported()) {
+            long cpu = threads.getCurrentThreadCpuTime();
+            if (lastCpuNanos >= 0) {
+                cpuNanos += cpu - lastCpuNanos;
+            }
+            lastCpuNanos = cpu;
+        }
+    }
+
+    public void setFocused(boolean focused) {
+        this.focused = focused;
+    }
+
+    public boolean isSimulationPaused() {
+        return !focused && profile.isPauseWhenUnfocused();
+    }
+
+    public FramePacingProfile getProfile() {
+        return profile;
+    }
+
+    /** Frame-to-frame interval statistics over the last {@value #MAX_SAMPLES} frames. */
+    public String getReport() {
+        int count = (int) Math.min(frames, MAX_SAMPLES);
+        if (count == 0) {
+            return "Frame pacing [" + profile + "]: no frames";
+        }
+        long[] sorted = Arrays.copyOf(frameNanos, count);
+        Arrays.sort(sorted);
+        double mean = 0;
+        for (long nanos : sorted) mean += nanos;
+        mean /= count;
+        double variance = 0;
+        for (long nanos : sorted) variance += (nanos - mean) * (nanos - mean);
+        variance /= count;
+        return String.format("Frame pacing [%s]: frames=%d mean=%.3f ms stddev=%.3f ms p50=%.3f p99=%.3f max=%.3f ms, "
+                + "cpu=%.3f ms/frame, limiter wait=%.3f ms/frame",
+            profile, frames, mean / 1e6, Math.sqrt(variance) / 1e6, sorted[count / 2] / 1e6,
+            sorted[(int) (count * 0.99)] / 1e6, sorted[count - 1] / 1e6,
+            cpuNanos / 1e6 / frames, waitNanos / 1e6 / frames);
+    }
+}
@@ -0,0 +1,73 @@
+package com.mario.controller;
+
+/**
+ * How the desktop launcher paces frames. The launcher applies the vsync and
+ * libGDX foreground/idle caps; {@link FramePacer} applies its own limiter
+ * and the unfocused policy from inside the game loop.
+ */
+public enum FramePacingProfile {
+    // vsync, gdx foreground cap, own limiter, idle fps, unfocused fps, pause when unfocused
+    DEFAULT("default", true, FramePacingProfile.REFRESH_PLUS_ONE, 0, 60, 0, false),
+    LOW_LATENCY("low-latency", false, 0, FramePacingProfile.REFRESH, 60, 0, false),
+    POWER_SAVING("power-saving", true, 60, 0, 10, 10, true),
+    BENCHMARK("benchmark", false, 0, 0, 60, 0, false);
+
+    /** Frame-rate values resolved against the monitor's refresh rate. */
+    public static final int REFRESH = -1;
+    public static final int REFRESH_PLUS_ONE = -2;
+
+    private final String name;
+    private final boolean vsync;
+    private final int foregroundFps;
+    private final int limiterFps;
+    private final int idleFps;
+    private final int unfocusedFps;
+    private final boolean pauseWhenUnfocused;
+
+    FramePacingProfile(String name, boolean vsync, int foregroundFps, int limiterFps, int idleFps,
+                       int unfocusedFps, boolean pauseWhenUnfocused) {
+        this.name = name;
+        this.vsync = vsync;
+        this.foregroundFps = foregroundFps;
+        this.limiterFps = limiterFps;
+        this.idleFps = idleFps;
+        this.unfocusedFps = unfocusedFps;
+        this.pauseWhenUnfocused = pauseWhenUnfocused;
+    }
+
+    public static FramePacingProfile fromName(String name) {
+        for (FramePacingProfile profile : values()) {
+            if (profile.name.equalsIgnoreCase(name) || profile.name().equalsIgnoreCase(name)) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown frame pacing profile: " + name);
+    }
+
+    public String getName() { return name; }
+    public boolean isVsync() { return vsync; }
+    public boolean isPauseWhenUnfocused() { return pauseWhenUnfocused; }
+    public int getIdleFps() { return idleFps; }
+    public int getUnfocusedFps() { return unfocusedFps; }
+
+    /** libGDX foreground cap (0 = uncapped). */
+    public int getForegroundFps(int refreshRate) {
+        return resolve(foregroundFps, refreshRate);
+    }
+
+    /** Target of the in-game sleep-plus-spin limiter (0 = off). */
+    public int getLimiterFps(int refreshRate) {
+        return resolve(limiterFps, refreshRate);
+    }
+
+    private static int resolve(int fps, int refreshRate) {
+        if (fps == REFRESH) return refreshRate;
+        if (fps == REFRESH_PLUS_ONE) return refreshRate + 1;
+        return fps;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -1,78 +1,266 @@
 package com.mario.controller;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input;
-import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.math.Rectangle;
+import com.mario.assets.GameAssetManager;
+import com.mario.assets.NativeResourceTracker;
+import com.mario.assets.StartupPipeline;
 import com.mario.model.entity.Coin;
-import com.mario.model.entity.EndTrigger;
-import com.mario.model.entity.Enemy;
 import com.mario.model.entity.Entity;
+import com.mario.model.entity.EntityFactory;
 import com.mario.model.entity.Goomba;
 import com.mario.model.entity.Player;
 import com.mario.model.level.Level;
+import com.mario.model.level.LevelCatalog;
 import com.mario.model.level.LevelLoader;
+import com.mario.model.level.LevelTemplateCache;
+import com.mario.model.level.TriggerListener;
+import com.mario.model.level.TriggerVolume;
 import com.mario.model.physics.PhysicsEngine;
+import com.mario.net.ReplicationServer;
+import com.mario.observer.GameEventManager;
+import com.mario.profiling.FramePhaseEvent;
+import com.mario.profiling.Gauge;
+import com.mario.profiling.Histogram;
+import com.mario.profiling.LatencyTracker;
+import com.mario.profiling.MetricsExporter;
+import com.mario.profiling.MetricsRegistry;
 import com.mario.view.AudioManager;
 import com.mario.view.GameRenderer;
+import com.mario.view.RenderSnapshot;
+import com.mario.view.SpriteAnimator;
 
-public class GameController extends ApplicationAdapter {
+public class GameController extends ApplicationAdapter implements TriggerListener {
     private Level currentLevel;
     private LevelLoader levelLoader;
+    private LevelTemplateCache levelCache;
     private GameRenderer renderer;
     private PhysicsEngine physicsEngine;
     private InputHandler inputHandler;
     private AudioManager audioManager;
+    private GameEventManager eventManager;
     private String currentLevelPath;
+    private StartupPipeline startup;
+    private final FramePacer pacer;
+    private static final long STARTUP_SLICE_NANOS = 4_000_000L; // GL uploads per loading frame
+    
+    // Simulation and rendering exchange state only through render snapshots
+    private static final boolean SIMULATION_THREAD = Boolean.getBoolean("mario.simulation.thread");
+    private static final int SIMULATION_HZ = 60;
+    private SimulationThread simulation;
+    private TripleBuffer<RenderSnapshot> snapshots;
+    private RenderSnapshot rendered;
+    private Rectangle cameraLock;
+    private long tickNumber;
+    
+    // World state sent to remote clients each tick (-Dmario.replication.port)
+    private ReplicationServer replication;
     
     // Level progression system
     private int currentLevelNumber = 1;
-    private static final int MAX_LEVELS = 10; // Adjust based on how many levels you create
+    private long frameNumber;
+    
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final Histogram frameTime = metrics.histogram("mario_frame_seconds", "Time between frame starts");
+    private final Histogram tickTime = metrics.histogram("mario_tick_seconds", "Simulation tick duration (update, collisions, triggers, events)");
+    private final Map<String, Gauge> entityGauges = new HashMap<>();
+    private final Map<String, Integer> entityCounts = new HashMap<>();
+    private final Runnable metricsSampler = this::sampleMetrics;
+    private MetricsExporter metricsExporter;
+    private long lastFrameStart;
+    private static final String DEFAULT_LEVEL = "levels/level1.tmx"; // when the catalog is empty
+    private LevelCatalog levelCatalog;
     private boolean levelCompleted = false;
     private float levelCompleteTimer = 0f;
     private static final float LEVEL_COMPLETE_DELAY = 2.0f; // 2 seconds before loading next level
-    private String nextLevelPath = null; // Custom next level from EndTrigger
+    private String nextLevelPath = null; // Custom next level from the END trigger
+    private float respawnX;
+    private float respawnY;
+    private final List<TriggerVolume> musicZones = new ArrayList<>(); // entered, innermost last
+    
+    public GameController() {
+        this(new FramePacer(FramePacingProfile.DEFAULT, 60));
+    }
+    
+    public GameController(FramePacer pacer) {
+        this.pacer = pacer;
+    }
     
     @Override
     public void create() {
+        audioManager = AudioManager.getInstance();
+        eventManager = GameEventManager.getInstance();
+
+        levelCatalog = LevelCatalog.load();
+        // Decode the first level's assets on worker threads while the GL objects are built
+        startup = new StartupPipeline(firstLevelPath(), SpriteAnimator.getSheetPaths(), audioManager.getSoundPaths());
+        startup.start();
+
         levelLoader = new LevelLoader();
+        levelCache = new LevelTemplateCache(levelLoader);
         renderer = new GameRenderer();
         physicsEngine = new PhysicsEngine();
+        snapshots = new TripleBuffer<>(new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot());
+        rendered = snapshots.acquire();
         inputHandler = new InputHandler();
-        audioManager = AudioManager.getInstance();
-        
+        Gdx.input.setInputProcessor(inputHandler.getQueue());
+        metrics.addSampler(metricsSampler);
+        metricsExporter = new MetricsExporter(metrics).startFromSystemProperties();
+        startReplication();
+        startup.mark("create done");
+    }
+
+    /** Starts level 1 once the startup pipeline has uploaded everything. */
+    private void finishStartup() {
+        if (startup.getLevelTemplate() != null) {
+            levelCache.put(startup.getLevelPath(), startup.getLevelTemplate());
+        }
+        // Before the simulation thread exists: it must never reach the asset manager
+        audioManager.preloadSounds();
         loadLevelByNumber(1);
-        audioManager.playMusic("main");
+        startup.finish();
+        System.out.println(startup.getTimelineReport());
+        startup = null;
+        if (SIMULATION_THREAD) {
+            simulation = new SimulationThread(this, pacer, SIMULATION_HZ);
+            simulation.start();
+            System.out.println("Simulation thread started (" + SIMULATION_HZ + " Hz)");
+        }
     }
     
+    /** GL thread only, with the simulation stopped (see {@link #changeLevel}). */
     public void loadLevel(String levelPath) {
-        try {
-            currentLevel = levelLoader.loadLevel(levelPath);
-            currentLevelPath = levelPath;
-            levelCompleted = false;
-            levelCompleteTimer = 0f;
-            System.out.println("Niveau chargé: " + levelPath);
-        } catch (Exception e) {
-            System.err.println("Erreur lors du chargement du niveau: " + e.getMessage());
+        if (currentLevel != null) {
+            // Deliver pending events before their source entities return to the pools
+            eventManager.flush();
+            System.out.println(currentLevel.getTriggers().getStatsReport());
+            currentLevel.dispose();
+            currentLevel = null;
+        }
+        levelCompleted = false;
+        levelCompleteTimer = 0f;
+        // The previous level is disposed; from now on only the new one must stay cached
+        levelCache.pin(null);
+        if (findLevel(levelPath) == null) {
+            System.err.println("Niveau absent du catalogue: " + levelPath);
             createTestLevel();
             currentLevelPath = null;
+        } else {
+            try {
+                currentLevel = levelCache.instantiate(levelPath);
+                levelCache.pin(levelPath);
+                currentLevelPath = levelPath;
+                currentLevelNumber = levelCatalog.numberOf(levelPath);
+                System.out.println("Niveau chargé: " + levelPath);
+                System.out.println(GameAssetManager.getInstance().getResidentReport());
+            } catch (Exception e) {
+                System.err.println("Erreur lors du chargement du niveau: " + e.getMessage());
+                createTestLevel();
+                currentLevelPath = null;
+            }
+        }
+        currentLevel.getTriggers().setListener(this);
+        Player player = currentLevel.getPlayer();
+        if (player != null) {
+            respawnX = player.getPosition().x;
+            respawnY = player.getPosition().y;
+        }
+        cameraLock = null;
+        musicZones.clear();
+        audioManager.playLevelMusic(currentLevel.getMusic());
+        // The renderer must not draw the previous level's snapshot once it is disposed
+        publishSnapshot();
+    }
+    
+    /** Runs a level change now, or on the GL thread after this tick when the simulation has its own thread. */
+    private void changeLevel(Runnable load) {
+        if (simulation != null) {
+            simulation.runOnGlThreadPaused(load);
+        } else {
+            load.run();
         }
     }
     
+    /** Runs GL work (template loads) on the GL thread without stopping the simulation. */
+    private void onGlThread(Runnable task) {
+        if (simulation != null) {
+            Gdx.app.postRunnable(task);
+        } else {
+            task.run();
+        }
+    }
+    
+    private void publishSnapshot() {
+        snapshots.getWriteBuffer().capture(currentLevel, cameraLock, tickNumber);
+        snapshots.publish();
+    }
+    
+    /** Loads the level at position {@code levelNumber} (from 1) of the catalog. */
     public void loadLevelByNumber(int levelNumber) {
-        currentLevelNumber = levelNumber;
-        String levelPath = "levels/level" + levelNumber + ".tmx";
-        loadLevel(levelPath);
+        LevelCatalog.Entry entry = levelCatalog.byNumber(levelNumber);
+        loadLevel(entry != null ? entry.getPath() : DEFAULT_LEVEL);
+    }
+
+    private String firstLevelPath() {
+        LevelCatalog.Entry first = levelCatalog.first();
+        return first != null ? first.getPath() : DEFAULT_LEVEL;
+    }
+
+    /** Catalog entry of the level, rescanning the levels directory once if it is unknown (level added since). */
+    private LevelCatalog.Entry findLevel(String levelPath) {
+        LevelCatalog.Entry entry = levelCatalog.get(levelPath);
+        if (entry == null) {
+            LevelCatalog scanned = LevelCatalog.scan();
+            if (!scanned.isEmpty()) {
+                levelCatalog = scanned;
+                entry = levelCatalog.get(levelPath);
+            }
+        }
+        return entry;
+    }
+
+    /** Level played after the current one: the END trigger's target, else the catalog successor. */
+    private String nextLevelPath() {
+        if (nextLevelPath != null && !nextLevelPath.isEmpty()) {
+            return "levels/" + nextLevelPath;
+        }
+        LevelCatalog.Entry next = levelCatalog.next(currentLevelPath);
+        return next != null ? next.getPath() : DEFAULT_LEVEL;
+    }
+
+    /** Loads the next level's template and music while the level-complete delay runs. */
+    private void prepareNextLevel() {
+        String path = nextLevelPath();
+        LevelCatalog.Entry entry = levelCatalog.get(path);
+        if (entry == null) {
+            return; // Unknown level: loadLevel rescans the catalog
+        }
+        audioManager.prefetchMusic(entry.getMusic());
+        onGlThread(() -> {
+            try {
+                levelCache.get(path);
+            } catch (Exception e) {
+                System.err.println("Impossible de précharger le niveau suivant: " + e.getMessage());
+            }
+        });
     }
     
+    /** GL thread only, like {@link #loadLevel}: the END trigger target or the catalog successor. */
     public void loadNextLevel() {
-        if (currentLevelNumber < MAX_LEVELS) {
-            loadLevelByNumber(currentLevelNumber + 1);
-        } else {
+        String path = nextLevelPath();
+        nextLevelPath = null;
+        if (levelCatalog.numberOf(path) <= currentLevelNumber) {
             System.out.println("Congratulations! You completed all levels!");
             // You can add a victory screen here
-            loadLevelByNumber(1); // Loop back to level 1
         }
+        loadLevel(path);
     }
     
     private void createTestLevel() {
@@ -117,32 +305,117 @@ public class GameController extends ApplicationAdapter {
     
     @Override
     public void render() {
-        Gdx.gl.glClearColor(0.5f, 0.7f, 1.0f, 1.0f);
-        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        // The previous frame's buffers were swapped between the two render() calls
+        LatencyTracker.getInstance().framePresented(System.nanoTime());
+        frameNumber++;
+        FramePhaseEvent phase = beginPhase();
+        long frameStart = pacer.beginFrame();
+        endPhase(phase, FramePhaseEvent.PACING, frameNumber);
+        if (lastFrameStart != 0) {
+            frameTime.record(frameStart - lastFrameStart);
+        }
+        lastFrameStart = frameStart;
+        metrics.sample(frameStart);
+
+        if (startup != null) {
+            if (!startup.update(STARTUP_SLICE_NANOS)) {
+                renderer.renderLoading(startup.getProgress());
+                return;
+            }
+            finishStartup();
+        }
         
         float delta = Gdx.graphics.getDeltaTime();
+        boolean paused = pacer.isSimulationPaused();
+        if (simulation != null) {
+            simulation.runHandoff();
+        } else if (paused) {
+            drainInput(frameStart);
+        } else {
+            simulate(frameStart, delta);
+        }
         
-        // Update input buffer state
-        inputHandler.update(delta);
+        phase = beginPhase();
+        if (!paused) {
+            renderer.update(delta);
+            audioManager.update(delta);
+        }
+        rendered = snapshots.acquire();
+        renderer.render(rendered);
+        endPhase(phase, FramePhaseEvent.RENDER, frameNumber);
+        LatencyTracker.getInstance().frameRendered(System.nanoTime(), rendered.getTick());
+    }
+    
+    /** Key events stamped before {@code nowNanos} are applied but the level is not updated (unfocused pause). */
+    void drainInput(long nowNanos) {
+        inputHandler.update(nowNanos, tickNumber);
+    }
+    
+    /** One simulation tick: input stamped before the tick, update, then a render snapshot. */
+    void simulate(long tickNanos, float delta) {
+        tickNumber++;
+        FramePhaseEvent phase = beginPhase();
+        // Apply the key events timestamped before this tick
+        inputHandler.update(tickNanos, tickNumber);
         handleInput();
+        endPhase(phase, FramePhaseEvent.INPUT, tickNumber);
+        
+        phase = beginPhase();
+        long tickStart = System.nanoTime();
         update(delta);
-        renderer.render(currentLevel);
+        publishSnapshot();
+        replicate();
+        tickTime.record(System.nanoTime() - tickStart);
+        endPhase(phase, FramePhaseEvent.UPDATE, tickNumber);
+    }
+    
+    private void startReplication() {
+        Integer port = Integer.getInteger("mario.replication.port");
+        if (port == null) return;
+        try {
+            replication = new ReplicationServer(port);
+            System.out.println("Réplication sur le port " + replication.getPort());
+        } catch (IOException e) {
+            System.err.println("Réplication désactivée: " + e.getMessage());
+        }
+    }
+    
+    private void replicate() {
+        if (replication == null) return;
+        try {
+            replication.publish(currentLevel, currentLevelPath, tickNumber);
+        } catch (IOException e) {
+            System.err.println("Erreur de réplication: " + e.getMessage());
+        }
+    }
+    
+    private static FramePhaseEvent beginPhase() {
+        FramePhaseEvent event = new FramePhaseEvent();
+        event.begin();
+        return event;
+    }
+    
+    private static void endPhase(FramePhaseEvent event, String name, long frame) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = name;
+            event.frame = frame;
+            event.commit();
+        }
     }
     
     private void handleInput() {
+        boolean restart = inputHandler.consumeRestart();
         if (currentLevel == null) return;
         
         // Block player movement input when level is completed
         if (levelCompleted) return;
 
-        if (Gdx.input.isKeyJustPressed(Input.Keys.R)) {
+        if (restart) {
             if (currentLevel.getPlayer() == null || !currentLevel.getPlayer().isActive() || currentLevel.getPlayer().getLives() <= 0) {
                 System.out.println("Redémarrage du jeu...");
-                if (currentLevelPath != null) {
-                    loadLevel(currentLevelPath);
-                } else {
-                    loadLevel("levels/level11.json");
-                }
+                String path = currentLevelPath != null ? currentLevelPath : firstLevelPath();
+                changeLevel(() -> loadLevel(path));
                 return;
             }
         }
@@ -158,50 +431,81 @@ public class GameController extends ApplicationAdapter {
         
         currentLevel.update(delta);
         handleCollisions();
+        currentLevel.updateTriggers();
         checkLevelCompletion(delta);
+        eventManager.flush();
+        audioManager.endTick();
     }
     
-    /*Check if the player has reached the end of the level*/
+    /*Once the END trigger has fired, count down to the next level*/
     private void checkLevelCompletion(float delta) {
         if (currentLevel == null || currentLevel.getPlayer() == null) return;
         
-        // If level already completed, count down to next level
         if (levelCompleted) {
             levelCompleteTimer += delta;
             if (levelCompleteTimer >= LEVEL_COMPLETE_DELAY) {
-                // Load next level (custom path or default sequence)
-                if (nextLevelPath != null && !nextLevelPath.isEmpty()) {
-                    loadLevel("levels/" + nextLevelPath);
-                    nextLevelPath = null;
-                } else {
-                    loadNextLevel();
-                }
+                // Load next level (END trigger target or catalog successor)
+                changeLevel(this::loadNextLevel);
             }
-            return;
         }
-        
-        Player player = currentLevel.getPlayer();
-        if (!player.isActive()) return;
-        
-        // Check EndTrigger collision (preferred method)
-        EndTrigger endTrigger = currentLevel.getEndTrigger();
-        if (endTrigger != null) {
-            if (player.getBounds().overlaps(endTrigger.getBounds())) {
-                levelCompleted = true;
-                levelCompleteTimer = 0f;
-                nextLevelPath = endTrigger.getNextLevel();
-                System.out.println("Level " + currentLevelNumber + " completed! Loading next level...");
-            }
-        } else {
-            // Fallback: Calculate level end position (90% of level width)
-            float levelEndX = (currentLevel.getWidth() * currentLevel.getTileWidth()) * 0.9f;
-            
-            // Check if player reached the end
-            if (player.getPosition().x >= levelEndX) {
+    }
+    
+    @Override
+    public void onTriggerEnter(TriggerVolume trigger, Entity entity) {
+        boolean isPlayer = entity == currentLevel.getPlayer();
+        switch (trigger.getKind()) {
+            case END:
+                if (levelCompleted) return;
                 levelCompleted = true;
                 levelCompleteTimer = 0f;
+                nextLevelPath = trigger.getValue();
                 System.out.println("Level " + currentLevelNumber + " completed! Loading next level...");
+                prepareNextLevel();
+                break;
+            case CHECKPOINT:
+                Rectangle bounds = trigger.getBounds();
+                respawnX = bounds.x + bounds.width / 2 - entity.getWidth() / 2;
+                respawnY = bounds.y;
+                break;
+            case KILL:
+                if (isPlayer) {
+                    Player player = (Player) entity;
+                    player.kill();
+                    if (player.isActive()) {
+                        player.setPosition(respawnX, respawnY);
+                        player.setVelocity(0, 0);
+                    }
+                } else {
+                    entity.setActive(false);
+                }
+                break;
+            case MUSIC:
+                musicZones.remove(trigger);
+                musicZones.add(trigger);
+                audioManager.playLevelMusic(trigger.getValue());
+                break;
+            case CAMERA_LOCK:
+                cameraLock = trigger.getBounds();
+                break;
+        }
+    }
+    
+    @Override
+    public void onTriggerExit(TriggerVolume trigger, Entity entity) {
+        switch (trigger.getKind()) {
+            case MUSIC: {
+                // Overlapping or nested zones: back to the level track only when leaving the last one
+                boolean wasPlaying = !musicZones.isEmpty() && musicZones.get(musicZones.size() - 1) == trigger;
+                if (!musicZones.remove(trigger) || !wasPlaying) break;
+                audioManager.playLevelMusic(musicZones.isEmpty()
+                    ? currentLevel.getMusic() : musicZones.get(musicZones.size() - 1).getValue());
+                break;
             }
+            case CAMERA_LOCK:
+                cameraLock = null;
+                break;
+            default:
+                break;
         }
     }
     
@@ -213,19 +517,63 @@ public class GameController extends ApplicationAdapter {
         physicsEngine.handlePlayerTerrainCollision(player, currentLevel.getSolidTiles());
         physicsEngine.handlePlayerEnemyCollision(player, currentLevel);
         physicsEngine.handlePlayerCollectibleCollision(player, currentLevel);
-        
-        java.util.List<Entity> entities = currentLevel.getEntities();
-        for (int i = 0; i < entities.size(); i++) {
-            Entity entity = entities.get(i);
-            if (entity instanceof Enemy && entity.isActive()) {
-                physicsEngine.handleEnemyTerrainCollision(entity, currentLevel.getSolidTiles());
-            }
+        physicsEngine.handleEnemyTerrainCollisions(currentLevel);
+    }
+    
+    /** GL-thread gauges: entities per type in the snapshot being drawn and resident asset memory. */
+    private void sampleMetrics() {
+        entityCounts.clear();
+        rendered.countEntitiesByType(entityCounts);
+        for (Map.Entry<String, Integer> count : entityCounts.entrySet()) {
+            entityGauges.computeIfAbsent(count.getKey(),
+                type -> metrics.gauge("mario_entities", "Active entities in the current level", "type", type));
+        }
+        for (Map.Entry<String, Gauge> gauge : entityGauges.entrySet()) {
+            gauge.getValue().set(entityCounts.getOrDefault(gauge.getKey(), 0));
+        }
+        GameAssetManager assets = GameAssetManager.getInstance();
+        for (GameAssetManager.Category category : GameAssetManager.Category.values()) {
+            metrics.gauge("mario_asset_bytes", "Estimated resident native asset memory", "category",
+                category.name().toLowerCase()).set(assets.getResidentBytes(category));
         }
     }
     
     @Override
     public void dispose() {
+        if (simulation != null) {
+            simulation.stop();
+            System.out.println(simulation.getReport());
+        }
+        System.out.println(String.format("Render snapshots: %d published, %d never drawn",
+            snapshots.getPublished(), snapshots.getSkipped()));
+        metrics.removeSampler(metricsSampler);
+        metricsExporter.stop();
+        if (replication != null) {
+            System.out.println(replication.getReport());
+            try {
+                replication.close();
+            } catch (IOException e) {
+                System.err.println("Erreur de réplication: " + e.getMessage());
+            }
+        }
         renderer.dispose();
         audioManager.dispose();
+        System.out.println("Level cache: " + levelCache);
+        levelCache.dispose();
+        if (currentLevel != null) {
+            System.out.println(currentLevel.getTriggers().getStatsReport());
+        }
+        System.out.println("Input events dropped: " + inputHandler.getDroppedEvents());
+        LatencyTracker.getInstance().dispose();
+        System.out.println(pacer.getReport());
+        System.out.println(eventManager.getStatsReport());
+        eventManager.dispose();
+        System.out.println(EntityFactory.getInstance().getPoolReport());
+        System.out.println(GameAssetManager.getInstance().getResidentReport());
+        GameAssetManager.getInstance().dispose();
+        if (NativeResourceTracker.ENABLED) {
+            System.out.println(NativeResourceTracker.getInstance().getReport());
+            NativeResourceTracker.getInstance().reportLive();
+        }
     }
 }
@@ -0,0 +1,91 @@
+package com.mario.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputAdapter;
+
+/**
+ * Key transitions captured as they arrive, each with its timestamp,
+ * instead of being sampled once per frame.
+ *
+ * The timestamp is {@code Input.getCurrentEventTime()}: when the backend
+ * received the event from the OS (System.nanoTime() base on lwjgl3), not
+ * when it is dispatched to us, which only happens just before render().
+ *
+ * The input thread is the only producer and the simulation the only
+ * consumer, so the ring needs no lock: the producer fills a slot and then
+ * publishes it by moving {@code tail}, the consumer reads up to
+ * {@code tail} and frees slots by moving {@code head}. When the ring is
+ * full the new event is dropped and counted rather than blocking input.
+ */
+public class InputEventQueue extends InputAdapter {
+    private static final int CAPACITY = 256; // power of two
+
+    private final long[] times = new long[CAPACITY];
+    private final int[] keys = new int[CAPACITY];
+    private final boolean[] downs = new boolean[CAPACITY];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long dropped;
+
+    @Override
+    public boolean keyDown(int keycode) {
+        return offer(keycode, true, eventTime());
+    }
+
+    @Override
+    public boolean keyUp(int keycode) {
+        return offer(keycode, false, eventTime());
+    }
+
+    private static long eventTime() {
+        long time = Gdx.input != null ? Gdx.input.getCurrentEventTime() : 0L;
+        return time != 0L ? time : System.nanoTime();
+    }
+
+    boolean offer(int keycode, boolean down, long timeNanos) {
+        long t = tail.get();
+        if (t - head.get() == CAPACITY) {
+            dropped++;
+            return false;
+        }
+        int slot = (int) (t & (CAPACITY - 1));
+        times[slot] = timeNanos;
+        keys[slot] = keycode;
+        downs[slot] = down;
+        tail.lazySet(t + 1); // publishes the slot
+        return true;
+    }
+
+    /**
+     * Hands every event stamped at or before {@code untilNanos} to the
+     * consumer, oldest first. Later events stay queued for the next tick.
+     */
+    public int drain(long untilNanos, Consumer consumer) {
+        long h = head.get();
+        long t = tail.get();
+        int count = 0;
+        while (h < t) {
+            int slot = (int) (h & (CAPACITY - 1));
+            if (times[slot] - untilNanos > 0) break;
+            consumer.onKey(keys[slot], downs[slot], times[slot]);
+            h++;
+            count++;
+        }
+        head.lazySet(h);
+        return count;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public interface Consumer {
+        void onKey(int keycode, boolean down, long timeNanos);
+    }
+}
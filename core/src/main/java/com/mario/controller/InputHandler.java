@@ -1,44 +1,105 @@
 package com.mario.controller;
-import com.badlogic.gdx.Gdx;
+import java.util.Arrays;
+
 import com.badlogic.gdx.Input;
 import com.mario.model.entity.Player;
+import com.mario.profiling.LatencyTracker;
+
+public class InputHandler implements InputEventQueue.Consumer {
+
+    private static final long JUMP_BUFFER_NANOS = 150_000_000L; // 0.15 s, measured from the key press
+    private static final long NO_PRESS = Long.MIN_VALUE;
+
+    private final InputEventQueue queue = new InputEventQueue();
+    private final boolean[] held = new boolean[Input.Keys.MAX_KEYCODE + 1];
+    // Pressed since the last tick: a press and release drained together still counts for one tick
+    private final boolean[] latched = new boolean[Input.Keys.MAX_KEYCODE + 1];
+    private long tickNanos;
+    private long tick;
+    private long jumpPressedAt = NO_PRESS;
+    private long movePressedAt = NO_PRESS; // Last move key press not yet applied to the player
+    private boolean restartPressed;
+
+    /** Processor to install with Gdx.input.setInputProcessor. */
+    public InputEventQueue getQueue() {
+        return queue;
+    }
+
+    /** Applies every key transition that happened up to the start of tick number {@code tick}. */
+    public void update(long tickNanos, long tick) {
+        this.tickNanos = tickNanos;
+        this.tick = tick;
+        // The previous tick has applied the latched presses
+        Arrays.fill(latched, false);
+        queue.drain(tickNanos, this);
 
-public class InputHandler {
-    
-    private float jumpBufferTime = 0f;
-    private static final float JUMP_BUFFER_DURATION = 0.15f; 
-    
-    public void update(float deltaTime) {
-        // Decrease jump buffer timer
-        if (jumpBufferTime > 0) {
-            jumpBufferTime -= deltaTime;
-        }
-        
-        // Detect jump input and store it in buffer
-        if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE) || 
-            Gdx.input.isKeyJustPressed(Input.Keys.UP) ||
-            Gdx.input.isKeyJustPressed(Input.Keys.Z)) {
-            jumpBufferTime = JUMP_BUFFER_DURATION;
+        // Drop a buffered jump once it is older than the buffer window
+        if (jumpPressedAt != NO_PRESS && tickNanos - jumpPressedAt > JUMP_BUFFER_NANOS) {
+            jumpPressedAt = NO_PRESS;
+        }
+    }
+
+    @Override
+    public void onKey(int keycode, boolean down, long timeNanos) {
+        if (keycode >= 0 && keycode < held.length) {
+            held[keycode] = down;
+            if (down) latched[keycode] = true;
+        }
+        if (down && (keycode == Input.Keys.SPACE || keycode == Input.Keys.UP || keycode == Input.Keys.Z)) {
+            jumpPressedAt = timeNanos;
+        }
+        if (down && keycode == Input.Keys.R) {
+            restartPressed = true;
+        }
+        if (down && (keycode == Input.Keys.LEFT || keycode == Input.Keys.Q
+                || keycode == Input.Keys.RIGHT || keycode == Input.Keys.D)) {
+            movePressedAt = timeNanos;
         }
     }
-    
+
     public void handlePlayerInput(Player player) {
         if (player == null || !player.isActive()) return;
-        
+
+        float previousVelocityX = player.getVelocity().x;
         player.stopMoving();
-        
-        if (Gdx.input.isKeyPressed(Input.Keys.LEFT) || Gdx.input.isKeyPressed(Input.Keys.Q)) {
+
+        if (isDown(Input.Keys.LEFT) || isDown(Input.Keys.Q)) {
             player.moveLeft();
         }
-        
-        if (Gdx.input.isKeyPressed(Input.Keys.RIGHT) || Gdx.input.isKeyPressed(Input.Keys.D)) {
+
+        if (isDown(Input.Keys.RIGHT) || isDown(Input.Keys.D)) {
             player.moveRight();
         }
-        
+        if (movePressedAt != NO_PRESS) {
+            if (player.getVelocity().x != previousVelocityX) {
+                LatencyTracker.getInstance().inputApplied(movePressedAt, tickNanos, tick);
+            }
+            movePressedAt = NO_PRESS;
+        }
+
         // Use buffered jump - more responsive and forgiving
-        if (jumpBufferTime > 0 && player.isOnGround()) {
+        if (jumpPressedAt != NO_PRESS && player.isOnGround()) {
+            float previousVelocityY = player.getVelocity().y;
             player.jump();
-            jumpBufferTime = 0; // Consume the buffered jump
+            if (player.getVelocity().y != previousVelocityY) {
+                LatencyTracker.getInstance().inputApplied(jumpPressedAt, tickNanos, tick);
+            }
+            jumpPressedAt = NO_PRESS; // Consume the buffered jump
         }
     }
+
+    private boolean isDown(int keycode) {
+        return held[keycode] || latched[keycode];
+    }
+
+    /** True once per R press applied since the last call (read from the queue, so it works off the GL thread). */
+    public boolean consumeRestart() {
+        boolean pressed = restartPressed;
+        restartPressed = false;
+        return pressed;
+    }
+
+    public long getDroppedEvents() {
+        return queue.getDropped();
+    }
 }
@@ -0,0 +1,118 @@
+package com.mario.controller;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Optional fixed-rate simulation thread (-Dmario.simulation.thread=true).
+ *
+ * Each tick drains input, updates the level and publishes a render
+ * snapshot through {@link GameController}; the GL thread only draws the
+ * latest snapshot, so a slow tick no longer delays the buffer swap and a
+ * slow frame no longer delays the tick. Work that needs the GL thread
+ * while the level is not being updated (loading a level) is handed over
+ * with {@link #runOnGlThreadPaused}: the tick finishes, the thread waits,
+ * the GL thread runs the task from {@link #runHandoff()} at the start of
+ * its next frame, and the simulation resumes.
+ */
+class SimulationThread implements Runnable {
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final GameController game;
+    private final FramePacer pacer;
+    private final long stepNanos;
+    private final float stepSeconds;
+    private final Thread thread;
+    private volatile boolean running;
+    private volatile Runnable handoff;
+    private volatile Throwable failure;
+    private Runnable requested; // simulation thread only
+    private long ticks;
+    private long lateTicks;
+
+    SimulationThread(GameController game, FramePacer pacer, int ticksPerSecond) {
+        this.game = game;
+        this.pacer = pacer;
+        this.stepNanos = 1_000_000_000L / ticksPerSecond;
+        this.stepSeconds = 1f / ticksPerSecond;
+        this.thread = new Thread(this, "simulation");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        running = true;
+        thread.start();
+    }
+
+    /** Asks the GL thread to run {@code task} once this tick is over, with the simulation stopped. */
+    void runOnGlThreadPaused(Runnable task) {
+        requested = task;
+    }
+
+    /** GL thread, once per frame: runs a pending hand-off and rethrows a simulation failure. */
+    void runHandoff() {
+        if (failure != null) {
+            throw new RuntimeException("Simulation thread failed", failure);
+        }
+        Runnable task = handoff;
+        if (task != null) {
+            try {
+                task.run();
+            } finally {
+                handoff = null;
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                if (now < next) {
+                    LockSupport.parkNanos(next - now);
+                    continue;
+                }
+                if (pacer.isSimulationPaused()) {
+                    game.drainInput(now);
+                    next = now + stepNanos;
+                    continue;
+                }
+
+                game.simulate(next, stepSeconds);
+                ticks++;
+                next += stepNanos;
+                if (System.nanoTime() - next > MAX_CATCH_UP_TICKS * stepNanos) {
+                    // Too far behind: drop the backlog instead of running a burst of ticks
+                    lateTicks++;
+                    next = System.nanoTime();
+                }
+
+                if (requested != null) {
+                    handoff = requested;
+                    requested = null;
+                    while (running && handoff != null) {
+                        LockSupport.parkNanos(500_000L);
+                    }
+                    next = System.nanoTime();
+                }
+            }
+        } catch (Throwable t) {
+            failure = t;
+            running = false;
+        }
+    }
+
+    void stop() {
+        running = false;
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    String getReport() {
+        return String.format("Simulation thread: %d ticks, %d backlogs dropped", ticks, lateTicks);
+    }
+}
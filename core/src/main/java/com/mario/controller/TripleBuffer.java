@@ -0,0 +1,65 @@
+package com.mario.controller;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free hand-off of the latest value from one writer thread to one
+ * reader thread, over three preallocated slots.
+ *
+ * The writer fills its back slot and {@link #publish()}es it by swapping it
+ * with the middle slot; the reader {@link #acquire()}s by swapping its
+ * front slot with the middle one when a newer value is waiting. Neither
+ * side ever waits for the other: a slow reader only skips values, and the
+ * slot the reader holds is never written until it acquires again. The
+ * atomic swap is the only synchronization, and it orders the writer's
+ * writes to a slot before the reader's reads of it.
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final Object[] slots;
+    private final AtomicInteger middle = new AtomicInteger(1); // slot index | FRESH
+    private int back = 2;  // writer only
+    private int front = 0; // reader only
+    private long published;
+    private long skipped;
+
+    public TripleBuffer(T first, T second, T third) {
+        this.slots = new Object[] { first, second, third };
+    }
+
+    /** Slot the writer fills before the next {@link #publish()}. */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) slots[back];
+    }
+
+    public void publish() {
+        int previous = middle.getAndSet(back | FRESH);
+        back = previous & INDEX_MASK;
+        published++;
+        if ((previous & FRESH) != 0) {
+            skipped++; // the reader never saw the value we just reclaimed
+        }
+    }
+
+    /** Latest published value, or the value acquired last time if nothing newer was published. */
+    @SuppressWarnings("unchecked")
+    public T acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return (T) slots[front];
+    }
+
+    /** Values published so far (writer side). */
+    public long getPublished() {
+        return published;
+    }
+
+    /** Values replaced before the reader acquired them (writer side). */
+    public long getSkipped() {
+        return skipped;
+    }
+}
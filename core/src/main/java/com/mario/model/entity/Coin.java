@@ -18,17 +18,28 @@ public class Coin extends Entity implements Collectible {
         this(x, y, 10);
     }
     
+    void reset(float x, float y, int scoreValue) {
+        reset(x, y);
+        this.scoreValue = scoreValue;
+        this.collected = false;
+    }
+    
     @Override
     public void update(float delta) {
     }
     
+    @Override
+    public boolean needsUpdate() {
+        return false;
+    }
+    
     @Override
     public void onCollect(Player player) {
         if (!collected) {
             player.addScore(scoreValue);
             collected = true;
             active = false;
-            GameEventManager.getInstance().notify(GameEvent.COIN_COLLECTED, this);
+            GameEventManager.getInstance().post(GameEvent.COIN_COLLECTED, this, scoreValue);
         }
     }
     
@@ -11,6 +11,12 @@ public abstract class Entity {
     protected float height;
     protected boolean active;
     protected String type;
+    private int id; // per level, see EntityRegistry
+
+    // Pool bookkeeping, see EntityPool
+    EntityPool<?> pool;
+    boolean released;
+    Throwable releaseSite;
     
     public Entity(float x, float y, float width, float height) {
         this.position = new Vector2(x, y);
@@ -22,6 +28,33 @@ public abstract class Entity {
     }
     
     public abstract void update(float delta);
+
+    /** False when update() does nothing, so the level never calls it (static entities). */
+    public boolean needsUpdate() {
+        return true;
+    }
+
+    /**
+     * Puts a pooled entity back in its freshly constructed state at (x, y).
+     * Subclasses reset their own fields and call super.
+     */
+    protected void reset(float x, float y) {
+        position.set(x, y);
+        velocity.set(0, 0);
+        bounds.set(x, y, width, height);
+        active = true;
+    }
+
+    public boolean isReleased() {
+        return released;
+    }
+
+    /** Fails fast when a pooled entity is still used after being released (pool debug mode). */
+    public void checkNotReleased() {
+        if (released) {
+            throw new IllegalStateException(type + " used after being released to its pool", releaseSite);
+        }
+    }
     
     protected void updateBounds() {
         bounds.setPosition(position.x, position.y);
@@ -75,6 +108,14 @@ public abstract class Entity {
     public String getType() {
         return type;
     }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
     
     public void setType(String type) {
         this.type = type;
@@ -2,10 +2,21 @@ package com.mario.model.entity;
 
 import com.badlogic.gdx.math.Rectangle;
 
+/**
+ * Creates level entities from per-type {@link EntityPool}s; entities handed
+ * back with {@link #release(Entity)} are reused by later spawns.
+ */
 public class EntityFactory {
     private static EntityFactory instance;
 
+    private final EntityPool<Player> playerPool;
+    private final EntityPool<Coin> coinPool;
+    private final EntityPool<Goomba> goombaPool;
+
     private EntityFactory() {
+        this.playerPool = new EntityPool<>("player", () -> new Player(0, 0), 1);
+        this.coinPool = new EntityPool<>("coin", () -> new Coin(0, 0), 64);
+        this.goombaPool = new EntityPool<>("goomba", () -> new Goomba(0, 0), 32);
     }
 
     public static EntityFactory getInstance() {
@@ -46,29 +57,34 @@ public class EntityFactory {
         }
     }
 
-    public Entity createFromRectangle(String type, Rectangle rect) {
-        return createFromRectangle(type, rect, null);
+    /** Returns an entity to its pool. The caller must drop every reference to it. */
+    public void release(Entity entity) {
+        if (entity instanceof Player) {
+            playerPool.release((Player) entity);
+        } else if (entity instanceof Coin) {
+            coinPool.release((Coin) entity);
+        } else if (entity instanceof Goomba) {
+            goombaPool.release((Goomba) entity);
+        }
     }
 
-    public Entity createFromRectangle(String type, Rectangle rect, EntityProperties properties) {
-        return createEntity(type, rect.x, rect.y, rect.width, rect.height, properties);
+    public String getPoolReport() {
+        return "Entity pools: " + playerPool.getStatsReport() + "; " + coinPool.getStatsReport()
+            + "; " + goombaPool.getStatsReport();
     }
 
-    public EndTrigger createEndTrigger(float x, float y, float width, float height, EntityProperties properties) {
-        Rectangle bounds = new Rectangle(x, y, width > 0 ? width : 32, height > 0 ? height : 32);
-        EndTrigger endTrigger = new EndTrigger(bounds);
-        if (properties != null && properties.getNextLevel() != null) {
-            endTrigger.setNextLevel(properties.getNextLevel());
-        }
-        return endTrigger;
+    public Entity createFromRectangle(String type, Rectangle rect) {
+        return createFromRectangle(type, rect, null);
     }
 
-    public EndTrigger createEndTriggerFromRectangle(Rectangle rect, EntityProperties properties) {
-        return createEndTrigger(rect.x, rect.y, rect.width, rect.height, properties);
+    public Entity createFromRectangle(String type, Rectangle rect, EntityProperties properties) {
+        return createEntity(type, rect.x, rect.y, rect.width, rect.height, properties);
     }
 
     private Player createPlayer(float x, float y) {
-        return new Player(x, y);
+        Player player = playerPool.obtain();
+        player.reset(x, y);
+        return player;
     }
 
     private Coin createCoin(float x, float y, EntityProperties properties) {
@@ -76,11 +92,15 @@ public class EntityFactory {
         if (properties != null && properties.getScoreValue() > 0) {
             scoreValue = properties.getScoreValue();
         }
-        return new Coin(x, y, scoreValue);
+        Coin coin = coinPool.obtain();
+        coin.reset(x, y, scoreValue);
+        return coin;
     }
 
     private Goomba createGoomba(float x, float y) {
-        return new Goomba(x, y);
+        Goomba goomba = goombaPool.obtain();
+        goomba.reset(x, y);
+        return goomba;
     }
 
     public static class EntityProperties {
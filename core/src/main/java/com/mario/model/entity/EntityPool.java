@@ -0,0 +1,86 @@
+package com.mario.model.entity;
+
+import java.util.ArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Free list of one entity type. {@link #obtain()} hands out a recycled
+ * instance when one is available (the caller resets it), {@link #release}
+ * takes it back. With -Dmario.pool.debug=true a released entity remembers
+ * where it was released so {@link Entity#checkNotReleased()} and double
+ * releases fail with that stack trace.
+ */
+public class EntityPool<T extends Entity> {
+    public static final boolean DEBUG = Boolean.getBoolean("mario.pool.debug");
+
+    private final String name;
+    private final Supplier<T> factory;
+    private final ArrayList<T> free;
+
+    private int created;
+    private int highWater;
+    private long obtained;
+    private long recycled;
+
+    public EntityPool(String name, Supplier<T> factory, int initialCapacity) {
+        this.name = name;
+        this.factory = factory;
+        this.free = new ArrayList<>(initialCapacity);
+    }
+
+    public T obtain() {
+        T entity;
+        if (free.isEmpty()) {
+            entity = factory.get();
+            entity.pool = this;
+            created++;
+        } else {
+            entity = free.remove(free.size() - 1);
+            recycled++;
+        }
+        entity.released = false;
+        entity.releaseSite = null;
+        obtained++;
+        highWater = Math.max(highWater, getInUse());
+        return entity;
+    }
+
+    public void release(T entity) {
+        if (entity.released) {
+            if (DEBUG) {
+                throw new IllegalStateException(name + " released twice", entity.releaseSite);
+            }
+            return;
+        }
+        if (entity.pool != this) {
+            // Built with "new" (test level): adopt it
+            entity.pool = this;
+            created++;
+        }
+        entity.active = false;
+        entity.released = true;
+        entity.releaseSite = DEBUG ? new Throwable("Released here") : null;
+        free.add(entity);
+    }
+
+    /** Creates instances ahead of time so the first spawns do not allocate. */
+    public void prewarm(int count) {
+        for (int i = free.size(); i < count; i++) {
+            T entity = factory.get();
+            entity.pool = this;
+            entity.released = true;
+            created++;
+            free.add(entity);
+        }
+    }
+
+    public int getInUse() { return created - free.size(); }
+    public int getHighWater() { return highWater; }
+    public int getCreated() { return created; }
+    public int getFree() { return free.size(); }
+
+    public String getStatsReport() {
+        return String.format("%s: in use=%d high-water=%d free=%d created=%d obtained=%d recycled=%d",
+            name, getInUse(), highWater, free.size(), created, obtained, recycled);
+    }
+}
@@ -15,6 +15,13 @@ public class Goomba extends Entity implements Enemy {
         this.stateTime = 0;
     }
     
+    @Override
+    protected void reset(float x, float y) {
+        super.reset(x, y);
+        this.direction = -1;
+        this.stateTime = 0;
+    }
+    
     @Override
     public void update(float delta) {
         stateTime += delta;
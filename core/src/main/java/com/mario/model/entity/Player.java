@@ -2,7 +2,6 @@ package com.mario.model.entity;
 
 import com.mario.observer.GameEvent;
 import com.mario.observer.GameEventManager;
-import com.mario.view.AudioManager;
 
 public class Player extends Entity {
     private static final float MOVE_SPEED = 150f;
@@ -33,6 +32,19 @@ public class Player extends Entity {
         this.invincibilityTimer = 0;
     }
     
+    @Override
+    protected void reset(float x, float y) {
+        super.reset(x, y);
+        this.health = 100;
+        this.score = 0;
+        this.lives = 3;
+        this.onGround = false;
+        this.canJump = true;
+        this.stateTime = 0;
+        this.facingRight = true;
+        this.invincibilityTimer = 0;
+    }
+    
     @Override
     public void update(float delta) {
         stateTime += delta;
@@ -84,7 +96,7 @@ public class Player extends Entity {
         if (onGround && canJump) {
             velocity.y = JUMP_VELOCITY;
             onGround = false;
-            GameEventManager.getInstance().notify(GameEvent.PLAYER_JUMP, this);
+            GameEventManager.getInstance().post(GameEvent.PLAYER_JUMP, this);
         }
     }
     
@@ -104,6 +116,14 @@ public class Player extends Entity {
         }
     }
     
+    /** Instant death (kill zone), ignores invincibility. */
+    public void kill() {
+        if (health <= 0) return;
+        health = 0;
+        invincibilityTimer = 0;
+        die();
+    }
+    
     public void heal(int amount) {
         this.health += amount;
         if (this.health > 100) {
@@ -114,18 +134,18 @@ public class Player extends Entity {
     private void die() {
         if (lives > 0 && health <= 0 && active) {
             lives--;
-            GameEventManager.getInstance().notify(GameEvent.PLAYER_DIED, this);
+            GameEventManager.getInstance().post(GameEvent.PLAYER_DIED, this);
 
             if (lives <= 0) {
                 active = false;
-                AudioManager.getInstance().stopMusic();
+                GameEventManager.getInstance().post(GameEvent.GAME_OVER, this);
             } else {
                 health = 100;
                 invincibilityTimer = 0;
             }
         } else if (lives <= 0 && health <= 0) {
             active = false;
-            AudioManager.getInstance().stopMusic();
+            GameEventManager.getInstance().post(GameEvent.GAME_OVER, this);
         }
     }
     
@@ -0,0 +1,49 @@
+package com.mario.model.level;
+
+import java.util.function.Consumer;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Merges solid tiles into one rectangle per horizontal run, so a map
+ * collides the same whether it comes from JSON, TMX or a compiled file.
+ * Rows are in Tiled order (row 0 at the top); rectangles are in world
+ * coordinates (y up).
+ */
+final class CollisionSpans {
+
+    interface SolidTest {
+        boolean isSolid(int x, int row);
+    }
+
+    private CollisionSpans() {
+    }
+
+    /** Emits the spans of solid tiles; returns how many. */
+    static int add(int width, int height, int tileWidth, int tileHeight, SolidTest solid, Consumer<Rectangle> out) {
+        int spans = 0;
+        for (int row = 0; row < height; row++) {
+            float tileY = (height - row - 1) * tileHeight;
+            int runStart = -1;
+            for (int x = 0; x <= width; x++) {
+                boolean blocked = x < width && solid.isSolid(x, row);
+                if (blocked && runStart < 0) {
+                    runStart = x;
+                } else if (!blocked && runStart >= 0) {
+                    out.accept(new Rectangle(runStart * tileWidth, tileY, (x - runStart) * tileWidth, tileHeight));
+                    spans++;
+                    runStart = -1;
+                }
+            }
+        }
+        return spans;
+    }
+
+    /** Spans of the non-empty tiles of a layer (collision layers). */
+    static int add(int[] data, int width, int height, int tileWidth, int tileHeight, Consumer<Rectangle> out) {
+        return add(width, height, tileWidth, tileHeight, (x, row) -> {
+            int index = row * width + x;
+            return index < data.length && data[index] != 0;
+        }, out);
+    }
+}
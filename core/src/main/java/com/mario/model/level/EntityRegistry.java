@@ -0,0 +1,151 @@
+package com.mario.model.level;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mario.model.entity.Coin;
+import com.mario.model.entity.Collectible;
+import com.mario.model.entity.Enemy;
+import com.mario.model.entity.Entity;
+import com.mario.model.entity.EntityPool;
+import com.mario.model.entity.Goomba;
+import com.mario.model.entity.Player;
+
+/**
+ * A level's entities, indexed by concrete type and by capability when they
+ * are added instead of being tested with instanceof on every scan.
+ *
+ * Each entity gets the next id of the level (replication), so the full
+ * list is in spawn order and sorted by id; it also goes into its type list
+ * (player, goombas, coins, or "others" for every type without one, static
+ * or not) and into the capability lists it implements ({@link Enemy},
+ * {@link Collectible}). {@link #updateAll} walks the type lists one after
+ * the other so every update() call site only ever sees one class, and
+ * never visits entities whose update does nothing
+ * ({@link Entity#needsUpdate()}): those of other types are kept apart in
+ * a second list for it. Inactive
+ * entities are dropped from every list in one compaction per tick.
+ */
+public class EntityRegistry {
+    private final List<Entity> all = new ArrayList<>();
+    private final List<Goomba> goombas = new ArrayList<>();
+    private final List<Coin> coins = new ArrayList<>();
+    private final List<Entity> others = new ArrayList<>(); // every type without its own list
+    private final List<Entity> othersUpdated = new ArrayList<>(); // the ones with per-tick behaviour
+    private final List<Entity> enemies = new ArrayList<>();
+    private final List<Entity> collectibles = new ArrayList<>();
+    private Player player;
+    private int lastId;
+
+    public void add(Entity entity) {
+        entity.setId(++lastId);
+        all.add(entity);
+        if (entity instanceof Player) {
+            player = (Player) entity;
+        } else if (entity instanceof Goomba) {
+            goombas.add((Goomba) entity);
+        } else if (entity instanceof Coin) {
+            coins.add((Coin) entity);
+        } else {
+            others.add(entity);
+            if (entity.needsUpdate()) {
+                othersUpdated.add(entity);
+            }
+        }
+        if (entity instanceof Enemy) {
+            enemies.add(entity);
+        }
+        if (entity instanceof Collectible) {
+            collectibles.add(entity);
+        }
+    }
+
+    /** Updates the active entities type by type; coins and other static entities are skipped. */
+    public void updateAll(float delta) {
+        if (EntityPool.DEBUG) {
+            for (int i = 0; i < all.size(); i++) {
+                all.get(i).checkNotReleased();
+            }
+        }
+        if (player != null && player.isActive()) {
+            player.update(delta);
+        }
+        for (int i = 0; i < goombas.size(); i++) {
+            Goomba goomba = goombas.get(i);
+            if (goomba.isActive()) {
+                goomba.update(delta);
+            }
+        }
+        for (int i = 0; i < othersUpdated.size(); i++) {
+            Entity entity = othersUpdated.get(i);
+            if (entity.isActive()) {
+                entity.update(delta);
+            }
+        }
+    }
+
+    /**
+     * Drops inactive entities from every list and adds them to {@code removed},
+     * except the player, which stays referenced (game over screen).
+     */
+    public void removeInactive(List<Entity> removed) {
+        int kept = 0;
+        for (int i = 0; i < all.size(); i++) {
+            Entity entity = all.get(i);
+            if (entity.isActive()) {
+                all.set(kept++, entity);
+            } else if (entity != player) {
+                removed.add(entity);
+            }
+        }
+        if (kept == all.size()) return;
+        truncate(all, kept);
+        compact(goombas);
+        compact(coins);
+        compact(others);
+        compact(othersUpdated);
+        compact(enemies);
+        compact(collectibles);
+    }
+
+    private static <T extends Entity> void compact(List<T> list) {
+        int kept = 0;
+        for (int i = 0; i < list.size(); i++) {
+            T entity = list.get(i);
+            if (entity.isActive()) {
+                list.set(kept++, entity);
+            }
+        }
+        truncate(list, kept);
+    }
+
+    private static void truncate(List<?> list, int size) {
+        for (int i = list.size() - 1; i >= size; i--) {
+            list.remove(i);
+        }
+    }
+
+    /** Empties every list; the caller has released the entities. */
+    public void clear() {
+        all.clear();
+        goombas.clear();
+        coins.clear();
+        others.clear();
+        othersUpdated.clear();
+        enemies.clear();
+        collectibles.clear();
+        player = null;
+    }
+
+    /** Every entity in spawn order (increasing ids), the player included while it is active. */
+    public List<Entity> getAll() { return all; }
+    public Player getPlayer() { return player; }
+    public List<Goomba> getGoombas() { return goombas; }
+    public List<Coin> getCoins() { return coins; }
+    /** Entities of every other type, static ones included. */
+    public List<Entity> getOthers() { return others; }
+    /** Entities implementing {@link Enemy}. */
+    public List<Entity> getEnemies() { return enemies; }
+    /** Entities implementing {@link Collectible}. */
+    public List<Entity> getCollectibles() { return collectibles; }
+}
@@ -0,0 +1,234 @@
+package com.mario.model.level;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Streaming reader for Tiled JSON maps. Reads tokens straight from the
+ * stream: tile arrays go directly into {@code int[]} and objects into
+ * {@link LevelData} lists, without a JsonElement tree or a whole-file String.
+ * Unknown keys are skipped.
+ */
+public class JsonLevelParser {
+    private static final int TILE_CHUNK = 4096; // ints per block while the layer size is unknown
+
+    public LevelData parse(Reader reader) throws IOException {
+        try (JsonReader json = new JsonReader(reader)) {
+            return readLevel(json);
+        }
+    }
+
+    private LevelData readLevel(JsonReader json) throws IOException {
+        LevelData level = new LevelData();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "width": level.setWidth(json.nextInt()); break;
+                case "height": level.setHeight(json.nextInt()); break;
+                case "tilewidth": level.setTilewidth(json.nextInt()); break;
+                case "tileheight": level.setTileheight(json.nextInt()); break;
+                case "layers": level.setLayers(readLayers(json, level)); break;
+                case "tilesets": level.setTilesets(readTilesets(json)); break;
+                case "properties": level.setProperties(readProperties(json)); break;
+                default: json.skipValue(); break;
+            }
+        }
+        json.endObject();
+        return level;
+    }
+
+    private List<LevelData.Layer> readLayers(JsonReader json, LevelData level) throws IOException {
+        List<LevelData.Layer> layers = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            layers.add(readLayer(json, level));
+        }
+        json.endArray();
+        return layers;
+    }
+
+    private LevelData.Layer readLayer(JsonReader json, LevelData level) throws IOException {
+        LevelData.Layer layer = new LevelData.Layer();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "name": layer.setName(json.nextString()); break;
+                case "type": layer.setType(json.nextString()); break;
+                case "visible": layer.setVisible(json.nextBoolean()); break;
+                case "opacity": layer.setOpacity((float) json.nextDouble()); break;
+                case "width": layer.setWidth(json.nextInt()); break;
+                case "height": layer.setHeight(json.nextInt()); break;
+                case "encoding": layer.setEncoding(json.nextString()); break;
+                case "compression": layer.setCompression(json.nextString()); break;
+                case "data":
+                    if (json.peek() == JsonToken.STRING) {
+                        layer.setDataString(json.nextString());
+                    } else {
+                        // Tiled writes the sizes after "data", so they are usually still 0 here
+                        int expected = layer.getWidth() * layer.getHeight();
+                        layer.setData(readTileArray(json, expected > 0 ? expected : level.getWidth() * level.getHeight()));
+                    }
+                    break;
+                case "objects": layer.setObjects(readObjects(json)); break;
+                default: json.skipValue(); break;
+            }
+        }
+        json.endObject();
+        return layer;
+    }
+
+    /**
+     * Gids with flip bits exceed Integer.MAX_VALUE, so they are read as long and truncated like Tiled does.
+     * With a known size the gids go straight into the final array; otherwise into fixed blocks copied
+     * once into an exact array, instead of doubling a guess.
+     */
+    private int[] readTileArray(JsonReader json, int expectedSize) throws IOException {
+        json.beginArray();
+        if (expectedSize > 0) {
+            int[] data = new int[expectedSize];
+            int count = 0;
+            while (json.hasNext()) {
+                if (count == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2); // layer larger than the map
+                }
+                data[count++] = (int) json.nextLong();
+            }
+            json.endArray();
+            return count == data.length ? data : Arrays.copyOf(data, count);
+        }
+
+        List<int[]> blocks = new ArrayList<>();
+        int[] block = new int[TILE_CHUNK];
+        int inBlock = 0;
+        while (json.hasNext()) {
+            if (inBlock == block.length) {
+                blocks.add(block);
+                block = new int[TILE_CHUNK];
+                inBlock = 0;
+            }
+            block[inBlock++] = (int) json.nextLong();
+        }
+        json.endArray();
+        int[] data = new int[blocks.size() * TILE_CHUNK + inBlock];
+        int offset = 0;
+        for (int[] full : blocks) {
+            System.arraycopy(full, 0, data, offset, TILE_CHUNK);
+            offset += TILE_CHUNK;
+        }
+        System.arraycopy(block, 0, data, offset, inBlock);
+        return data;
+    }
+
+    private List<LevelData.TiledObject> readObjects(JsonReader json) throws IOException {
+        List<LevelData.TiledObject> objects = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            LevelData.TiledObject object = new LevelData.TiledObject();
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "x": object.setX((float) json.nextDouble()); break;
+                    case "y": object.setY((float) json.nextDouble()); break;
+                    case "width": object.setWidth((float) json.nextDouble()); break;
+                    case "height": object.setHeight((float) json.nextDouble()); break;
+                    case "name": object.setName(json.nextString()); break;
+                    case "type":
+                    case "class": object.setType(json.nextString()); break;
+                    case "properties": object.setProperties(readProperties(json)); break;
+                    default: json.skipValue(); break;
+                }
+            }
+            json.endObject();
+            objects.add(object);
+        }
+        json.endArray();
+        return objects;
+    }
+
+    private List<LevelData.Property> readProperties(JsonReader json) throws IOException {
+        List<LevelData.Property> properties = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            LevelData.Property property = new LevelData.Property();
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "name": property.setName(json.nextString()); break;
+                    case "type": property.setType(json.nextString()); break;
+                    case "value": property.setValue(readScalar(json)); break;
+                    default: json.skipValue(); break;
+                }
+            }
+            json.endObject();
+            properties.add(property);
+        }
+        json.endArray();
+        return properties;
+    }
+
+    /** Same value types Gson produces for an Object field: Double, String, Boolean or null. */
+    private Object readScalar(JsonReader json) throws IOException {
+        switch (json.peek()) {
+            case NUMBER: return json.nextDouble();
+            case BOOLEAN: return json.nextBoolean();
+            case STRING: return json.nextString();
+            case NULL: json.nextNull(); return null;
+            default: json.skipValue(); return null;
+        }
+    }
+
+    private List<LevelData.Tileset> readTilesets(JsonReader json) throws IOException {
+        List<LevelData.Tileset> tilesets = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            LevelData.Tileset tileset = new LevelData.Tileset();
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "firstgid": tileset.setFirstgid(json.nextInt()); break;
+                    case "source": tileset.setSource(json.nextString()); break;
+                    case "name": tileset.setName(json.nextString()); break;
+                    case "tilewidth": tileset.setTilewidth(json.nextInt()); break;
+                    case "tileheight": tileset.setTileheight(json.nextInt()); break;
+                    case "tilecount": tileset.setTilecount(json.nextInt()); break;
+                    case "columns": tileset.setColumns(json.nextInt()); break;
+                    case "image": tileset.setImage(json.nextString()); break;
+                    case "margin": tileset.setMargin(json.nextInt()); break;
+                    case "spacing": tileset.setSpacing(json.nextInt()); break;
+                    case "tiles": tileset.setTiles(readTileInfos(json)); break;
+                    default: json.skipValue(); break;
+                }
+            }
+            json.endObject();
+            tilesets.add(tileset);
+        }
+        json.endArray();
+        return tilesets;
+    }
+
+    private List<LevelData.TileInfo> readTileInfos(JsonReader json) throws IOException {
+        List<LevelData.TileInfo> tiles = new ArrayList<>();
+        json.beginArray();
+        while (json.hasNext()) {
+            LevelData.TileInfo tile = new LevelData.TileInfo();
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "id": tile.setId(json.nextInt()); break;
+                    case "properties": tile.setProperties(readProperties(json)); break;
+                    default: json.skipValue(); break;
+                }
+            }
+            json.endObject();
+            tiles.add(tile);
+        }
+        json.endArray();
+        return tiles;
+    }
+}
@@ -4,8 +4,9 @@ import java.util.List;
 
 import com.badlogic.gdx.maps.tiled.TiledMap;
 import com.badlogic.gdx.math.Rectangle;
-import com.mario.model.entity.EndTrigger;
 import com.mario.model.entity.Entity;
+import com.mario.model.entity.EntityFactory;
+import com.mario.model.entity.EntityPool;
 import com.mario.model.entity.Player;
 
 public class Level {
@@ -14,32 +15,48 @@ public class Level {
     private final int tileWidth;
     private final int tileHeight;
     
-    private final List<Entity> entities;
+    private final EntityRegistry entities;
+    private final List<Entity> pendingRelease;
     private final List<Rectangle> solidTiles;
-    private Player player;
-    private EndTrigger endTrigger;
+    private final TriggerSystem triggers;
     
     private final List<TileLayer> tileLayers;
     private List<LevelData.Tileset> tilesets;
     
     private TiledMap tiledMap;
+    private String music;
     
     public Level(int width, int height, int tileWidth, int tileHeight) {
         this.width = width;
         this.height = height;
         this.tileWidth = tileWidth;
         this.tileHeight = tileHeight;
-        this.entities = new ArrayList<>();
+        this.entities = new EntityRegistry();
+        this.pendingRelease = new ArrayList<>();
         this.solidTiles = new ArrayList<>();
         this.tileLayers = new ArrayList<>();
         this.tilesets = new ArrayList<>();
+        this.triggers = new TriggerSystem(TriggerIndex.forLevel(new ArrayList<>(), width * tileWidth, height * tileHeight));
+    }
+    
+    Level(LevelTemplate template, TriggerSystem triggers) {
+        this.width = template.getWidth();
+        this.height = template.getHeight();
+        this.tileWidth = template.getTileWidth();
+        this.tileHeight = template.getTileHeight();
+        this.entities = new EntityRegistry();
+        this.pendingRelease = new ArrayList<>();
+        this.solidTiles = template.getSolidTiles();
+        this.tileLayers = template.getTileLayers();
+        this.tilesets = template.getTilesets();
+        this.tiledMap = template.getTiledMap();
+        this.music = template.getMusic();
+        this.triggers = triggers;
     }
     
     public void addEntity(Entity entity) {
+        if (EntityPool.DEBUG) entity.checkNotReleased();
         entities.add(entity);
-        if (entity instanceof Player) {
-            this.player = (Player) entity;
-        }
     }
     
     public void addTileLayer(String name, int[] data) {
@@ -52,39 +69,70 @@ public class Level {
     }
     
     private void createCollisionTiles(int[] data) {
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                int index = y * width + x;
-                if (index < data.length && data[index] != 0) {
-                    float tileX = x * tileWidth;
-                    float tileY = (height - y - 1) * tileHeight;
-                    solidTiles.add(new Rectangle(tileX, tileY, tileWidth, tileHeight));
-                }
-            }
+        CollisionSpans.add(data, width, height, tileWidth, tileHeight, solidTiles::add);
+    }
+    
+    /** Spawns a pooled entity (brick coins, respawning enemies...). */
+    public Entity spawnEntity(String type, float x, float y, EntityFactory.EntityProperties properties) {
+        Entity entity = EntityFactory.getInstance().createEntity(type, x, y, properties);
+        if (entity != null) {
+            addEntity(entity);
         }
+        return entity;
     }
     
     public void update(float delta) {
-        for (int i = 0; i < entities.size(); i++) {
-            Entity entity = entities.get(i);
-            if (entity.isActive()) {
-                entity.update(delta);
-            }
+        // Entities removed last tick go back to their pool now that the
+        // events referencing them have been dispatched
+        releasePending();
+
+        entities.updateAll(delta);
+        // The player stays referenced (game over screen) until the level is disposed
+        entities.removeInactive(pendingRelease);
+    }
+
+    private void releasePending() {
+        EntityFactory factory = EntityFactory.getInstance();
+        for (int i = 0; i < pendingRelease.size(); i++) {
+            factory.release(pendingRelease.get(i));
         }
-        
-        for (int i = entities.size() - 1; i >= 0; i--) {
-            if (!entities.get(i).isActive()) {
-                entities.remove(i);
+        pendingRelease.clear();
+    }
+
+    /** Sends trigger enter/stay/exit events for this tick's entity positions. */
+    public void updateTriggers() {
+        triggers.update(entities.getAll());
+    }
+
+    /** Returns every entity, the player included, to the pools. The level must not be used afterwards. */
+    public void dispose() {
+        triggers.clear();
+        releasePending();
+        EntityFactory factory = EntityFactory.getInstance();
+        Player player = entities.getPlayer();
+        List<Entity> all = entities.getAll();
+        for (int i = 0; i < all.size(); i++) {
+            if (all.get(i) != player) {
+                factory.release(all.get(i));
             }
         }
+        if (player != null) {
+            factory.release(player);
+        }
+        entities.clear();
     }
     
     public List<Entity> getEntities() {
+        return entities.getAll();
+    }
+    
+    /** Per-type and per-capability entity lists. */
+    public EntityRegistry getEntityRegistry() {
         return entities;
     }
     
     public Player getPlayer() {
-        return player;
+        return entities.getPlayer();
     }
     
     public List<Rectangle> getSolidTiles() {
@@ -122,6 +170,10 @@ public class Level {
     public TiledMap getTiledMap() {
         return tiledMap;
     }
+
+    public String getMusic() {
+        return music;
+    }
     
     public void setTiledMap(TiledMap tiledMap) {
         this.tiledMap = tiledMap;
@@ -131,16 +183,8 @@ public class Level {
         return tiledMap != null;
     }
     
-    public EndTrigger getEndTrigger() {
-        return endTrigger;
-    }
-    
-    public void setEndTrigger(EndTrigger endTrigger) {
-        this.endTrigger = endTrigger;
-    }
-    
-    public boolean hasEndTrigger() {
-        return endTrigger != null;
+    public TriggerSystem getTriggers() {
+        return triggers;
     }
     
     public static class TileLayer {
@@ -148,17 +192,27 @@ public class Level {
         private final int[] data;
         private final int width;
         private final int height;
+        private final boolean visible;
+        private final float opacity;
         
         public TileLayer(String name, int[] data, int width, int height) {
+            this(name, data, width, height, true, 1f);
+        }
+        
+        public TileLayer(String name, int[] data, int width, int height, boolean visible, float opacity) {
             this.name = name;
             this.data = data;
             this.width = width;
             this.height = height;
+            this.visible = visible;
+            this.opacity = opacity;
         }
         
         public String getName() { return name; }
         public int[] getData() { return data; }
         public int getWidth() { return width; }
         public int getHeight() { return height; }
+        public boolean isVisible() { return visible; }
+        public float getOpacity() { return opacity; }
     }
 }
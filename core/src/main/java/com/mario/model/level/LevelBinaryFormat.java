@@ -0,0 +1,74 @@
+package com.mario.model.level;
+
+/**
+ * Layout of compiled levels (".lvl"), written by {@link LevelBinaryWriter} and
+ * read by {@link LevelBinaryReader}. All values are little-endian.
+ *
+ * <pre>
+ * header    int magic, short version, short flags,
+ *           int width, height, tileWidth, tileHeight, byte[32] contentHash
+ * tilesets  int count, { str name, str image, int firstgid, tilewidth, tileheight,
+ *                        tilecount, columns, margin, spacing }
+ * layers    int count, { str name, byte visible, float opacity, int[width*height] gids }
+ * collision int count, { float x, y, width, height }
+ * spawns    int count, { byte type, float x, y, width, height, int scoreValue }
+ * music     str (empty = default track)
+ * triggers  int count, { byte kind, float x, y, width, height, str value }   since version 3
+ * </pre>
+ * Strings are a short byte length followed by UTF-8 bytes.
+ */
+public final class LevelBinaryFormat {
+    public static final int MAGIC = 0x4C564C4D; // "MLVL" read little-endian
+    public static final short VERSION = 3;
+    public static final String EXTENSION = ".lvl";
+    public static final int HASH_LENGTH = 32;
+    static final int HASH_OFFSET = 24; // SHA-256 of the source, after magic, version, flags and sizes
+
+    public static final byte SPAWN_PLAYER = 1;
+    public static final byte SPAWN_COIN = 2;
+    public static final byte SPAWN_GOOMBA = 3;
+    public static final byte SPAWN_TURTLE = 4;
+
+    private static final TriggerVolume.Kind[] TRIGGER_KINDS = TriggerVolume.Kind.values();
+
+    private static final String[] SPAWN_TYPES = { null, "player", "coin", "goomba", "turtle" };
+
+    private LevelBinaryFormat() {
+    }
+
+    public static byte spawnCode(String type) {
+        if (type == null) return 0;
+        String normalized = type.toLowerCase().trim();
+        if ("koopa".equals(normalized)) {
+            normalized = "turtle";
+        }
+        for (byte code = 1; code < SPAWN_TYPES.length; code++) {
+            if (SPAWN_TYPES[code].equals(normalized)) {
+                return code;
+            }
+        }
+        return 0;
+    }
+
+    public static String spawnType(byte code) {
+        if (code <= 0 || code >= SPAWN_TYPES.length) return null;
+        return SPAWN_TYPES[code];
+    }
+
+    public static byte triggerCode(TriggerVolume.Kind kind) {
+        return (byte) (kind.ordinal() + 1);
+    }
+
+    public static TriggerVolume.Kind triggerKind(byte code) {
+        if (code <= 0 || code > TRIGGER_KINDS.length) return null;
+        return TRIGGER_KINDS[code - 1];
+    }
+
+    /** "levels/level1.tmx" -> "levels/level1.lvl". */
+    public static String compiledPath(String levelPath) {
+        int dot = levelPath.lastIndexOf('.');
+        int slash = levelPath.lastIndexOf('/');
+        String base = dot > slash ? levelPath.substring(0, dot) : levelPath;
+        return base + EXTENSION;
+    }
+}
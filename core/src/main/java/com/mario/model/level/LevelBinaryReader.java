@@ -0,0 +1,137 @@
+package com.mario.model.level;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.mario.model.entity.EntityFactory;
+
+/**
+ * Reads a compiled level straight from a (usually memory-mapped) buffer into
+ * a {@link LevelTemplate}. Tile data is bulk-copied into the final int arrays.
+ */
+public class LevelBinaryReader {
+
+    /** SHA-256 of the source the level was compiled from, or null when this is not a compiled level. */
+    static byte[] contentHash(ByteBuffer source) {
+        ByteBuffer buffer = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int start = buffer.position();
+        if (buffer.remaining() < LevelBinaryFormat.HASH_OFFSET + LevelBinaryFormat.HASH_LENGTH
+                || buffer.getInt(start) != LevelBinaryFormat.MAGIC) {
+            return null;
+        }
+        byte[] hash = new byte[LevelBinaryFormat.HASH_LENGTH];
+        buffer.position(start + LevelBinaryFormat.HASH_OFFSET);
+        buffer.get(hash);
+        return hash;
+    }
+
+    public LevelTemplate read(String levelPath, ByteBuffer source) {
+        ByteBuffer buffer = source.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+        int magic = buffer.getInt();
+        if (magic != LevelBinaryFormat.MAGIC) {
+            throw new IllegalStateException("Not a compiled level: " + levelPath);
+        }
+        short version = buffer.getShort();
+        if (version != LevelBinaryFormat.VERSION) {
+            throw new IllegalStateException("Unsupported level format version " + version + " in " + levelPath
+                + " (expected " + LevelBinaryFormat.VERSION + ")");
+        }
+        buffer.getShort(); // flags
+
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        int tileWidth = buffer.getInt();
+        int tileHeight = buffer.getInt();
+        byte[] contentHash = new byte[LevelBinaryFormat.HASH_LENGTH];
+        buffer.get(contentHash);
+
+        LevelTemplate template = new LevelTemplate(levelPath, width, height, tileWidth, tileHeight);
+        template.setContentHash(contentHash);
+
+        int tilesetCount = buffer.getInt();
+        List<LevelData.Tileset> tilesets = new ArrayList<>(tilesetCount);
+        for (int i = 0; i < tilesetCount; i++) {
+            LevelData.Tileset tileset = new LevelData.Tileset();
+            tileset.setName(getString(buffer));
+            tileset.setImage(getString(buffer));
+            tileset.setFirstgid(buffer.getInt());
+            tileset.setTilewidth(buffer.getInt());
+            tileset.setTileheight(buffer.getInt());
+            tileset.setTilecount(buffer.getInt());
+            tileset.setColumns(buffer.getInt());
+            tileset.setMargin(buffer.getInt());
+            tileset.setSpacing(buffer.getInt());
+            tilesets.add(tileset);
+        }
+        template.setTilesets(tilesets);
+
+        int layerCount = buffer.getInt();
+        int tileCount = width * height;
+        for (int i = 0; i < layerCount; i++) {
+            String name = getString(buffer);
+            boolean visible = buffer.get() != 0;
+            float opacity = buffer.getFloat();
+            int[] data = new int[tileCount];
+            buffer.asIntBuffer().get(data);
+            buffer.position(buffer.position() + tileCount * 4);
+            template.addTileLayer(new Level.TileLayer(name, data, width, height, visible, opacity));
+        }
+
+        int collisionCount = buffer.getInt();
+        for (int i = 0; i < collisionCount; i++) {
+            template.addSolidTile(new Rectangle(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat()));
+        }
+
+        int spawnCount = buffer.getInt();
+        for (int i = 0; i < spawnCount; i++) {
+            String type = LevelBinaryFormat.spawnType(buffer.get());
+            float x = buffer.getFloat();
+            float y = buffer.getFloat();
+            float spawnWidth = buffer.getFloat();
+            float spawnHeight = buffer.getFloat();
+            int scoreValue = buffer.getInt();
+            EntityFactory.EntityProperties properties = null;
+            if (scoreValue > 0) {
+                properties = new EntityFactory.EntityProperties().setScoreValue(scoreValue);
+            }
+            if (type != null) {
+                template.addSpawn(type, x, y, spawnWidth, spawnHeight, properties);
+            }
+        }
+
+        String music = getString(buffer);
+        template.setMusic(music.isEmpty() ? null : music);
+
+        int triggerCount = buffer.getInt();
+        for (int i = 0; i < triggerCount; i++) {
+            TriggerVolume.Kind kind = LevelBinaryFormat.triggerKind(buffer.get());
+            Rectangle bounds = new Rectangle(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+            String value = getString(buffer);
+            if (kind != null) {
+                template.addTrigger(new TriggerVolume(kind, bounds, value));
+            }
+        }
+
+        return template;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length == 0) return "";
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+}
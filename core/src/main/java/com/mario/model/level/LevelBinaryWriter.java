@@ -0,0 +1,143 @@
+package com.mario.model.level;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Serializes a {@link LevelTemplate} in the layout described by
+ * {@link LevelBinaryFormat}. Used by the build-time level compiler.
+ */
+public class LevelBinaryWriter {
+    private ByteBuffer buffer;
+
+    public LevelBinaryWriter() {
+        this.buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public void write(LevelTemplate template, byte[] contentHash, OutputStream out) throws IOException {
+        if (contentHash.length != LevelBinaryFormat.HASH_LENGTH) {
+            throw new IllegalArgumentException("Content hash must be " + LevelBinaryFormat.HASH_LENGTH + " bytes");
+        }
+        buffer.clear();
+
+        ensure(28 + LevelBinaryFormat.HASH_LENGTH);
+        buffer.putInt(LevelBinaryFormat.MAGIC);
+        buffer.putShort(LevelBinaryFormat.VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(template.getWidth());
+        buffer.putInt(template.getHeight());
+        buffer.putInt(template.getTileWidth());
+        buffer.putInt(template.getTileHeight());
+        buffer.put(contentHash);
+
+        List<LevelData.Tileset> tilesets = template.getTilesets();
+        putInt(tilesets.size());
+        for (LevelData.Tileset tileset : tilesets) {
+            putString(tileset.getName());
+            putString(tileset.getImage());
+            ensure(7 * 4);
+            buffer.putInt(tileset.getFirstgid());
+            buffer.putInt(tileset.getTilewidth());
+            buffer.putInt(tileset.getTileheight());
+            buffer.putInt(tileset.getTilecount());
+            buffer.putInt(tileset.getColumns());
+            buffer.putInt(tileset.getMargin());
+            buffer.putInt(tileset.getSpacing());
+        }
+
+        List<Level.TileLayer> layers = template.getTileLayers();
+        putInt(layers.size());
+        int tileCount = template.getWidth() * template.getHeight();
+        for (Level.TileLayer layer : layers) {
+            putString(layer.getName());
+            ensure(5 + tileCount * 4);
+            buffer.put((byte) (layer.isVisible() ? 1 : 0));
+            buffer.putFloat(layer.getOpacity());
+            int[] data = layer.getData();
+            for (int i = 0; i < tileCount; i++) {
+                buffer.putInt(i < data.length ? data[i] : 0);
+            }
+        }
+
+        List<Rectangle> solidTiles = template.getSolidTiles();
+        putInt(solidTiles.size());
+        ensure(solidTiles.size() * 16);
+        for (Rectangle rect : solidTiles) {
+            buffer.putFloat(rect.x);
+            buffer.putFloat(rect.y);
+            buffer.putFloat(rect.width);
+            buffer.putFloat(rect.height);
+        }
+
+        List<LevelTemplate.Spawn> spawns = template.getSpawns();
+        int spawnCountPosition = buffer.position();
+        putInt(0);
+        int written = 0;
+        for (LevelTemplate.Spawn spawn : spawns) {
+            byte code = LevelBinaryFormat.spawnCode(spawn.getType());
+            if (code == 0) {
+                System.err.println("Unsupported spawn type skipped: " + spawn.getType());
+                continue;
+            }
+            ensure(21);
+            buffer.put(code);
+            buffer.putFloat(spawn.getX());
+            buffer.putFloat(spawn.getY());
+            buffer.putFloat(spawn.getWidth());
+            buffer.putFloat(spawn.getHeight());
+            buffer.putInt(spawn.getProperties() != null ? spawn.getProperties().getScoreValue() : 0);
+            written++;
+        }
+        buffer.putInt(spawnCountPosition, written);
+
+        putString(template.getMusic());
+
+        List<TriggerVolume> triggers = template.getTriggers();
+        putInt(triggers.size());
+        for (TriggerVolume trigger : triggers) {
+            Rectangle bounds = trigger.getBounds();
+            ensure(17);
+            buffer.put(LevelBinaryFormat.triggerCode(trigger.getKind()));
+            buffer.putFloat(bounds.x);
+            buffer.putFloat(bounds.y);
+            buffer.putFloat(bounds.width);
+            buffer.putFloat(bounds.height);
+            putString(trigger.getValue());
+        }
+
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    private void putInt(int value) {
+        ensure(4);
+        buffer.putInt(value);
+    }
+
+    private void putString(String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long for level format: " + value.length());
+        }
+        ensure(2 + bytes.length);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() >= bytes) return;
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < bytes) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+}
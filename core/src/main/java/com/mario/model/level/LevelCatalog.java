@@ -0,0 +1,373 @@
+package com.mario.model.level;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Every playable level with the metadata needed to plan loads without
+ * opening the map: format, size, entity counts per type, referenced assets
+ * (tileset images) and music, SHA-256 of the source file and successor.
+ *
+ * The catalog is generated next to the compiled levels by LevelCompiler
+ * ({@value #PATH}) and read at startup; when it is missing, or with
+ * -Dmario.levels.scan=true, it is built by parsing the levels directory
+ * (TMX/JSON, no GL), which is also how {@link #scan()} refreshes it at
+ * runtime. Levels are ordered by name with numbers compared numerically
+ * (level2 before level10); the successor is the level named by the END
+ * trigger, otherwise the next one in that order, the last wrapping to the
+ * first.
+ */
+public class LevelCatalog {
+    public static final String PATH = "levels/catalog.json";
+    public static final int VERSION = 1;
+    private static final String LEVELS_DIRECTORY = "levels";
+
+    private final List<Entry> entries;
+    private final Map<String, Entry> byPath = new HashMap<>();
+
+    public LevelCatalog(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(new ArrayList<>(entries));
+        for (Entry entry : entries) {
+            byPath.put(entry.path, entry);
+        }
+    }
+
+    /** Reads the generated catalog, or scans the levels directory when there is none. */
+    public static LevelCatalog load() {
+        FileHandle file = Gdx.files.internal(PATH);
+        if (!Boolean.getBoolean("mario.levels.scan") && file.exists()) {
+            try (Reader reader = new InputStreamReader(file.read(), StandardCharsets.UTF_8)) {
+                LevelCatalog catalog = read(reader);
+                System.out.println("Level catalog: " + catalog.size() + " levels (" + PATH + ")");
+                return catalog;
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Catalogue de niveaux illisible, rescan: " + e.getMessage());
+            }
+        }
+        return scan();
+    }
+
+    /** Rebuilds the catalog from the levels directory on disk; empty when it is not a directory (packaged jar). */
+    public static LevelCatalog scan() {
+        FileHandle directory = Gdx.files.internal(LEVELS_DIRECTORY);
+        if (!directory.isDirectory()) {
+            System.err.println("No level catalog and no levels directory to scan");
+            return new LevelCatalog(Collections.<Entry>emptyList());
+        }
+        long start = System.nanoTime();
+        LevelCatalog catalog = build(directory.file(), LEVELS_DIRECTORY + "/");
+        System.out.println(String.format("Level catalog: %d levels scanned (%.1f ms)",
+            catalog.size(), (System.nanoTime() - start) / 1_000_000.0));
+        return catalog;
+    }
+
+    /** Parses every .tmx/.json level of {@code directory}; unreadable levels are reported and left out. */
+    public static LevelCatalog build(File directory, String pathPrefix) {
+        File[] files = directory.listFiles((dir, name) -> isLevelFile(name));
+        if (files == null) files = new File[0];
+        Arrays.sort(files, Comparator.comparing(File::getName, LevelCatalog::compareNames));
+
+        TmxLevelParser tmxParser = new TmxLevelParser();
+        LevelLoader levelLoader = new LevelLoader();
+        List<Entry> entries = new ArrayList<>();
+        List<String> endTargets = new ArrayList<>();
+        for (File file : files) {
+            String path = pathPrefix + file.getName();
+            try {
+                byte[] source = Files.readAllBytes(file.toPath());
+                LevelTemplate template;
+                if (file.getName().endsWith(".tmx")) {
+                    template = tmxParser.parse(path, file);
+                } else {
+                    template = levelLoader.parseJsonTemplate(path,
+                        new StringReader(new String(source, StandardCharsets.UTF_8)));
+                }
+                entries.add(describe(path, template, source));
+                endTargets.add(endTarget(template, pathPrefix));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Level skipped from catalog: " + path + " (" + e.getMessage() + ")");
+            }
+        }
+
+        Set<String> paths = new LinkedHashSet<>();
+        for (Entry entry : entries) {
+            paths.add(entry.path);
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            String target = endTargets.get(i);
+            if (target != null && !paths.contains(target)) {
+                System.err.println("Level " + entries.get(i).path + " ends on missing level " + target);
+                target = null;
+            }
+            entries.get(i).next = target != null ? target : entries.get((i + 1) % entries.size()).path;
+        }
+        return new LevelCatalog(entries);
+    }
+
+    private static Entry describe(String path, LevelTemplate template, byte[] source) {
+        Entry entry = new Entry();
+        entry.path = path;
+        entry.format = path.substring(path.lastIndexOf('.') + 1);
+        entry.width = template.getWidth();
+        entry.height = template.getHeight();
+        entry.tileWidth = template.getTileWidth();
+        entry.tileHeight = template.getTileHeight();
+        for (LevelTemplate.Spawn spawn : template.getSpawns()) {
+            entry.entityCounts.merge(spawn.getType().toLowerCase(), 1, Integer::sum);
+        }
+        String directory = path.substring(0, path.lastIndexOf('/') + 1);
+        for (LevelData.Tileset tileset : template.getTilesets()) {
+            if (tileset.getImage() != null && !entry.assets.contains(directory + tileset.getImage())) {
+                entry.assets.add(directory + tileset.getImage());
+            }
+        }
+        entry.music = template.getMusic();
+        entry.hash = toHex(sha256(source));
+        return entry;
+    }
+
+    private static String endTarget(LevelTemplate template, String pathPrefix) {
+        for (TriggerVolume trigger : template.getTriggers()) {
+            if (trigger.getKind() == TriggerVolume.Kind.END && trigger.getValue() != null && !trigger.getValue().isEmpty()) {
+                return pathPrefix + trigger.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isLevelFile(String name) {
+        return (name.endsWith(".tmx") || name.endsWith(".json")) && !name.equals("catalog.json");
+    }
+
+    /** Name order with digit runs compared as numbers. */
+    static int compareNames(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            char ca = a.charAt(i);
+            char cb = b.charAt(j);
+            if (Character.isDigit(ca) && Character.isDigit(cb)) {
+                int endA = i;
+                while (endA < a.length() && Character.isDigit(a.charAt(endA))) endA++;
+                int endB = j;
+                while (endB < b.length() && Character.isDigit(b.charAt(endB))) endB++;
+                String numberA = a.substring(i, endA).replaceFirst("^0+(?=.)", "");
+                String numberB = b.substring(j, endB).replaceFirst("^0+(?=.)", "");
+                int compare = numberA.length() != numberB.length()
+                    ? Integer.compare(numberA.length(), numberB.length()) : numberA.compareTo(numberB);
+                if (compare != 0) return compare;
+                i = endA;
+                j = endB;
+            } else {
+                if (ca != cb) return Character.compare(ca, cb);
+                i++;
+                j++;
+            }
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    public static LevelCatalog read(Reader reader) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (JsonReader json = new JsonReader(reader)) {
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "version":
+                        int version = json.nextInt();
+                        if (version != VERSION) {
+                            throw new IOException("Unsupported level catalog version " + version);
+                        }
+                        break;
+                    case "levels":
+                        json.beginArray();
+                        while (json.hasNext()) {
+                            entries.add(readEntry(json));
+                        }
+                        json.endArray();
+                        break;
+                    default: json.skipValue(); break;
+                }
+            }
+            json.endObject();
+        }
+        return new LevelCatalog(entries);
+    }
+
+    private static Entry readEntry(JsonReader json) throws IOException {
+        Entry entry = new Entry();
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "path": entry.path = json.nextString(); break;
+                case "format": entry.format = json.nextString(); break;
+                case "width": entry.width = json.nextInt(); break;
+                case "height": entry.height = json.nextInt(); break;
+                case "tileWidth": entry.tileWidth = json.nextInt(); break;
+                case "tileHeight": entry.tileHeight = json.nextInt(); break;
+                case "entities":
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        entry.entityCounts.put(json.nextName(), json.nextInt());
+                    }
+                    json.endObject();
+                    break;
+                case "assets":
+                    json.beginArray();
+                    while (json.hasNext()) {
+                        entry.assets.add(json.nextString());
+                    }
+                    json.endArray();
+                    break;
+                case "music": entry.music = json.nextString(); break;
+                case "hash": entry.hash = json.nextString(); break;
+                case "next": entry.next = json.nextString(); break;
+                default: json.skipValue(); break;
+            }
+        }
+        json.endObject();
+        return entry;
+    }
+
+    public void write(Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.setIndent("  ");
+        json.beginObject();
+        json.name("version").value(VERSION);
+        json.name("levels").beginArray();
+        for (Entry entry : entries) {
+            json.beginObject();
+            json.name("path").value(entry.path);
+            json.name("format").value(entry.format);
+            json.name("width").value(entry.width);
+            json.name("height").value(entry.height);
+            json.name("tileWidth").value(entry.tileWidth);
+            json.name("tileHeight").value(entry.tileHeight);
+            json.name("entities").beginObject();
+            for (Map.Entry<String, Integer> count : entry.entityCounts.entrySet()) {
+                json.name(count.getKey()).value(count.getValue());
+            }
+            json.endObject();
+            json.name("assets").beginArray();
+            for (String asset : entry.assets) {
+                json.value(asset);
+            }
+            json.endArray();
+            if (entry.music != null) {
+                json.name("music").value(entry.music);
+            }
+            json.name("hash").value(entry.hash);
+            json.name("next").value(entry.next);
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    public List<Entry> getEntries() { return entries; }
+    public int size() { return entries.size(); }
+    public boolean isEmpty() { return entries.isEmpty(); }
+    public boolean contains(String path) { return byPath.containsKey(path); }
+
+    /** Null when the level is not in the catalog. */
+    public Entry get(String path) {
+        return byPath.get(path);
+    }
+
+    /** First level, or null for an empty catalog. */
+    public Entry first() {
+        return entries.isEmpty() ? null : entries.get(0);
+    }
+
+    /** Position in play order starting at 1 (0 when unknown). */
+    public int numberOf(String path) {
+        Entry entry = byPath.get(path);
+        return entry == null ? 0 : entries.indexOf(entry) + 1;
+    }
+
+    /** Level at position {@code number} (from 1), or null. */
+    public Entry byNumber(int number) {
+        return number >= 1 && number <= entries.size() ? entries.get(number - 1) : null;
+    }
+
+    /** Successor of {@code path}, or the first level when the path is unknown. */
+    public Entry next(String path) {
+        Entry entry = byPath.get(path);
+        return entry != null ? byPath.get(entry.next) : first();
+    }
+
+    static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    public static class Entry {
+        private String path;
+        private String format;
+        private int width;
+        private int height;
+        private int tileWidth;
+        private int tileHeight;
+        private final Map<String, Integer> entityCounts = new TreeMap<>();
+        private final List<String> assets = new ArrayList<>();
+        private String music;
+        private String hash;
+        private String next;
+
+        public String getPath() { return path; }
+        public String getFormat() { return format; }
+        public int getWidth() { return width; }
+        public int getHeight() { return height; }
+        public int getTileWidth() { return tileWidth; }
+        public int getTileHeight() { return tileHeight; }
+        /** Spawns per entity type ("coin", "goomba"...). */
+        public Map<String, Integer> getEntityCounts() { return Collections.unmodifiableMap(entityCounts); }
+        /** Tileset images, as asset paths. */
+        public List<String> getAssets() { return Collections.unmodifiableList(assets); }
+        /** Null for the default track. */
+        public String getMusic() { return music; }
+        /** Hex SHA-256 of the source file. */
+        public String getHash() { return hash; }
+        public String getNext() { return next; }
+
+        @Override
+        public String toString() {
+            return path + " (" + format + ", " + width + "x" + height + ", " + entityCounts + ", next " + next + ")";
+        }
+    }
+}
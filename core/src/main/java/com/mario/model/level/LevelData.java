@@ -10,6 +10,7 @@ public class LevelData {
     private int tileheight;     
     private List<Layer> layers;  
     private List<Tileset> tilesets; 
+    private List<Property> properties;
     
     public int getWidth() { return width; }
     public void setWidth(int width) { this.width = width; }
@@ -28,6 +29,9 @@ public class LevelData {
     
     public List<Tileset> getTilesets() { return tilesets; }
     public void setTilesets(List<Tileset> tilesets) { this.tilesets = tilesets; }
+
+    public List<Property> getProperties() { return properties; }
+    public void setProperties(List<Property> properties) { this.properties = properties; }
     
 
     public static class Layer {
@@ -36,7 +40,8 @@ public class LevelData {
         private int[] data;      
         private String dataString; 
         private List<TiledObject> objects; 
-        private boolean visible;
+        private boolean visible = true;
+        private float opacity = 1f;
         private int width;    
         private int height;   
         private String encoding; 
@@ -60,6 +65,9 @@ public class LevelData {
         public boolean isVisible() { return visible; }
         public void setVisible(boolean visible) { this.visible = visible; }
 
+        public float getOpacity() { return opacity; }
+        public void setOpacity(float opacity) { this.opacity = opacity; }
+
         public int getWidth() { return width; }
         public void setWidth(int width) { this.width = width; }
 
@@ -1,85 +1,68 @@
 package com.mario.model.level;
 
-import java.lang.reflect.Type;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Base64;
+import java.util.Arrays;
 import java.util.List;
-import java.util.zip.Inflater;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSet;
+import com.badlogic.gdx.maps.tiled.tiles.StaticTiledMapTile;
 import com.badlogic.gdx.math.Rectangle;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParseException;
-import com.mario.model.entity.Coin;
-import com.mario.model.entity.EndTrigger;
-import com.mario.model.entity.Entity;
+import com.mario.assets.GameAssetManager;
 import com.mario.model.entity.EntityFactory;
-import com.mario.model.entity.Goomba;
-import com.mario.model.entity.Player;
+import com.mario.profiling.LevelLoadEvent;
 
 
 public class LevelLoader {
-    private final Gson gson;
-    private final EntityFactory entityFactory;
+    private static final int FLIP_HORIZONTALLY = 0x80000000;
+    private static final int FLIP_VERTICALLY = 0x40000000;
+    private static final int FLIP_DIAGONALLY = 0x20000000;
+    private static final int FLIP_FLAGS = FLIP_HORIZONTALLY | FLIP_VERTICALLY | FLIP_DIAGONALLY;
+
+    private final JsonLevelParser jsonParser;
+    private final LevelBinaryReader binaryReader;
+    private final TmxLevelParser tmxParser;
+    private boolean preferCompiled = !"false".equals(System.getProperty("mario.levels.compiled"));
     
     public LevelLoader() {
-        this.gson = new GsonBuilder()
-            .registerTypeAdapter(LevelData.Layer.class, new LayerDeserializer())
-            .create();
-        this.entityFactory = EntityFactory.getInstance();
+        this.jsonParser = new JsonLevelParser();
+        this.binaryReader = new LevelBinaryReader();
+        this.tmxParser = new TmxLevelParser();
     }
 
-    private static class LayerDeserializer implements JsonDeserializer<LevelData.Layer> {
-        @Override
-        public LevelData.Layer deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-            LevelData.Layer layer = new LevelData.Layer();
-
-            var obj = json.getAsJsonObject();
-
-            
-            if (obj.has("name")) layer.setName(obj.get("name").getAsString());
-            if (obj.has("type")) layer.setType(obj.get("type").getAsString());
-            if (obj.has("visible")) layer.setVisible(obj.get("visible").getAsBoolean());
-            if (obj.has("width")) layer.setWidth(obj.get("width").getAsInt());
-            if (obj.has("height")) layer.setHeight(obj.get("height").getAsInt());
-            if (obj.has("encoding")) layer.setEncoding(obj.get("encoding").getAsString());
-            if (obj.has("compression")) layer.setCompression(obj.get("compression").getAsString());
-
-            if (obj.has("data")) {
-                JsonElement dataElement = obj.get("data");
-                if (dataElement.isJsonPrimitive() && dataElement.getAsJsonPrimitive().isString()) {
-                    layer.setDataString(dataElement.getAsString());
-                } else if (dataElement.isJsonArray()) {
-                    var dataArray = dataElement.getAsJsonArray();
-                    int[] data = new int[dataArray.size()];
-                    for (int i = 0; i < dataArray.size(); i++) {
-                        data[i] = dataArray.get(i).getAsInt();
-                    }
-                    layer.setData(data);
-                }
-            }
-
-            if (obj.has("objects")) {
-                var objectsArray = obj.get("objects").getAsJsonArray();
-                List<LevelData.TiledObject> objects = new ArrayList<>();
-                for (JsonElement objElement : objectsArray) {
-                    LevelData.TiledObject tiledObj = context.deserialize(objElement, LevelData.TiledObject.class);
-                    objects.add(tiledObj);
-                }
-                layer.setObjects(objects);
-            }
-
-            return layer;
-        }
+    public Level loadLevel(String levelPath) {
+        return loadTemplate(levelPath).instantiate();
     }
 
-    public Level loadLevel(String levelPath) {
+    public LevelTemplate loadTemplate(String levelPath) {
         // Detect file type and use appropriate loader
+        if (levelPath.endsWith(LevelBinaryFormat.EXTENSION)) {
+            return loadBinaryLevel(levelPath, levelPath, null);
+        }
+        if (preferCompiled) {
+            String compiledPath = LevelBinaryFormat.compiledPath(levelPath);
+            ByteBuffer compiled = mapCompiled(levelPath, compiledPath);
+            if (compiled != null) {
+                return loadBinaryLevel(levelPath, compiledPath, compiled);
+            }
+        }
         if (levelPath.endsWith(".tmx")) {
             System.out.println("Loading TMX file: " + levelPath);
             return loadTmxLevel(levelPath);
@@ -89,19 +72,228 @@ public class LevelLoader {
         }
     }
 
-    private Level loadJsonLevel(String levelPath) {
+    /**
+     * Parses a compiled or TMX level without touching GL, so it can run on a
+     * worker thread. Returns null when the level can only be loaded by
+     * {@link #loadTemplate(String)}. The result still needs
+     * {@link #finishTemplate(LevelTemplate)} on the GL thread.
+     */
+    public LevelTemplate parseTemplate(String levelPath) throws IOException {
+        ByteBuffer compiled = null;
+        if (levelPath.endsWith(LevelBinaryFormat.EXTENSION)) {
+            if (Gdx.files.internal(levelPath).exists()) {
+                compiled = mapLevelFile(Gdx.files.internal(levelPath));
+            }
+        } else if (preferCompiled) {
+            compiled = mapCompiled(levelPath, LevelBinaryFormat.compiledPath(levelPath));
+        }
+        if (compiled != null) {
+            LevelLoadEvent event = LevelLoadEvent.start(levelPath, LevelLoadEvent.PARSE);
+            LevelTemplate template = binaryReader.read(levelPath, compiled);
+            event.finish(template.getSolidTiles().size());
+            return template;
+        }
+        if (levelPath.endsWith(".tmx")) {
+            File file = Gdx.files.internal(levelPath).file();
+            if (file.exists()) {
+                LevelLoadEvent event = LevelLoadEvent.start(levelPath, LevelLoadEvent.PARSE);
+                LevelTemplate template = tmxParser.parse(levelPath, file);
+                event.finish(template.getSolidTiles().size());
+                return template;
+            }
+        }
+        return null;
+    }
+
+    /** GL part of {@link #parseTemplate(String)}: builds the TiledMap from the parsed tilesets. */
+    public void finishTemplate(LevelTemplate template) {
+        if (template.getTiledMap() == null) {
+            LevelLoadEvent event = LevelLoadEvent.start(template.getPath(), LevelLoadEvent.TILESETS);
+            template.setTiledMap(buildTiledMap(template, levelDirectory(template.getPath())));
+            event.finish(template.getTilesets().size());
+        }
+    }
+
+    public void setPreferCompiled(boolean preferCompiled) {
+        this.preferCompiled = preferCompiled;
+    }
+
+    private LevelTemplate loadJsonLevel(String levelPath) {
         FileHandle file = Gdx.files.internal(levelPath);
-        String jsonContent = file.readString();
-        
-        LevelData levelData = gson.fromJson(jsonContent, LevelData.class);
+        try (Reader reader = new BufferedReader(new InputStreamReader(file.read(), StandardCharsets.UTF_8))) {
+            return parseJsonTemplate(levelPath, reader);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load JSON level: " + levelPath, e);
+        }
+    }
+
+    public LevelTemplate parseJsonTemplate(String levelPath, Reader reader) throws IOException {
+        LevelLoadEvent event = LevelLoadEvent.start(levelPath, LevelLoadEvent.PARSE);
+        LevelData levelData = jsonParser.parse(reader);
+        event.finish(levelData.getLayers() != null ? levelData.getLayers().size() : 0);
         
-        return createLevelFromData(levelData);
+        return createTemplateFromData(levelPath, levelData);
+    }
+
+    /** {@code buffer} is the mapped compiled file, or null to map it here. */
+    private LevelTemplate loadBinaryLevel(String levelPath, String compiledPath, ByteBuffer buffer) {
+        try {
+            long start = System.nanoTime();
+            LevelLoadEvent event = LevelLoadEvent.start(levelPath, LevelLoadEvent.PARSE);
+            if (buffer == null) {
+                buffer = mapLevelFile(Gdx.files.internal(compiledPath));
+            }
+            LevelTemplate template = binaryReader.read(levelPath, buffer);
+            event.finish(template.getSolidTiles().size());
+            finishTemplate(template);
+            System.out.println(String.format("Compiled level loaded: %s (%d layers, %d collision spans, %d spawns, %.2f ms)",
+                compiledPath, template.getTileLayers().size(), template.getSolidTiles().size(),
+                template.getSpawns().size(), (System.nanoTime() - start) / 1_000_000.0));
+            return template;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load compiled level: " + compiledPath, e);
+        }
+    }
+
+    /**
+     * Maps the compiled form of a source level, or returns null to load the
+     * source instead: when there is none, or when the source is present and
+     * no longer hashes to the content hash it was compiled from (edited
+     * without running the level compiler).
+     */
+    private ByteBuffer mapCompiled(String levelPath, String compiledPath) {
+        FileHandle compiled = Gdx.files.internal(compiledPath);
+        if (!compiled.exists()) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = mapLevelFile(compiled);
+            FileHandle source = Gdx.files.internal(levelPath);
+            if (source.exists()
+                    && !Arrays.equals(LevelBinaryReader.contentHash(buffer), LevelCatalog.sha256(source.readBytes()))) {
+                System.err.println("Niveau compilé périmé, chargement de la source: " + compiledPath + " -> " + levelPath);
+                return null;
+            }
+            return buffer;
+        } catch (IOException e) {
+            System.err.println("Niveau compilé illisible, chargement de la source: " + compiledPath + " (" + e.getMessage() + ")");
+            return null;
+        }
+    }
+
+    /** Memory-maps the level when it is a plain file (working dir or exploded classpath). */
+    private ByteBuffer mapLevelFile(FileHandle handle) throws IOException {
+        File file = handle.file();
+        if (!file.exists()) {
+            URL url = LevelLoader.class.getResource("/" + handle.path());
+            if (url != null && "file".equals(url.getProtocol())) {
+                try {
+                    file = new File(url.toURI());
+                } catch (URISyntaxException e) {
+                    file = null;
+                }
+            }
+        }
+        if (file != null && file.exists()) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+        return ByteBuffer.wrap(handle.readBytes());
+    }
+
+    private static String levelDirectory(String levelPath) {
+        int slash = levelPath.lastIndexOf('/');
+        return slash >= 0 ? levelPath.substring(0, slash + 1) : "";
+    }
+
+    /**
+     * Tileset textures are referenced by the level's owner in {@link GameAssetManager}, not by the map.
+     * The map itself is registered under the same owner so it is disposed when the level unloads.
+     */
+    private TiledMap buildTiledMap(LevelTemplate template, String levelDirectory) {
+        TiledMap tiledMap = new TiledMap();
+        String owner = GameAssetManager.levelOwner(template.getPath());
+
+        for (LevelData.Tileset tileset : template.getTilesets()) {
+            Texture texture = GameAssetManager.getInstance().acquire(owner, levelDirectory + tileset.getImage(), Texture.class);
+
+            TiledMapTileSet tileSet = new TiledMapTileSet();
+            tileSet.setName(tileset.getName());
+            int columns = Math.max(1, tileset.getColumns());
+            for (int i = 0; i < tileset.getTilecount(); i++) {
+                int x = tileset.getMargin() + (i % columns) * (tileset.getTilewidth() + tileset.getSpacing());
+                int y = tileset.getMargin() + (i / columns) * (tileset.getTileheight() + tileset.getSpacing());
+                StaticTiledMapTile tile = new StaticTiledMapTile(
+                    new TextureRegion(texture, x, y, tileset.getTilewidth(), tileset.getTileheight()));
+                tile.setId(tileset.getFirstgid() + i);
+                tileSet.putTile(tileset.getFirstgid() + i, tile);
+            }
+            tiledMap.getTileSets().addTileSet(tileSet);
+        }
+
+        int width = template.getWidth();
+        int height = template.getHeight();
+        for (Level.TileLayer layer : template.getTileLayers()) {
+            TiledMapTileLayer tileLayer = new TiledMapTileLayer(width, height, template.getTileWidth(), template.getTileHeight());
+            tileLayer.setName(layer.getName());
+            tileLayer.setVisible(layer.isVisible());
+            tileLayer.setOpacity(layer.getOpacity());
+
+            int[] data = layer.getData();
+            for (int row = 0; row < height; row++) {
+                for (int x = 0; x < width; x++) {
+                    int gid = data[row * width + x];
+                    if ((gid & ~FLIP_FLAGS) == 0) continue;
+                    TiledMapTileLayer.Cell cell = createCell(tiledMap, gid);
+                    if (cell != null) {
+                        tileLayer.setCell(x, height - 1 - row, cell);
+                    }
+                }
+            }
+            tiledMap.getLayers().add(tileLayer);
+        }
+
+        return GameAssetManager.getInstance().register(owner, template.getPath() + "#map", TiledMap.class, tiledMap);
     }
 
-    private Level loadTmxLevel(String levelPath) {
+    /** Same flip/rotation mapping as TmxMapLoader. */
+    private TiledMapTileLayer.Cell createCell(TiledMap tiledMap, int gid) {
+        TiledMapTile tile = tiledMap.getTileSets().getTile(gid & ~FLIP_FLAGS);
+        if (tile == null) return null;
+
+        boolean flipHorizontally = (gid & FLIP_HORIZONTALLY) != 0;
+        boolean flipVertically = (gid & FLIP_VERTICALLY) != 0;
+        boolean flipDiagonally = (gid & FLIP_DIAGONALLY) != 0;
+
+        TiledMapTileLayer.Cell cell = new TiledMapTileLayer.Cell();
+        cell.setTile(tile);
+        if (flipDiagonally) {
+            if (flipHorizontally && flipVertically) {
+                cell.setFlipHorizontally(true);
+                cell.setRotation(TiledMapTileLayer.Cell.ROTATE_270);
+            } else if (flipHorizontally) {
+                cell.setRotation(TiledMapTileLayer.Cell.ROTATE_270);
+            } else if (flipVertically) {
+                cell.setRotation(TiledMapTileLayer.Cell.ROTATE_90);
+            } else {
+                cell.setFlipVertically(true);
+                cell.setRotation(TiledMapTileLayer.Cell.ROTATE_270);
+            }
+        } else {
+            cell.setFlipHorizontally(flipHorizontally);
+            cell.setFlipVertically(flipVertically);
+        }
+        return cell;
+    }
+
+    private LevelTemplate loadTmxLevel(String levelPath) {
         try {
-            com.badlogic.gdx.maps.tiled.TmxMapLoader tmxLoader = new com.badlogic.gdx.maps.tiled.TmxMapLoader();
-            com.badlogic.gdx.maps.tiled.TiledMap tiledMap = tmxLoader.load(levelPath);
+            // TmxMapLoader loads the tileset textures with the map: both are in the parse stage
+            LevelLoadEvent parse = LevelLoadEvent.start(levelPath, LevelLoadEvent.PARSE);
+            com.badlogic.gdx.maps.tiled.TiledMap tiledMap = GameAssetManager.getInstance()
+                .acquire(GameAssetManager.levelOwner(levelPath), levelPath, com.badlogic.gdx.maps.tiled.TiledMap.class);
+            parse.finish(tiledMap.getLayers().getCount());
             
             com.badlogic.gdx.maps.MapProperties mapProps = tiledMap.getProperties();
             int mapWidth = mapProps.get("width", Integer.class);
@@ -109,188 +301,190 @@ public class LevelLoader {
             int tileWidth = mapProps.get("tilewidth", Integer.class);
             int tileHeight = mapProps.get("tileheight", Integer.class);
             
-            Level level = new Level(mapWidth, mapHeight, tileWidth, tileHeight);
+            LevelTemplate template = new LevelTemplate(levelPath, mapWidth, mapHeight, tileWidth, tileHeight);
             
-            level.setTiledMap(tiledMap);
+            template.setTiledMap(tiledMap);
+            Object music = mapProps.get("music");
+            if (music != null) {
+                template.setMusic(music.toString());
+            }
             
             // Process each layer
+            LevelLoadEvent collision = LevelLoadEvent.start(levelPath, LevelLoadEvent.COLLISION);
             for (com.badlogic.gdx.maps.MapLayer layer : tiledMap.getLayers()) {
                 String layerName = layer.getName().toLowerCase();
                 System.out.println("Processing layer: " + layer.getName() + " (lowercase: " + layerName + ")");
                 
                 // Tile layers
                 if (layer instanceof com.badlogic.gdx.maps.tiled.TiledMapTileLayer) {
-                    loadTmxTileLayerCollision((com.badlogic.gdx.maps.tiled.TiledMapTileLayer) layer, level);
+                    loadTmxTileLayerCollision((com.badlogic.gdx.maps.tiled.TiledMapTileLayer) layer, template);
                 }
                 // Object layers 
                 else {
                     if (layerName.contains("player") || layerName.contains("spawn")) {
-                        loadTmxPlayerLayer(layer, level);
+                        loadTmxPlayerLayer(layer, template);
                     } else if (layerName.contains("enemies") || layerName.contains("goomba") || layerName.contains("turtle")) {
-                        loadTmxEnemyLayer(layer, level);
+                        loadTmxEnemyLayer(layer, template);
                     } else if (layerName.contains("coin")) {
-                        loadTmxCoinLayer(layer, level);
+                        loadTmxCoinLayer(layer, template);
                     } else if (layerName.contains("ground") || layerName.contains("collision")) {
-                        loadTmxCollisionLayer(layer, level);
-                    } else if (layerName.equals("end")) {
-                        loadTmxEndTrigger(layer, level);
+                        loadTmxCollisionLayer(layer, template);
+                    } else {
+                        loadTmxTriggers(layer, template);
                     }
                 }
             }
             
+            collision.finish(template.getSolidTiles().size());
+            
             System.out.println("TMX map loaded successfully: " + mapWidth + "x" + mapHeight);
-            return level;
+            return template;
         } catch (Exception e) {
+            GameAssetManager.getInstance().release(GameAssetManager.levelOwner(levelPath));
             System.err.println("Failed to load TMX file: " + e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("Failed to load TMX file: " + levelPath, e);
         }
     }
     
-    private void loadTmxPlayerLayer(com.badlogic.gdx.maps.MapLayer layer, Level level) {
+    private void loadTmxPlayerLayer(com.badlogic.gdx.maps.MapLayer layer, LevelTemplate template) {
         System.out.println("Loading player from layer: " + layer.getName());
         for (com.badlogic.gdx.maps.MapObject object : layer.getObjects()) {
             if (object instanceof com.badlogic.gdx.maps.objects.RectangleMapObject) {
                 Rectangle rect = ((com.badlogic.gdx.maps.objects.RectangleMapObject) object).getRectangle();
-                Entity player = entityFactory.createFromRectangle("player", rect);
-                if (player != null) {
-                    level.addEntity(player);
-                    System.out.println("Player spawned at: " + rect.x + ", " + rect.y);
-                }
+                template.addSpawn("player", rect.x, rect.y, rect.width, rect.height, null);
+                System.out.println("Player spawned at: " + rect.x + ", " + rect.y);
                 break;
             }
         }
     }
     
-    private void loadTmxEnemyLayer(com.badlogic.gdx.maps.MapLayer layer, Level level) {
+    private void loadTmxEnemyLayer(com.badlogic.gdx.maps.MapLayer layer, LevelTemplate template) {
         int enemyCount = 0;
         for (com.badlogic.gdx.maps.MapObject object : layer.getObjects()) {
             if (object instanceof com.badlogic.gdx.maps.objects.RectangleMapObject) {
                 Rectangle rect = ((com.badlogic.gdx.maps.objects.RectangleMapObject) object).getRectangle();
-                Entity enemy = entityFactory.createFromRectangle("goomba", rect);
-                if (enemy != null) {
-                    level.addEntity(enemy);
-                    enemyCount++;
-                }
+                template.addSpawn("goomba", rect.x, rect.y, rect.width, rect.height, null);
+                enemyCount++;
             }
         }
         System.out.println("Loaded " + enemyCount + " enemies from layer: " + layer.getName());
     }
     
-    private void loadTmxCoinLayer(com.badlogic.gdx.maps.MapLayer layer, Level level) {
+    private void loadTmxCoinLayer(com.badlogic.gdx.maps.MapLayer layer, LevelTemplate template) {
         int coinCount = 0;
         for (com.badlogic.gdx.maps.MapObject object : layer.getObjects()) {
             if (object instanceof com.badlogic.gdx.maps.objects.RectangleMapObject) {
                 Rectangle rect = ((com.badlogic.gdx.maps.objects.RectangleMapObject) object).getRectangle();
-                Entity coin = entityFactory.createFromRectangle("coin", rect);
-                if (coin != null) {
-                    level.addEntity(coin);
-                    coinCount++;
-                }
+                template.addSpawn("coin", rect.x, rect.y, rect.width, rect.height, null);
+                coinCount++;
             }
         }
         System.out.println("Loaded " + coinCount + " coins from layer: " + layer.getName());
     }
     
-    private void loadTmxCollisionLayer(com.badlogic.gdx.maps.MapLayer layer, Level level) {
+    private void loadTmxCollisionLayer(com.badlogic.gdx.maps.MapLayer layer, LevelTemplate template) {
         int objectCount = 0;
         for (com.badlogic.gdx.maps.MapObject object : layer.getObjects()) {
             if (object instanceof com.badlogic.gdx.maps.objects.RectangleMapObject) {
                 Rectangle rect = ((com.badlogic.gdx.maps.objects.RectangleMapObject) object).getRectangle();
-                level.getSolidTiles().add(rect);
+                template.addSolidTile(rect);
                 objectCount++;
             }
         }
         System.out.println("Loaded " + objectCount + " collision objects from layer: " + layer.getName());
     }
     
-    private void loadTmxEndTrigger(com.badlogic.gdx.maps.MapLayer layer, Level level) {
+    /** Trigger volumes: every object of a trigger layer ("end", "checkpoints"...) or with a "trigger" property. */
+    private void loadTmxTriggers(com.badlogic.gdx.maps.MapLayer layer, LevelTemplate template) {
+        TriggerVolume.Kind layerKind = TriggerVolume.Kind.fromName(layer.getName());
+        int triggerCount = 0;
         for (com.badlogic.gdx.maps.MapObject object : layer.getObjects()) {
-            if (object instanceof com.badlogic.gdx.maps.objects.RectangleMapObject) {
-                Rectangle rect = ((com.badlogic.gdx.maps.objects.RectangleMapObject) object).getRectangle();      
-                EntityFactory.EntityProperties properties = new EntityFactory.EntityProperties();
-                Object nextLevelProp = object.getProperties().get("nextLevel");
-                if (nextLevelProp != null) {
-                    properties.setNextLevel(nextLevelProp.toString());
-                }
-                EndTrigger endTrigger = entityFactory.createEndTriggerFromRectangle(rect, properties);
-                level.setEndTrigger(endTrigger);
-                System.out.println("End trigger loaded at: " + rect.x + ", " + rect.y + 
-                    " (" + rect.width + "x" + rect.height + ")" +
-                    (endTrigger.hasNextLevel() ? " -> " + endTrigger.getNextLevel() : ""));
-                break;
-            }
+            if (!(object instanceof com.badlogic.gdx.maps.objects.RectangleMapObject)) continue;
+            Object kindProp = object.getProperties().get("trigger");
+            TriggerVolume.Kind kind = kindProp != null ? TriggerVolume.Kind.fromName(kindProp.toString()) : layerKind;
+            if (kind == null) continue;
+
+            Object value = kind.getValueProperty() != null ? object.getProperties().get(kind.getValueProperty()) : null;
+            Rectangle rect = ((com.badlogic.gdx.maps.objects.RectangleMapObject) object).getRectangle();
+            template.addTrigger(new TriggerVolume(kind, rect, value != null ? value.toString() : null));
+            triggerCount++;
+        }
+        if (triggerCount > 0) {
+            System.out.println("Loaded " + triggerCount + " triggers from layer: " + layer.getName());
         }
     }
 
-    private void loadTmxTileLayerCollision(com.badlogic.gdx.maps.tiled.TiledMapTileLayer tileLayer, Level level) {
-        int blockedTileCount = 0;
+    private void loadTmxTileLayerCollision(com.badlogic.gdx.maps.tiled.TiledMapTileLayer tileLayer, LevelTemplate template) {
         int layerWidth = tileLayer.getWidth();
         int layerHeight = tileLayer.getHeight();
         int tileWidth = (int) tileLayer.getTileWidth();
         int tileHeight = (int) tileLayer.getTileHeight();
         
-        for (int x = 0; x < layerWidth; x++) {
-            for (int y = 0; y < layerHeight; y++) {
-                com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell cell = tileLayer.getCell(x, y);
-                if (cell != null && cell.getTile() != null) {
-                    com.badlogic.gdx.maps.MapProperties tileProps = cell.getTile().getProperties();
-                    
-                    // Check if this tile has the blocked property
-                    if (tileProps.containsKey("blocked")) {
-                        // Create collision rectangle for this tile
-                        float tileX = x * tileWidth;
-                        float tileY = y * tileHeight;
-                        Rectangle collisionRect = new Rectangle(tileX, tileY, tileWidth, tileHeight);
-                        level.getSolidTiles().add(collisionRect);
-                        blockedTileCount++;
-                    }
-                }
-            }
-        }
+        // Same horizontal spans as the compiled and JSON paths; getCell counts rows from the bottom
+        int spans = CollisionSpans.add(layerWidth, layerHeight, tileWidth, tileHeight, (x, row) -> {
+            com.badlogic.gdx.maps.tiled.TiledMapTileLayer.Cell cell = tileLayer.getCell(x, layerHeight - row - 1);
+            return cell != null && cell.getTile() != null && cell.getTile().getProperties().containsKey("blocked");
+        }, template::addSolidTile);
         
-        if (blockedTileCount > 0) {
-            System.out.println("Loaded " + blockedTileCount + " blocked tiles from layer: " + tileLayer.getName());
+        if (spans > 0) {
+            System.out.println("Loaded " + spans + " blocked tile spans from layer: " + tileLayer.getName());
         }
     }
 
-    private Level createLevelFromData(LevelData levelData) {
-        Level level = new Level(
+    private LevelTemplate createTemplateFromData(String levelPath, LevelData levelData) {
+        LevelTemplate template = new LevelTemplate(
+            levelPath,
             levelData.getWidth(),
             levelData.getHeight(),
             levelData.getTilewidth(),
             levelData.getTileheight()
         );
         
+        if (levelData.getProperties() != null) {
+            for (LevelData.Property property : levelData.getProperties()) {
+                if ("music".equals(property.getName()) && property.getValue() != null) {
+                    template.setMusic(property.getValue().toString());
+                }
+            }
+        }
+
         // Stocker les tilesets dans le niveau
         if (levelData.getTilesets() != null) {
-            level.setTilesets(levelData.getTilesets());
+            template.setTilesets(levelData.getTilesets());
         }
         
+        int[][] decodedLayers = decodeTileLayers(levelData);
+
         // Charger les layers
-        for (LevelData.Layer layer : levelData.getLayers()) {
+        LevelLoadEvent collision = LevelLoadEvent.start(levelPath, LevelLoadEvent.COLLISION);
+        for (int i = 0; i < levelData.getLayers().size(); i++) {
+            LevelData.Layer layer = levelData.getLayers().get(i);
             if (layer.getType().equals("tilelayer")) {
-                int[] tileData = decompressTileData(layer);
+                int[] tileData = decodedLayers[i];
                 if (tileData.length > 0) {
-                    level.addTileLayer(layer.getName(), tileData);
+                    template.addTileLayer(layer.getName(), tileData, layer.isVisible(), layer.getOpacity());
                 }
             } else if (layer.getType().equals("objectgroup")) {
                 String layerName = layer.getName().toLowerCase();
 
                 if (layerName.contains("entities") || layerName.contains("goombas") ||
                     layerName.contains("turtles") || layerName.contains("coins")) {
-                    loadEntitiesFromLayer(layer, level, levelData);
+                    loadEntitiesFromLayer(layer, template, levelData);
                 } else if (layerName.contains("ground") || layerName.contains("pipes") ||
                           layerName.contains("bricks")) {
-                    loadCollisionFromObjectLayer(layer, level, levelData);
+                    loadCollisionFromObjectLayer(layer, template, levelData);
+                } else {
+                    loadTriggersFromLayer(layer, template, levelData);
                 }
             }
         }
+        collision.finish(template.getSolidTiles().size());
         
-        return level;
+        return template;
     }
     
-    private void loadEntitiesFromLayer(LevelData.Layer layer, Level level, LevelData levelData) {
+    private void loadEntitiesFromLayer(LevelData.Layer layer, LevelTemplate template, LevelData levelData) {
         if (layer.getObjects() == null) return;
         
         String layerName = layer.getName().toLowerCase();
@@ -314,10 +508,7 @@ public class LevelLoader {
                 }
             }
 
-            Entity entity = createEntityFromObject(obj, levelData, entityType);
-            if (entity != null) {
-                level.addEntity(entity);
-            }
+            addSpawnFromObject(obj, template, levelData, entityType);
         }
         
         System.out.println("Loaded entities from layer '" + layer.getName() + "': " + 
@@ -325,10 +516,10 @@ public class LevelLoader {
     }
     
 
-    private Entity createEntityFromObject(LevelData.TiledObject obj, LevelData levelData, String entityType) {
+    private void addSpawnFromObject(LevelData.TiledObject obj, LevelTemplate template, LevelData levelData, String entityType) {
         if (entityType == null || entityType.isEmpty()) {
             System.out.println("Objet sans type ignoré: " + obj.getName());
-            return null;
+            return;
         }
 
         float x = obj.getX();
@@ -339,11 +530,11 @@ public class LevelLoader {
         int scoreValue = getIntProperty(obj, "scoreValue", 10);
         properties.setScoreValue(scoreValue);
 
-        return entityFactory.createEntity(entityType, x, y, obj.getWidth(), obj.getHeight(), properties);
+        template.addSpawn(entityType, x, y, obj.getWidth(), obj.getHeight(), properties);
     }
     
 
-    private void loadCollisionFromObjectLayer(LevelData.Layer layer, Level level, LevelData levelData) {
+    private void loadCollisionFromObjectLayer(LevelData.Layer layer, LevelTemplate template, LevelData levelData) {
         if (layer.getObjects() == null) return;
         
         float levelHeightInPixels = levelData.getHeight() * levelData.getTileheight();
@@ -365,7 +556,7 @@ public class LevelLoader {
             
             // Créer un rectangle de collision
             Rectangle collisionRect = new Rectangle(x, y - objectHeight, obj.getWidth(), objectHeight);
-            level.getSolidTiles().add(collisionRect);
+            template.addSolidTile(collisionRect);
             objectsLoaded++;
             
             // Debug: Print first few collision rects
@@ -377,6 +568,34 @@ public class LevelLoader {
         System.out.println("Loaded " + objectsLoaded + " collision objects from layer: " + layer.getName());
     }
 
+    private void loadTriggersFromLayer(LevelData.Layer layer, LevelTemplate template, LevelData levelData) {
+        if (layer.getObjects() == null) return;
+
+        TriggerVolume.Kind layerKind = TriggerVolume.Kind.fromName(layer.getName());
+        float levelHeightInPixels = levelData.getHeight() * levelData.getTileheight();
+        for (LevelData.TiledObject obj : layer.getObjects()) {
+            String kindProp = getStringProperty(obj, "trigger");
+            TriggerVolume.Kind kind = kindProp != null ? TriggerVolume.Kind.fromName(kindProp) : layerKind;
+            if (kind == null || obj.getWidth() <= 0 || obj.getHeight() <= 0) continue;
+
+            String value = kind.getValueProperty() != null ? getStringProperty(obj, kind.getValueProperty()) : null;
+            Rectangle bounds = new Rectangle(obj.getX(), levelHeightInPixels - obj.getY() - obj.getHeight(),
+                obj.getWidth(), obj.getHeight());
+            template.addTrigger(new TriggerVolume(kind, bounds, value));
+        }
+    }
+
+    private String getStringProperty(LevelData.TiledObject obj, String propertyName) {
+        if (obj.getProperties() == null) return null;
+
+        for (LevelData.Property prop : obj.getProperties()) {
+            if (prop.getName().equals(propertyName) && prop.getValue() != null) {
+                return prop.getValue().toString();
+            }
+        }
+        return null;
+    }
+
     private int getIntProperty(LevelData.TiledObject obj, String propertyName, int defaultValue) {
         if (obj.getProperties() == null) return defaultValue;
         
@@ -390,53 +609,45 @@ public class LevelLoader {
         return defaultValue;
     }
 
-    private int[] decompressTileData(LevelData.Layer layer) {
-        // Si les données sont déjà un tableau, les retourner directement
-        if (layer.getData() != null && layer.getData().length > 0) {
-            return layer.getData();
-        }
-
-        // Sinon, décompresser depuis la chaîne encodée
-        String dataString = layer.getDataString();
-        String compression = layer.getCompression();
-
-        if (dataString == null || dataString.isEmpty()) {
-            System.out.println("Pas de données de tiles pour la couche: " + layer.getName());
-            return new int[0];
+    /** Decodes every encoded tile layer in parallel; index i matches levelData.getLayers().get(i). */
+    private int[][] decodeTileLayers(LevelData levelData) {
+        List<LevelData.Layer> layers = levelData.getLayers();
+        int[][] result = new int[layers.size()][];
+        List<TileDataDecoder.Source> sources = new ArrayList<>();
+        List<Integer> sourceIndices = new ArrayList<>();
+
+        for (int i = 0; i < layers.size(); i++) {
+            LevelData.Layer layer = layers.get(i);
+            result[i] = new int[0];
+            if (!"tilelayer".equals(layer.getType())) continue;
+
+            // Si les données sont déjà un tableau, les utiliser directement
+            if (layer.getData() != null && layer.getData().length > 0) {
+                result[i] = layer.getData();
+            } else if (layer.getDataString() == null || layer.getDataString().isEmpty()) {
+                System.out.println("Pas de données de tiles pour la couche: " + layer.getName());
+            } else {
+                int width = layer.getWidth() > 0 ? layer.getWidth() : levelData.getWidth();
+                int height = layer.getHeight() > 0 ? layer.getHeight() : levelData.getHeight();
+                String encoding = layer.getEncoding() != null ? layer.getEncoding() : "base64";
+                sources.add(new TileDataDecoder.Source(layer.getDataString(), encoding, layer.getCompression(), width * height));
+                sourceIndices.add(i);
+            }
         }
 
+        if (sources.isEmpty()) return result;
         try {
-            // Décoder Base64
-            byte[] decodedData = Base64.getDecoder().decode(dataString);
-
-            // Décompresser si nécessaire
-            if ("zlib".equals(compression)) {
-                Inflater inflater = new Inflater();
-                inflater.setInput(decodedData);
-                byte[] decompressedData = new byte[layer.getWidth() * layer.getHeight() * 4];
-                inflater.inflate(decompressedData);
-                inflater.end();
-                decodedData = decompressedData;
-            }
-
-            // Convertir les bytes en tableau d'entiers (little-endian)
-            int tileCount = layer.getWidth() * layer.getHeight();
-            int[] tileData = new int[tileCount];
-            for (int i = 0; i < tileCount; i++) {
-                int offset = i * 4;
-                tileData[i] = (decodedData[offset] & 0xFF) |
-                             ((decodedData[offset + 1] & 0xFF) << 8) |
-                             ((decodedData[offset + 2] & 0xFF) << 16) |
-                             ((decodedData[offset + 3] & 0xFF) << 24);
+            long start = System.nanoTime();
+            int[][] decoded = TileDataDecoder.decodeAll(sources);
+            for (int i = 0; i < decoded.length; i++) {
+                result[sourceIndices.get(i)] = decoded[i];
+                layers.get(sourceIndices.get(i)).setDataString(null);
             }
-
-            System.out.println("Décompressé " + tileCount + " tiles pour la couche: " + layer.getName());
-            return tileData;
-
-        } catch (Exception e) {
-            System.err.println("Erreur lors de la décompression des données de tiles: " + e.getMessage());
-            e.printStackTrace();
-            return new int[0];
+            System.out.println(String.format("Décompressé %d couches en %.2f ms", decoded.length,
+                (System.nanoTime() - start) / 1_000_000.0));
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de la décompression des données de tiles", e);
         }
+        return result;
     }
 }
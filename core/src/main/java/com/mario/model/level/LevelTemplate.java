@@ -0,0 +1,203 @@
+package com.mario.model.level;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileSet;
+import com.badlogic.gdx.math.Rectangle;
+import com.mario.assets.GameAssetManager;
+import com.mario.assets.NativeResourceTracker;
+import com.mario.model.entity.Entity;
+import com.mario.model.entity.EntityFactory;
+import com.mario.profiling.LevelLoadEvent;
+
+/**
+ * Parsed, immutable part of a level: collision, tile layers, tilesets, the
+ * TiledMap and the spawn table. Several {@link Level} instances can share one
+ * template; {@link #instantiate()} only creates the dynamic entity state.
+ */
+public class LevelTemplate {
+    private static final int RECTANGLE_BYTES = 40;
+    private static final int SPAWN_BYTES = 64;
+    private static final int CELL_BYTES = 24;
+
+    private final String path;
+    private final int width;
+    private final int height;
+    private final int tileWidth;
+    private final int tileHeight;
+
+    private final List<Rectangle> solidTiles;
+    private final List<Level.TileLayer> tileLayers;
+    private final List<Spawn> spawns;
+    private final List<Rectangle> solidTilesView;
+    private final List<Level.TileLayer> tileLayersView;
+    private final List<Spawn> spawnsView;
+    private List<LevelData.Tileset> tilesets;
+    private TiledMap tiledMap;
+    private final List<TriggerVolume> triggers;
+    private final List<TriggerVolume> triggersView;
+    private TriggerIndex triggerIndex;
+    private byte[] contentHash;
+    private String music;
+
+    public LevelTemplate(String path, int width, int height, int tileWidth, int tileHeight) {
+        this.path = path;
+        this.width = width;
+        this.height = height;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.solidTiles = new ArrayList<>();
+        this.tileLayers = new ArrayList<>();
+        this.spawns = new ArrayList<>();
+        this.solidTilesView = Collections.unmodifiableList(solidTiles);
+        this.tileLayersView = Collections.unmodifiableList(tileLayers);
+        this.spawnsView = Collections.unmodifiableList(spawns);
+        this.triggers = new ArrayList<>();
+        this.triggersView = Collections.unmodifiableList(triggers);
+        this.tilesets = Collections.emptyList();
+    }
+
+    /** Creates a fresh level sharing this template's static data. */
+    public Level instantiate() {
+        if (triggerIndex == null) {
+            triggerIndex = TriggerIndex.forLevel(triggers, width * tileWidth, height * tileHeight);
+        }
+        LevelLoadEvent event = LevelLoadEvent.start(path, LevelLoadEvent.SPAWN);
+        Level level = new Level(this, new TriggerSystem(triggerIndex));
+        EntityFactory entityFactory = EntityFactory.getInstance();
+        for (int i = 0; i < spawns.size(); i++) {
+            Spawn spawn = spawns.get(i);
+            Entity entity = entityFactory.createEntity(spawn.type, spawn.x, spawn.y,
+                spawn.width, spawn.height, spawn.properties);
+            if (entity != null) {
+                level.addEntity(entity);
+            }
+        }
+        event.finish(level.getEntities().size());
+        return level;
+    }
+
+    void addSolidTile(Rectangle rect) {
+        solidTiles.add(rect);
+    }
+
+    void addTileLayer(String name, int[] data) {
+        addTileLayer(name, data, true, 1f);
+    }
+
+    void addTileLayer(String name, int[] data, boolean visible, float opacity) {
+        tileLayers.add(new Level.TileLayer(name, data, width, height, visible, opacity));
+
+        if (name.toLowerCase().contains("collision") || name.toLowerCase().contains("solid")) {
+            CollisionSpans.add(data, width, height, tileWidth, tileHeight, solidTiles::add);
+        }
+    }
+
+    void addTileLayer(Level.TileLayer layer) {
+        tileLayers.add(layer);
+    }
+
+    void addSpawn(String type, float x, float y, float width, float height, EntityFactory.EntityProperties properties) {
+        spawns.add(new Spawn(type, x, y, width, height, properties));
+    }
+
+    void addTrigger(TriggerVolume trigger) {
+        triggers.add(trigger);
+        triggerIndex = null;
+    }
+
+    void setTilesets(List<LevelData.Tileset> tilesets) {
+        this.tilesets = Collections.unmodifiableList(new ArrayList<>(tilesets));
+    }
+
+    void setTiledMap(TiledMap tiledMap) {
+        this.tiledMap = tiledMap;
+    }
+
+    void setMusic(String music) {
+        this.music = music;
+    }
+
+    void setContentHash(byte[] contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    /** Rough resident size of the shared data, used by {@link LevelTemplateCache}. */
+    public long estimateMemoryBytes() {
+        long bytes = (long) (solidTiles.size() + triggers.size()) * RECTANGLE_BYTES + (long) spawns.size() * SPAWN_BYTES;
+        for (Level.TileLayer layer : tileLayers) {
+            bytes += (long) layer.getData().length * Integer.BYTES;
+        }
+        if (tiledMap != null) {
+            bytes += (long) tiledMap.getLayers().getCount() * width * height * CELL_BYTES;
+            Map<Texture, Boolean> textures = new IdentityHashMap<>();
+            for (TiledMapTileSet tileSet : tiledMap.getTileSets()) {
+                for (TiledMapTile tile : tileSet) {
+                    if (tile.getTextureRegion() != null) {
+                        textures.put(tile.getTextureRegion().getTexture(), Boolean.TRUE);
+                    }
+                }
+            }
+            for (Texture texture : textures.keySet()) {
+                bytes += (long) texture.getWidth() * texture.getHeight() * 4;
+            }
+        }
+        return bytes;
+    }
+
+    /** Drops this level's references; the map and tileset textures are unloaded by {@link GameAssetManager}. */
+    public void dispose() {
+        String owner = GameAssetManager.levelOwner(path);
+        GameAssetManager.getInstance().release(owner);
+        tiledMap = null;
+        NativeResourceTracker.getInstance().checkScope(owner);
+    }
+
+    public String getPath() { return path; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getTileWidth() { return tileWidth; }
+    public int getTileHeight() { return tileHeight; }
+    public List<Rectangle> getSolidTiles() { return solidTilesView; }
+    public List<Level.TileLayer> getTileLayers() { return tileLayersView; }
+    public List<Spawn> getSpawns() { return spawnsView; }
+    public List<LevelData.Tileset> getTilesets() { return tilesets; }
+    public TiledMap getTiledMap() { return tiledMap; }
+    /** Triggers declared by the map (the fallback end is only added to the runtime index). */
+    public List<TriggerVolume> getTriggers() { return triggersView; }
+    public byte[] getContentHash() { return contentHash; }
+    /** Music track declared in the level properties, null for the default track. */
+    public String getMusic() { return music; }
+
+    public static class Spawn {
+        private final String type;
+        private final float x;
+        private final float y;
+        private final float width;
+        private final float height;
+        private final EntityFactory.EntityProperties properties;
+
+        public Spawn(String type, float x, float y, float width, float height, EntityFactory.EntityProperties properties) {
+            this.type = type;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.properties = properties;
+        }
+
+        public String getType() { return type; }
+        public float getX() { return x; }
+        public float getY() { return y; }
+        public float getWidth() { return width; }
+        public float getHeight() { return height; }
+        public EntityFactory.EntityProperties getProperties() { return properties; }
+    }
+}
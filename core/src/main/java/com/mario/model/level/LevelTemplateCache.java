@@ -0,0 +1,166 @@
+package com.mario.model.level;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.mario.profiling.Counter;
+import com.mario.profiling.Histogram;
+import com.mario.profiling.MetricsRegistry;
+
+/**
+ * LRU cache of parsed {@link LevelTemplate}s so restarting or revisiting a
+ * level only instantiates entities instead of re-reading the map file.
+ * Evicted templates are disposed. Two templates are never evicted: the one
+ * just requested, and the one {@link #pin pinned} as backing the level
+ * being played, whose map and tileset textures are still rendered while
+ * the next level is prefetched.
+ * Restarts go through here, so nothing is logged: instantiation times and
+ * cache activity are exported as {@code mario_level_*} metrics and
+ * summarized by {@link #toString()}.
+ */
+public class LevelTemplateCache {
+    private static final int DEFAULT_MAX_ENTRIES = 4;
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final LevelLoader levelLoader;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<String, LevelTemplate> templates;
+    private final Map<String, Long> templateSizes;
+
+    private String pinnedPath;
+    private long residentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long evictedBytes;
+    private long instantiations;
+    private long instantiateNanos;
+
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private final Histogram instantiateTime = metrics.histogram("mario_level_instantiate_seconds",
+        "Time to get a level template and instantiate its entities");
+    private final Counter hitCount = metrics.counter("mario_level_cache_lookups_total", "Level template lookups", "result", "hit");
+    private final Counter missCount = metrics.counter("mario_level_cache_lookups_total", "Level template lookups", "result", "miss");
+    private final Counter evictionCount = metrics.counter("mario_level_cache_evictions_total", "Level templates evicted");
+    private final Counter evictedByteCount = metrics.counter("mario_level_cache_evicted_bytes_total", "Estimated size of the evicted templates");
+
+    public LevelTemplateCache(LevelLoader levelLoader) {
+        this(levelLoader, DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    public LevelTemplateCache(LevelLoader levelLoader, int maxEntries, long maxBytes) {
+        this.levelLoader = levelLoader;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxBytes = maxBytes;
+        this.templates = new LinkedHashMap<>(16, 0.75f, true);
+        this.templateSizes = new LinkedHashMap<>();
+    }
+
+    public Level instantiate(String levelPath) {
+        long start = System.nanoTime();
+        LevelTemplate template = get(levelPath);
+        Level level = template.instantiate();
+        long elapsed = System.nanoTime() - start;
+        instantiateTime.record(elapsed);
+        instantiations++;
+        instantiateNanos += elapsed;
+        return level;
+    }
+
+    public LevelTemplate get(String levelPath) {
+        LevelTemplate template = templates.get(levelPath);
+        if (template != null) {
+            hits++;
+            hitCount.increment();
+            return template;
+        }
+
+        misses++;
+        missCount.increment();
+        template = levelLoader.loadTemplate(levelPath);
+        long size = template.estimateMemoryBytes();
+        templates.put(levelPath, template);
+        templateSizes.put(levelPath, size);
+        residentBytes += size;
+        evictIfNeeded(levelPath);
+        return template;
+    }
+
+    /** Adds a template parsed elsewhere (startup warm-up), replacing any cached one. */
+    public void put(String levelPath, LevelTemplate template) {
+        invalidate(levelPath);
+        long size = template.estimateMemoryBytes();
+        templates.put(levelPath, template);
+        templateSizes.put(levelPath, size);
+        residentBytes += size;
+        evictIfNeeded(levelPath);
+    }
+
+    /** Protects the template of the level being played from eviction (null = none). */
+    public void pin(String levelPath) {
+        pinnedPath = levelPath;
+    }
+
+    public boolean contains(String levelPath) {
+        return templates.containsKey(levelPath);
+    }
+
+    public void invalidate(String levelPath) {
+        LevelTemplate template = templates.remove(levelPath);
+        if (template != null) {
+            residentBytes -= templateSizes.remove(levelPath);
+            template.dispose();
+        }
+    }
+
+    private void evictIfNeeded(String keepPath) {
+        Iterator<Map.Entry<String, LevelTemplate>> it = templates.entrySet().iterator();
+        while ((templates.size() > maxEntries || residentBytes > maxBytes) && it.hasNext()) {
+            Map.Entry<String, LevelTemplate> eldest = it.next();
+            if (eldest.getKey().equals(keepPath) || eldest.getKey().equals(pinnedPath)) {
+                continue;
+            }
+            long size = templateSizes.remove(eldest.getKey());
+            it.remove();
+            residentBytes -= size;
+            evictions++;
+            evictedBytes += size;
+            evictionCount.increment();
+            evictedByteCount.add(size);
+            eldest.getValue().dispose();
+        }
+    }
+
+    public void clear() {
+        for (LevelTemplate template : templates.values()) {
+            template.dispose();
+        }
+        templates.clear();
+        templateSizes.clear();
+        residentBytes = 0;
+    }
+
+    public void dispose() {
+        clear();
+    }
+
+    public int size() { return templates.size(); }
+    public long getResidentBytes() { return residentBytes; }
+    public long getMaxBytes() { return maxBytes; }
+    public int getMaxEntries() { return maxEntries; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getEvictedBytes() { return evictedBytes; }
+
+    @Override
+    public String toString() {
+        return templates.size() + "/" + maxEntries + " templates, "
+            + residentBytes / 1024 + "/" + maxBytes / 1024 + " KB, "
+            + hits + " hits, " + misses + " misses, " + evictions + " evictions ("
+            + evictedBytes / 1024 + " KB), instantiate mean "
+            + String.format("%.2f", instantiations > 0 ? instantiateNanos / 1e6 / instantiations : 0.0) + " ms";
+    }
+}
@@ -0,0 +1,222 @@
+package com.mario.model.level;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes Tiled tile layer data (csv, base64, base64+zlib, base64+gzip).
+ * Base64 text is streamed through the decoder and inflater into a small
+ * chunk that is copied into the final int[] via a little-endian IntBuffer
+ * view, so no full-size byte[] is ever allocated.
+ */
+public final class TileDataDecoder {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private TileDataDecoder() {
+    }
+
+    /** Encoded data of one layer, decoded by {@link #decodeAll(List)}. */
+    public static class Source {
+        private final CharSequence data;
+        private final String encoding;
+        private final String compression;
+        private final int tileCount;
+
+        public Source(CharSequence data, String encoding, String compression, int tileCount) {
+            this.data = data;
+            this.encoding = encoding;
+            this.compression = compression;
+            this.tileCount = tileCount;
+        }
+    }
+
+    /** Decodes all layers in parallel; results are in the same order as the sources. */
+    public static int[][] decodeAll(List<Source> sources) throws IOException {
+        int[][] results = new int[sources.size()][];
+        try {
+            IntStream.range(0, sources.size()).parallel().forEach(i -> {
+                Source source = sources.get(i);
+                try {
+                    results[i] = decode(source.data, source.encoding, source.compression, source.tileCount);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return results;
+    }
+
+    public static int[] decode(CharSequence data, String encoding, String compression, int tileCount) throws IOException {
+        if ("csv".equals(encoding)) {
+            return decodeCsv(data, tileCount);
+        }
+        if (!"base64".equals(encoding)) {
+            throw new IOException("Unsupported tile layer encoding: " + encoding);
+        }
+
+        InputStream in = new Base64InputStream(data);
+        // Created here, so not ended by InflaterInputStream.close(): end it ourselves
+        Inflater inflater = null;
+        if ("zlib".equals(compression)) {
+            inflater = new Inflater();
+            in = new InflaterInputStream(in, inflater, CHUNK_SIZE);
+        } else if ("gzip".equals(compression)) {
+            in = new GZIPInputStream(in, CHUNK_SIZE);
+        } else if (compression != null && !compression.isEmpty()) {
+            throw new IOException("Unsupported tile layer compression: " + compression
+                + " (re-save the map with zlib, gzip or no compression)");
+        }
+
+        try (InputStream input = in) {
+            return readLittleEndianInts(input, tileCount);
+        } finally {
+            if (inflater != null) {
+                inflater.end(); // frees the native zlib stream now rather than at finalization
+            }
+        }
+    }
+
+    private static int[] readLittleEndianInts(InputStream in, int tileCount) throws IOException {
+        int[] tiles = new int[tileCount];
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, Math.max(4, tileCount * 4))];
+        IntBuffer view = ByteBuffer.wrap(chunk).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+
+        int count = 0;
+        int carry = 0;
+        int read;
+        while ((read = in.read(chunk, carry, chunk.length - carry)) != -1) {
+            int available = carry + read;
+            int ints = available / 4;
+            if (count + ints > tileCount) {
+                throw new IOException("Tile data holds more than " + tileCount + " tiles");
+            }
+            view.clear();
+            view.get(tiles, count, ints);
+            count += ints;
+            carry = available - ints * 4;
+            if (carry > 0) {
+                System.arraycopy(chunk, ints * 4, chunk, 0, carry);
+            }
+        }
+
+        if (carry != 0) {
+            throw new IOException("Tile data length is not a multiple of 4 bytes");
+        }
+        if (count != tileCount) {
+            throw new IOException("Tile data holds " + count + " tiles, expected " + tileCount);
+        }
+        return tiles;
+    }
+
+    /** Parses comma separated gids without splitting; gids are unsigned 32-bit values. */
+    private static int[] decodeCsv(CharSequence data, int tileCount) throws IOException {
+        int[] tiles = new int[tileCount];
+        int count = 0;
+        long value = 0;
+        boolean inNumber = false;
+        int length = data.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? data.charAt(i) : ',';
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                inNumber = true;
+            } else if (c == ',') {
+                if (inNumber) {
+                    if (count == tileCount) {
+                        throw new IOException("Tile data holds more than " + tileCount + " tiles");
+                    }
+                    tiles[count++] = (int) value;
+                }
+                value = 0;
+                inNumber = false;
+            } else if (!Character.isWhitespace(c)) {
+                throw new IOException("Invalid character '" + c + "' in csv tile data");
+            }
+        }
+        if (count != tileCount) {
+            throw new IOException("Tile data holds " + count + " tiles, expected " + tileCount);
+        }
+        return tiles;
+    }
+
+    /** Decodes base64 text straight from the CharSequence, skipping whitespace. */
+    private static final class Base64InputStream extends InputStream {
+        private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        private static final byte[] VALUES = new byte[128];
+
+        static {
+            java.util.Arrays.fill(VALUES, (byte) -1);
+            for (int i = 0; i < ALPHABET.length(); i++) {
+                VALUES[ALPHABET.charAt(i)] = (byte) i;
+            }
+        }
+
+        private final CharSequence text;
+        private int position;
+        private int bits;
+        private int bitCount;
+        private boolean finished;
+
+        Base64InputStream(CharSequence text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            int count = 0;
+            int end = text.length();
+            while (count < length && !finished && position < end) {
+                // Fast path: four alphabet characters on a quantum boundary give three bytes
+                if (bitCount == 0 && count + 3 <= length && position + 4 <= end) {
+                    int quantum = value(text.charAt(position)) << 18 | value(text.charAt(position + 1)) << 12
+                        | value(text.charAt(position + 2)) << 6 | value(text.charAt(position + 3));
+                    if (quantum >= 0) {
+                        buffer[offset + count++] = (byte) (quantum >> 16);
+                        buffer[offset + count++] = (byte) (quantum >> 8);
+                        buffer[offset + count++] = (byte) quantum;
+                        position += 4;
+                        continue;
+                    }
+                }
+                char c = text.charAt(position++);
+                int value = c < 128 ? VALUES[c] : -1;
+                if (value >= 0) {
+                    bits = (bits << 6) | value;
+                    bitCount += 6;
+                    if (bitCount >= 8) {
+                        bitCount -= 8;
+                        buffer[offset + count++] = (byte) (bits >> bitCount);
+                    }
+                } else if (c == '=') {
+                    finished = true;
+                } else if (!Character.isWhitespace(c)) {
+                    throw new IOException("Invalid character '" + c + "' in base64 tile data");
+                }
+            }
+            return count == 0 ? -1 : count;
+        }
+
+        /** Sextet value, or a negative number that makes the whole quantum negative. */
+        private static int value(char c) {
+            return c < 128 ? VALUES[c] : -1;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.mario.model.level;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.XmlReader;
+
+/**
+ * Builds a {@link LevelTemplate} from a TMX file without libGDX's
+ * TmxMapLoader, so it runs without a GL context (level compiler, tools).
+ * Layers are interpreted exactly like {@code LevelLoader.loadTmxLevel};
+ * blocked tiles are merged into horizontal collision spans.
+ */
+public class TmxLevelParser {
+    private static final int FLIP_FLAGS = 0xE0000000;
+
+    public LevelTemplate parse(String levelPath, File tmxFile) throws IOException {
+        XmlReader.Element map;
+        try (Reader reader = Files.newBufferedReader(tmxFile.toPath(), StandardCharsets.UTF_8)) {
+            map = new XmlReader().parse(reader);
+        }
+
+        int mapWidth = map.getIntAttribute("width");
+        int mapHeight = map.getIntAttribute("height");
+        int tileWidth = map.getIntAttribute("tilewidth");
+        int tileHeight = map.getIntAttribute("tileheight");
+        float mapHeightInPixels = mapHeight * tileHeight;
+
+        LevelTemplate template = new LevelTemplate(levelPath, mapWidth, mapHeight, tileWidth, tileHeight);
+        template.setMusic(getProperty(map, "music"));
+
+        List<LevelData.Tileset> tilesets = new ArrayList<>();
+        Set<Integer> blockedGids = new HashSet<>();
+        for (XmlReader.Element tilesetElement : map.getChildrenByName("tileset")) {
+            tilesets.add(parseTileset(tilesetElement, tmxFile.getParentFile(), blockedGids));
+        }
+        template.setTilesets(tilesets);
+
+        int[][] layerData = decodeTileLayers(map, mapWidth * mapHeight);
+        for (int i = 0; i < map.getChildCount(); i++) {
+            XmlReader.Element layer = map.getChild(i);
+            if (layer.getName().equals("layer")) {
+                int[] data = layerData[i];
+                template.addTileLayer(new Level.TileLayer(layer.getAttribute("name", ""), data, mapWidth, mapHeight,
+                    layer.getIntAttribute("visible", 1) == 1, layer.getFloatAttribute("opacity", 1f)));
+                addBlockedSpans(template, data, blockedGids);
+            } else if (layer.getName().equals("objectgroup")) {
+                parseObjectLayer(layer, template, mapHeightInPixels);
+            }
+        }
+
+        return template;
+    }
+
+    private LevelData.Tileset parseTileset(XmlReader.Element element, File baseDir, Set<Integer> blockedGids) throws IOException {
+        int firstgid = element.getIntAttribute("firstgid", 1);
+        String imagePrefix = "";
+        String source = element.getAttribute("source", null);
+        if (source != null) {
+            File tsxFile = new File(baseDir, source);
+            try (Reader reader = Files.newBufferedReader(tsxFile.toPath(), StandardCharsets.UTF_8)) {
+                element = new XmlReader().parse(reader);
+            }
+            int slash = source.lastIndexOf('/');
+            imagePrefix = slash >= 0 ? source.substring(0, slash + 1) : "";
+        }
+
+        LevelData.Tileset tileset = new LevelData.Tileset();
+        tileset.setFirstgid(firstgid);
+        tileset.setName(element.getAttribute("name", ""));
+        tileset.setTilewidth(element.getIntAttribute("tilewidth", 0));
+        tileset.setTileheight(element.getIntAttribute("tileheight", 0));
+        tileset.setTilecount(element.getIntAttribute("tilecount", 0));
+        tileset.setColumns(element.getIntAttribute("columns", 0));
+        tileset.setMargin(element.getIntAttribute("margin", 0));
+        tileset.setSpacing(element.getIntAttribute("spacing", 0));
+        XmlReader.Element image = element.getChildByName("image");
+        if (image != null) {
+            tileset.setImage(imagePrefix + image.getAttribute("source", ""));
+        }
+
+        for (XmlReader.Element tile : element.getChildrenByName("tile")) {
+            XmlReader.Element properties = tile.getChildByName("properties");
+            if (properties == null) continue;
+            for (XmlReader.Element property : properties.getChildrenByName("property")) {
+                if ("blocked".equals(property.getAttribute("name", null))) {
+                    blockedGids.add(firstgid + tile.getIntAttribute("id"));
+                }
+            }
+        }
+        return tileset;
+    }
+
+    private void addBlockedSpans(LevelTemplate template, int[] data, Set<Integer> blockedGids) {
+        if (blockedGids.isEmpty()) return;
+        int width = template.getWidth();
+        int height = template.getHeight();
+        int tileWidth = template.getTileWidth();
+        int tileHeight = template.getTileHeight();
+
+        CollisionSpans.add(width, height, tileWidth, tileHeight,
+            (x, row) -> blockedGids.contains(data[row * width + x] & ~FLIP_FLAGS), template::addSolidTile);
+    }
+
+    private void parseObjectLayer(XmlReader.Element layer, LevelTemplate template, float mapHeightInPixels) {
+        String layerName = layer.getAttribute("name", "").toLowerCase();
+        TriggerVolume.Kind layerKind = TriggerVolume.Kind.fromName(layerName);
+        for (XmlReader.Element object : layer.getChildrenByName("object")) {
+            Rectangle rect = toRectangle(object, mapHeightInPixels);
+            if (rect == null) continue;
+
+            if (layerName.contains("player") || layerName.contains("spawn")) {
+                template.addSpawn("player", rect.x, rect.y, rect.width, rect.height, null);
+                break;
+            } else if (layerName.contains("enemies") || layerName.contains("goomba") || layerName.contains("turtle")) {
+                template.addSpawn("goomba", rect.x, rect.y, rect.width, rect.height, null);
+            } else if (layerName.contains("coin")) {
+                template.addSpawn("coin", rect.x, rect.y, rect.width, rect.height, null);
+            } else if (layerName.contains("ground") || layerName.contains("collision")) {
+                template.addSolidTile(rect);
+            } else {
+                String kindProp = getProperty(object, "trigger");
+                TriggerVolume.Kind kind = kindProp != null ? TriggerVolume.Kind.fromName(kindProp) : layerKind;
+                if (kind != null) {
+                    String value = kind.getValueProperty() != null ? getProperty(object, kind.getValueProperty()) : null;
+                    template.addTrigger(new TriggerVolume(kind, rect, value));
+                }
+            }
+        }
+    }
+
+    /** Same conversion as TmxMapLoader with flipY: only plain rectangle objects. */
+    private Rectangle toRectangle(XmlReader.Element object, float mapHeightInPixels) {
+        if (object.hasAttribute("gid") || object.getChildByName("ellipse") != null
+            || object.getChildByName("polygon") != null || object.getChildByName("polyline") != null
+            || object.getChildByName("point") != null || object.getChildByName("text") != null) {
+            return null;
+        }
+        float x = object.getFloatAttribute("x", 0);
+        float width = object.getFloatAttribute("width", 0);
+        float height = object.getFloatAttribute("height", 0);
+        float y = mapHeightInPixels - object.getFloatAttribute("y", 0) - height;
+        return new Rectangle(x, y, width, height);
+    }
+
+    private String getProperty(XmlReader.Element object, String name) {
+        XmlReader.Element properties = object.getChildByName("properties");
+        if (properties == null) return null;
+        for (XmlReader.Element property : properties.getChildrenByName("property")) {
+            if (name.equals(property.getAttribute("name", null))) {
+                String value = property.getAttribute("value", null);
+                return value != null ? value : property.getText();
+            }
+        }
+        return null;
+    }
+
+    /** Decodes the encoded tile layers in parallel; index i matches map.getChild(i). */
+    private int[][] decodeTileLayers(XmlReader.Element map, int tileCount) throws IOException {
+        int[][] result = new int[map.getChildCount()][];
+        List<TileDataDecoder.Source> sources = new ArrayList<>();
+        List<Integer> sourceIndices = new ArrayList<>();
+
+        for (int i = 0; i < map.getChildCount(); i++) {
+            XmlReader.Element layer = map.getChild(i);
+            if (!layer.getName().equals("layer")) continue;
+
+            XmlReader.Element data = layer.getChildByName("data");
+            String encoding = data != null ? data.getAttribute("encoding", null) : null;
+            if (encoding == null) {
+                result[i] = decodeXmlTiles(data, tileCount);
+            } else {
+                sources.add(new TileDataDecoder.Source(data.getText(), encoding, data.getAttribute("compression", null), tileCount));
+                sourceIndices.add(i);
+            }
+        }
+
+        int[][] decoded = TileDataDecoder.decodeAll(sources);
+        for (int i = 0; i < decoded.length; i++) {
+            result[sourceIndices.get(i)] = decoded[i];
+        }
+        return result;
+    }
+
+    private static int[] decodeXmlTiles(XmlReader.Element data, int tileCount) {
+        int[] tiles = new int[tileCount];
+        if (data == null) return tiles;
+        Array<XmlReader.Element> tileElements = data.getChildrenByName("tile");
+        for (int i = 0; i < tileElements.size && i < tileCount; i++) {
+            tiles[i] = (int) Long.parseLong(tileElements.get(i).getAttribute("gid", "0"));
+        }
+        return tiles;
+    }
+}
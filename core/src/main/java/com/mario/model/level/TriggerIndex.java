@@ -0,0 +1,78 @@
+package com.mario.model.level;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Uniform grid over a level's triggers, built once per template. Each cell
+ * lists the triggers overlapping it in one flat array (cellStart[c] to
+ * cellStart[c + 1]); coordinates outside the level clamp to the border cells.
+ */
+final class TriggerIndex {
+    static final float CELL_SIZE = 128f;
+
+    final TriggerVolume[] triggers;
+    final int columns;
+    final int rows;
+    final int[] cellStart;
+    final int[] cellTriggers;
+
+    TriggerIndex(List<TriggerVolume> triggers, float worldWidth, float worldHeight) {
+        this.triggers = triggers.toArray(new TriggerVolume[0]);
+        this.columns = Math.max(1, (int) Math.ceil(worldWidth / CELL_SIZE));
+        this.rows = Math.max(1, (int) Math.ceil(worldHeight / CELL_SIZE));
+        this.cellStart = new int[columns * rows + 1];
+
+        for (TriggerVolume trigger : this.triggers) {
+            Rectangle b = trigger.getBounds();
+            for (int row = row(b.y); row <= row(b.y + b.height); row++) {
+                for (int column = column(b.x); column <= column(b.x + b.width); column++) {
+                    cellStart[row * columns + column + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStart[cell + 1] += cellStart[cell];
+        }
+        this.cellTriggers = new int[cellStart[columns * rows]];
+        int[] fill = cellStart.clone();
+        for (int t = 0; t < this.triggers.length; t++) {
+            Rectangle b = this.triggers[t].getBounds();
+            for (int row = row(b.y); row <= row(b.y + b.height); row++) {
+                for (int column = column(b.x); column <= column(b.x + b.width); column++) {
+                    cellTriggers[fill[row * columns + column]++] = t;
+                }
+            }
+        }
+    }
+
+    /**
+     * Index for a level, adding the historical fallback end (the last 10%
+     * of the level width) when the map declares no END trigger.
+     */
+    static TriggerIndex forLevel(List<TriggerVolume> declared, float worldWidth, float worldHeight) {
+        List<TriggerVolume> triggers = new ArrayList<>(declared);
+        boolean hasEnd = false;
+        for (TriggerVolume trigger : declared) {
+            hasEnd |= trigger.getKind() == TriggerVolume.Kind.END;
+        }
+        if (!hasEnd) {
+            float endX = worldWidth * 0.9f;
+            triggers.add(new TriggerVolume(TriggerVolume.Kind.END,
+                new Rectangle(endX, -worldHeight, worldWidth - endX, worldHeight * 3), null));
+        }
+        return new TriggerIndex(triggers, worldWidth, worldHeight);
+    }
+
+    int column(float x) {
+        int column = (int) Math.floor(x / CELL_SIZE);
+        return column < 0 ? 0 : (column >= columns ? columns - 1 : column);
+    }
+
+    int row(float y) {
+        int row = (int) Math.floor(y / CELL_SIZE);
+        return row < 0 ? 0 : (row >= rows ? rows - 1 : row);
+    }
+}
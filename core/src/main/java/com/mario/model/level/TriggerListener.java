@@ -0,0 +1,12 @@
+package com.mario.model.level;
+
+import com.mario.model.entity.Entity;
+
+public interface TriggerListener {
+    void onTriggerEnter(TriggerVolume trigger, Entity entity);
+
+    void onTriggerExit(TriggerVolume trigger, Entity entity);
+
+    default void onTriggerStay(TriggerVolume trigger, Entity entity) {
+    }
+}
@@ -0,0 +1,217 @@
+package com.mario.model.level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.mario.model.entity.Entity;
+import com.mario.model.entity.Player;
+
+/**
+ * Per-level trigger state on top of the template's static {@link TriggerIndex}.
+ *
+ * Each tick {@link #update(List)} looks at every active entity. An entity
+ * that has not moved keeps its previous result and only gets stay events.
+ * An entity whose grid cells hold no trigger, and which is not inside one,
+ * is skipped. Otherwise only the triggers listed in its cells are tested.
+ * Exit events are sent before enter events, so moving between adjacent
+ * zones ends in the right state. Entities that leave the level (inactive,
+ * removed) get exit events for the triggers they were in.
+ */
+public class TriggerSystem {
+    private final TriggerIndex index;
+    private final Map<Entity, Occupancy> occupancy;
+    private final List<Occupancy> spare;
+    private final int[] stamps;
+    private final int[] found;
+    private TriggerListener listener;
+
+    private int stamp;
+    private int tick;
+    private long entityUpdates;
+    private long skipped;
+    private long overlapTests;
+
+    TriggerSystem(TriggerIndex index) {
+        this.index = index;
+        this.occupancy = new IdentityHashMap<>();
+        this.spare = new ArrayList<>();
+        this.stamps = new int[index.triggers.length];
+        this.found = new int[index.triggers.length];
+    }
+
+    public void setListener(TriggerListener listener) {
+        this.listener = listener;
+    }
+
+    public void update(List<Entity> entities) {
+        tick++;
+        int seen = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            if (entity.isActive()) {
+                track(entity);
+                seen++;
+            }
+        }
+        if (seen < occupancy.size()) {
+            removeStale();
+        }
+    }
+
+    private void track(Entity entity) {
+        Occupancy state = occupancy.get(entity);
+        if (state == null) {
+            state = spare.isEmpty() ? new Occupancy() : spare.remove(spare.size() - 1);
+            state.reset();
+            occupancy.put(entity, state);
+        }
+        state.tick = tick;
+        entityUpdates++;
+
+        Rectangle b = entity.getBounds();
+        if (!state.fresh && b.x == state.x && b.y == state.y) {
+            fireStays(state, entity);
+            return;
+        }
+        state.fresh = false;
+        state.x = b.x;
+        state.y = b.y;
+
+        int c0 = index.column(b.x);
+        int c1 = index.column(b.x + b.width);
+        int r0 = index.row(b.y);
+        int r1 = index.row(b.y + b.height);
+        boolean sameCells = c0 == state.c0 && c1 == state.c1 && r0 == state.r0 && r1 == state.r1;
+        if (sameCells && !state.cellsHaveTriggers && state.insideCount == 0) {
+            skipped++;
+            return;
+        }
+        state.c0 = c0;
+        state.c1 = c1;
+        state.r0 = r0;
+        state.r1 = r1;
+
+        // Candidate triggers of the covered cells, each tested once
+        stamp++;
+        boolean player = entity instanceof Player;
+        boolean candidates = false;
+        int foundCount = 0;
+        for (int row = r0; row <= r1; row++) {
+            for (int column = c0; column <= c1; column++) {
+                int cell = row * index.columns + column;
+                for (int k = index.cellStart[cell]; k < index.cellStart[cell + 1]; k++) {
+                    int t = index.cellTriggers[k];
+                    if (stamps[t] == stamp) continue;
+                    stamps[t] = stamp;
+                    TriggerVolume trigger = index.triggers[t];
+                    if (trigger.getKind().isPlayerOnly() && !player) continue;
+                    candidates = true;
+                    overlapTests++;
+                    if (trigger.getBounds().overlaps(b)) {
+                        found[foundCount++] = t;
+                    }
+                }
+            }
+        }
+        state.cellsHaveTriggers = candidates;
+        diff(state, entity, foundCount);
+    }
+
+    private void diff(Occupancy state, Entity entity, int foundCount) {
+        // Exits: previously inside, not found now
+        for (int i = 0; i < state.insideCount; i++) {
+            if (!contains(found, foundCount, state.inside[i]) && listener != null) {
+                listener.onTriggerExit(index.triggers[state.inside[i]], entity);
+            }
+        }
+        for (int i = 0; i < foundCount; i++) {
+            TriggerVolume trigger = index.triggers[found[i]];
+            if (listener == null) continue;
+            if (contains(state.inside, state.insideCount, found[i])) {
+                listener.onTriggerStay(trigger, entity);
+            } else {
+                listener.onTriggerEnter(trigger, entity);
+            }
+        }
+        if (state.inside.length < foundCount) {
+            state.inside = Arrays.copyOf(state.inside, foundCount);
+        }
+        System.arraycopy(found, 0, state.inside, 0, foundCount);
+        state.insideCount = foundCount;
+    }
+
+    private void fireStays(Occupancy state, Entity entity) {
+        if (listener == null) return;
+        for (int i = 0; i < state.insideCount; i++) {
+            listener.onTriggerStay(index.triggers[state.inside[i]], entity);
+        }
+    }
+
+    private void removeStale() {
+        Iterator<Map.Entry<Entity, Occupancy>> it = occupancy.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Entity, Occupancy> entry = it.next();
+            Occupancy state = entry.getValue();
+            if (state.tick == tick) continue;
+            if (listener != null) {
+                for (int i = 0; i < state.insideCount; i++) {
+                    listener.onTriggerExit(index.triggers[state.inside[i]], entry.getKey());
+                }
+            }
+            it.remove();
+            spare.add(state);
+        }
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) return true;
+        }
+        return false;
+    }
+
+    /** Forgets every entity without sending exit events (level unloaded). */
+    public void clear() {
+        spare.addAll(occupancy.values());
+        occupancy.clear();
+    }
+
+    public int getTriggerCount() {
+        return index.triggers.length;
+    }
+
+    public TriggerVolume getTrigger(int i) {
+        return index.triggers[i];
+    }
+
+    public String getStatsReport() {
+        return String.format("Triggers: %d in %dx%d cells, entity updates=%d skipped=%d overlap tests=%d",
+            index.triggers.length, index.columns, index.rows, entityUpdates, skipped, overlapTests);
+    }
+
+    private static final class Occupancy {
+        private float x;
+        private float y;
+        private int c0;
+        private int c1;
+        private int r0;
+        private int r1;
+        private boolean fresh;
+        private boolean cellsHaveTriggers;
+        private int tick;
+        private int[] inside = new int[4];
+        private int insideCount;
+
+        void reset() {
+            fresh = true;
+            cellsHaveTriggers = false;
+            insideCount = 0;
+            c0 = c1 = r0 = r1 = -1;
+        }
+    }
+}
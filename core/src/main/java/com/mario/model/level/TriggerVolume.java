@@ -0,0 +1,70 @@
+package com.mario.model.level;
+
+import com.badlogic.gdx.math.Rectangle;
+
+/**
+ * Static region of a level that reports entities entering, staying in and
+ * leaving it (see {@link TriggerSystem}). Loaded from object layers named
+ * after a kind ("end", "checkpoints", "killzones", "music", "camera") or
+ * from objects with a "trigger" property.
+ */
+public final class TriggerVolume {
+
+    public enum Kind {
+        END(true, "nextLevel"),
+        CHECKPOINT(true, null),
+        KILL(false, null),
+        MUSIC(true, "music"),
+        CAMERA_LOCK(true, null);
+
+        private final boolean playerOnly;
+        private final String valueProperty;
+
+        Kind(boolean playerOnly, String valueProperty) {
+            this.playerOnly = playerOnly;
+            this.valueProperty = valueProperty;
+        }
+
+        /** Kill zones apply to every entity, the other kinds only to the player. */
+        public boolean isPlayerOnly() {
+            return playerOnly;
+        }
+
+        /** Object property holding the trigger's value (next level, music track), or null. */
+        public String getValueProperty() {
+            return valueProperty;
+        }
+
+        /** Layer name or "trigger" property value to kind; null when it is not a trigger. */
+        public static Kind fromName(String name) {
+            if (name == null) return null;
+            String normalized = name.toLowerCase().trim();
+            if (normalized.equals("end") || normalized.equals("goal")) return END;
+            if (normalized.contains("checkpoint")) return CHECKPOINT;
+            if (normalized.contains("kill") || normalized.contains("death") || normalized.contains("hazard")) return KILL;
+            if (normalized.contains("music")) return MUSIC;
+            if (normalized.contains("camera")) return CAMERA_LOCK;
+            return null;
+        }
+    }
+
+    private final Kind kind;
+    private final Rectangle bounds;
+    private final String value;
+
+    public TriggerVolume(Kind kind, Rectangle bounds, String value) {
+        this.kind = kind;
+        this.bounds = new Rectangle(bounds);
+        this.value = value != null && !value.isEmpty() ? value : null;
+    }
+
+    public Kind getKind() { return kind; }
+    public Rectangle getBounds() { return bounds; }
+    /** Next level for END, track for MUSIC; null otherwise or when unset. */
+    public String getValue() { return value; }
+
+    @Override
+    public String toString() {
+        return kind + " " + bounds + (value != null ? " -> " + value : "");
+    }
+}
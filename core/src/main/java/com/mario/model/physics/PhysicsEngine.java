@@ -11,22 +11,33 @@ import com.mario.model.entity.Player;
 import com.mario.model.level.Level;
 import com.mario.observer.GameEvent;
 import com.mario.observer.GameEventManager;
+import com.mario.profiling.Counter;
+import com.mario.profiling.MetricsRegistry;
+import com.mario.profiling.PhysicsPassEvent;
 
 public class PhysicsEngine {
     private static final float COLLISION_TOLERANCE = 0.1f;
     private final GameEventManager eventManager;
+    private final Pass playerTerrain = new Pass(PhysicsPassEvent.PLAYER_TERRAIN);
+    private final Pass playerEnemy = new Pass(PhysicsPassEvent.PLAYER_ENEMY);
+    private final Pass playerCollectible = new Pass(PhysicsPassEvent.PLAYER_COLLECTIBLE);
+    private final Pass enemyTerrain = new Pass(PhysicsPassEvent.ENEMY_TERRAIN);
 
     public PhysicsEngine() {
         this.eventManager = GameEventManager.getInstance();
     }
     
     public void handlePlayerTerrainCollision(Player player, List<Rectangle> solidTiles) {
+        PhysicsPassEvent pass = new PhysicsPassEvent();
+        pass.begin();
         Rectangle playerBounds = player.getBounds();
         boolean onGround = false;
+        int contacts = 0;
         
         for (int i = 0; i < solidTiles.size(); i++) {
             Rectangle tile = solidTiles.get(i);
             if (playerBounds.overlaps(tile)) {
+                contacts++;
                 float overlapLeft = playerBounds.x + playerBounds.width - tile.x;
                 float overlapRight = tile.x + tile.width - playerBounds.x;
                 float overlapTop = playerBounds.y + playerBounds.height - tile.y;
@@ -62,25 +73,32 @@ public class PhysicsEngine {
         if (!onGround) {
             player.setOnGround(false);
         }
+        commit(pass, playerTerrain, solidTiles.size(), contacts);
     }
     
     public void handlePlayerEnemyCollision(Player player, Level level) {
         if (!player.isActive() || player.getHealth() <= 0) return;
 
-        List<Entity> entities = level.getEntities();
-        for (int i = 0; i < entities.size(); i++) {
-            Entity entity = entities.get(i);
-            if (entity instanceof Enemy && entity.isActive()) {
+        PhysicsPassEvent pass = new PhysicsPassEvent();
+        pass.begin();
+        int candidates = 0;
+        int contacts = 0;
+        List<Entity> enemies = level.getEntityRegistry().getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            Entity entity = enemies.get(i);
+            if (entity.isActive()) {
                 Enemy enemy = (Enemy) entity;
+                candidates++;
                 
                 if (player.collidesWith(entity)) {
+                    contacts++;
                     if (player.getVelocity().y < 0 && 
                         player.getPosition().y > entity.getPosition().y + entity.getHeight() / 2) {
                         if (entity instanceof Goomba) {
                             ((Goomba) entity).stompedByPlayer();
                             player.getVelocity().y = 200f;
                             player.addScore(100);
-                            eventManager.notify(GameEvent.ENEMY_STOMPED, entity);
+                            eventManager.post(GameEvent.ENEMY_STOMPED, entity, 100);
                         }
                     } else if (!player.isInvincible()) {
                         enemy.onPlayerCollision(player);
@@ -95,30 +113,59 @@ public class PhysicsEngine {
                 }
             }
         }
+        commit(pass, playerEnemy, candidates, contacts);
     }
     
     public void handlePlayerCollectibleCollision(Player player, Level level) {
-        List<Entity> entities = level.getEntities();
-        for (int i = 0; i < entities.size(); i++) {
-            Entity entity = entities.get(i);
-            if (entity instanceof Collectible && entity.isActive()) {
+        PhysicsPassEvent pass = new PhysicsPassEvent();
+        pass.begin();
+        int candidates = 0;
+        int contacts = 0;
+        List<Entity> collectibles = level.getEntityRegistry().getCollectibles();
+        for (int i = 0; i < collectibles.size(); i++) {
+            Entity entity = collectibles.get(i);
+            if (entity.isActive()) {
                 Collectible collectible = (Collectible) entity;
+                candidates++;
                 
                 if (collectible.isCollectable() && player.collidesWith(entity)) {
+                    contacts++;
                     collectible.onCollect(player);
                 }
             }
         }
+        commit(pass, playerCollectible, candidates, contacts);
     }
     
-    public void handleEnemyTerrainCollision(Entity enemy, List<Rectangle> solidTiles) {
-        if (!(enemy instanceof Enemy)) return;
+    /** Terrain pass for every active enemy of the level, recorded as one pass. */
+    public void handleEnemyTerrainCollisions(Level level) {
+        PhysicsPassEvent pass = new PhysicsPassEvent();
+        pass.begin();
+        List<Rectangle> solidTiles = level.getSolidTiles();
+        List<Entity> enemies = level.getEntityRegistry().getEnemies();
+        int candidates = 0;
+        int contacts = 0;
+        for (int i = 0; i < enemies.size(); i++) {
+            Entity entity = enemies.get(i);
+            if (entity.isActive()) {
+                candidates += solidTiles.size();
+                contacts += handleEnemyTerrainCollision(entity, solidTiles);
+            }
+        }
+        commit(pass, enemyTerrain, candidates, contacts);
+    }
+    
+    /** Returns the number of tiles the enemy overlapped. */
+    public int handleEnemyTerrainCollision(Entity enemy, List<Rectangle> solidTiles) {
+        if (!(enemy instanceof Enemy)) return 0;
         
         Rectangle enemyBounds = enemy.getBounds();
+        int contacts = 0;
         
         for (int i = 0; i < solidTiles.size(); i++) {
             Rectangle tile = solidTiles.get(i);
             if (enemyBounds.overlaps(tile)) {
+                contacts++;
                 float overlapLeft = enemyBounds.x + enemyBounds.width - tile.x;
                 float overlapRight = tile.x + tile.width - enemyBounds.x;
                 float overlapTop = enemyBounds.y + enemyBounds.height - tile.y;
@@ -148,5 +195,31 @@ public class PhysicsEngine {
                 }
             }
         }
+        return contacts;
+    }
+
+    private static void commit(PhysicsPassEvent event, Pass pass, int candidates, int contacts) {
+        pass.tests.add(candidates);
+        pass.contacts.add(contacts);
+        event.end();
+        if (event.shouldCommit()) {
+            event.pass = pass.name;
+            event.candidates = candidates;
+            event.contacts = contacts;
+            event.commit();
+        }
+    }
+
+    private static final class Pass {
+        private final String name;
+        private final Counter tests;
+        private final Counter contacts;
+
+        Pass(String name) {
+            MetricsRegistry metrics = MetricsRegistry.getInstance();
+            this.name = name;
+            this.tests = metrics.counter("mario_collision_tests_total", "Bounds tested per physics pass", "pass", name);
+            this.contacts = metrics.counter("mario_collision_contacts_total", "Overlaps found per physics pass", "pass", name);
+        }
     }
 }
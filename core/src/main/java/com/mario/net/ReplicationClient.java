@@ -0,0 +1,197 @@
+package com.mario.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * Receives the server's snapshots, acknowledges each one with the camera
+ * rectangle (the server's interest region), and renders
+ * {@link #INTERPOLATION_DELAY} ticks in the past by blending the two
+ * received states around that time, so a late or lost packet does not
+ * make entities stutter.
+ */
+public class ReplicationClient implements Closeable {
+    public static final float INTERPOLATION_DELAY = 2f; // ticks
+    private static final int HISTORY = 64; // received states, the server's baselines among them
+    private static final float SNAP_PIXELS = 64f;
+
+    private final DatagramChannel channel;
+    private final Selector selector;
+    private final ByteBuffer packet = ByteBuffer.allocate(SnapshotCodec.MAX_PACKET);
+    private final ByteBuffer ack = ByteBuffer.allocate(64);
+    private final WorldState[] received = new WorldState[HISTORY];
+    private final WorldState decoded = new WorldState();
+    private final long tickNanos;
+    private WorldState latest;
+    private long latestArrival;
+    private String levelPath;
+    private float cameraX, cameraY, cameraWidth, cameraHeight;
+
+    private long bytesReceived;
+    private long packetsReceived;
+    private long outOfOrder;
+    private long undecodable;
+
+    /** {@code ticksPerSecond} is the server's tick rate, for {@link #interpolate}. */
+    public ReplicationClient(InetSocketAddress server, int ticksPerSecond) throws IOException {
+        channel = DatagramChannel.open();
+        channel.connect(server);
+        channel.configureBlocking(false);
+        selector = Selector.open();
+        channel.register(selector, SelectionKey.OP_READ);
+        tickNanos = 1_000_000_000L / ticksPerSecond;
+        for (int i = 0; i < HISTORY; i++) {
+            received[i] = new WorldState();
+        }
+        sendAck(0); // registers with the server
+    }
+
+    /** Region the server should replicate, in world pixels; sent with the next ack. */
+    public void setCamera(float x, float y, float width, float height) {
+        cameraX = x;
+        cameraY = y;
+        cameraWidth = width;
+        cameraHeight = height;
+    }
+
+    /** Re-sends the last ack; the server forgets a client that stays silent. */
+    public void keepAlive() throws IOException {
+        sendAck(latest != null ? latest.tick : 0);
+    }
+
+    /**
+     * Decodes the snapshots received so far, waiting up to
+     * {@code timeoutMillis} for the first one (0 = no wait). Returns the
+     * number of new states.
+     */
+    public int poll(long timeoutMillis) throws IOException {
+        if (timeoutMillis > 0) {
+            selector.select(timeoutMillis);
+            selector.selectedKeys().clear();
+        }
+        int states = 0;
+        while (true) {
+            packet.clear();
+            if (channel.receive(packet) == null) break;
+            packet.flip();
+            bytesReceived += packet.remaining();
+            packetsReceived++;
+            if (receive(packet)) states++;
+        }
+        return states;
+    }
+
+    private boolean receive(ByteBuffer in) throws IOException {
+        if (in.get(in.position()) != SnapshotCodec.SNAPSHOT) return false;
+        int baselineTick = SnapshotCodec.peekBaseline(in);
+        WorldState baseline = null;
+        if (baselineTick != 0) {
+            baseline = received[baselineTick % HISTORY];
+            if (baseline.tick != baselineTick) {
+                undecodable++; // baseline already overwritten; the server will diff against a newer ack
+                return false;
+            }
+        }
+        String path;
+        try {
+            path = SnapshotCodec.decode(in, baseline, decoded);
+        } catch (IOException | RuntimeException e) {
+            undecodable++;
+            System.err.println("Snapshot illisible: " + e.getMessage());
+            return false;
+        }
+        if (path != null) {
+            // The server sends a full snapshot after a level (re)start, when entity ids start over:
+            // nothing received before may serve as a baseline or be blended with it
+            if (latest != null && decoded.tick <= latest.tick) {
+                outOfOrder++; // late, older than states already received
+                return false;
+            }
+            levelPath = path;
+            for (WorldState state : received) {
+                state.tick = 0;
+            }
+            latest = null;
+        }
+        WorldState slot = received[(int) (decoded.tick % HISTORY)];
+        if (slot.tick > decoded.tick) {
+            outOfOrder++; // older than everything kept
+            return false;
+        }
+        // Stored by tick even when late: the server may diff against it
+        slot.copyFrom(decoded);
+        if (latest == null || slot.tick > latest.tick) {
+            latest = slot;
+            latestArrival = System.nanoTime();
+        } else {
+            outOfOrder++;
+        }
+        sendAck(slot.tick);
+        return true;
+    }
+
+    private void sendAck(long tick) throws IOException {
+        ack.clear();
+        SnapshotCodec.encodeAck(tick, cameraX, cameraY, cameraWidth, cameraHeight, ack);
+        ack.flip();
+        channel.write(ack);
+    }
+
+    /**
+     * Fills {@code out} with the world at {@code renderTick}, blended from
+     * the received states just before and after it (or the closest one).
+     * Returns false before the first snapshot.
+     */
+    public boolean interpolate(double renderTick, WorldState out) {
+        if (latest == null) return false;
+        WorldState from = null;
+        WorldState to = null;
+        for (WorldState state : received) {
+            if (state.tick == 0) continue;
+            if (state.tick <= renderTick) {
+                if (from == null || state.tick > from.tick) from = state;
+            } else if (to == null || state.tick < to.tick) {
+                to = state;
+            }
+        }
+        if (from == null) from = to;
+        if (to == null) to = from;
+        if (from == to) {
+            out.copyFrom(from);
+            return true;
+        }
+        float alpha = (float) ((renderTick - from.tick) / (to.tick - from.tick));
+        out.interpolate(from, to, alpha, SNAP_PIXELS);
+        return true;
+    }
+
+    /** Interpolates at the server's estimated current tick minus {@link #INTERPOLATION_DELAY}. */
+    public boolean interpolate(long nowNanos, WorldState out) {
+        if (latest == null) return false;
+        double serverTick = latest.tick + (nowNanos - latestArrival) / (double) tickNanos;
+        return interpolate(serverTick - INTERPOLATION_DELAY, out);
+    }
+
+    /** Most recent state received, or null. */
+    public WorldState getLatest() { return latest; }
+    /** Level of the last full snapshot, to load the map locally. */
+    public String getLevelPath() { return levelPath; }
+    public long getBytesReceived() { return bytesReceived; }
+    public long getPacketsReceived() { return packetsReceived; }
+
+    public String getReport() {
+        return String.format("Replication client: %d packets, %d bytes, %d out of order, %d undecodable",
+            packetsReceived, bytesReceived, outOfOrder, undecodable);
+    }
+
+    @Override
+    public void close() throws IOException {
+        selector.close();
+        channel.close();
+    }
+}
@@ -0,0 +1,196 @@
+package com.mario.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.mario.model.level.Level;
+
+/**
+ * Sends the world state to the clients over UDP once per tick.
+ *
+ * Each snapshot is a diff against the last state the client acknowledged
+ * (full when it has none, or when that state left the history), holding
+ * only the entities around the client's camera ({@link #INTEREST_MARGIN}
+ * pixels added on each side so entities are known before they scroll in).
+ * Clients register with their first ack and are forgotten after
+ * {@link #CLIENT_TIMEOUT_NANOS} of silence. Call {@link #publish} from the
+ * simulation thread; nothing blocks.
+ */
+public class ReplicationServer implements Closeable {
+    public static final float INTEREST_MARGIN = 64f;
+    private static final int HISTORY = 64; // sent states kept per client, ~1 s at 60 Hz
+    private static final long CLIENT_TIMEOUT_NANOS = 5_000_000_000L;
+
+    private final DatagramChannel channel;
+    private final Map<SocketAddress, Client> clients = new HashMap<>();
+    private final List<SocketAddress> expired = new ArrayList<>();
+    private final ByteBuffer packet = ByteBuffer.allocate(SnapshotCodec.MAX_PACKET);
+    private final WorldState world = new WorldState();
+    private final Rectangle interest = new Rectangle();
+    private final ByteBuffer ack = ByteBuffer.allocate(64);
+    private Level lastLevel;
+
+    private long bytesSent;
+    private long packetsSent;
+    private long fullSnapshots;
+    private long oversized;
+
+    private static final class Client {
+        final WorldState[] sent = new WorldState[HISTORY];
+        long acked; // 0 = nothing usable
+        final Rectangle camera = new Rectangle();
+        long lastHeard;
+
+        Client() {
+            for (int i = 0; i < HISTORY; i++) {
+                sent[i] = new WorldState();
+            }
+        }
+
+        WorldState baseline() {
+            if (acked == 0) return null;
+            WorldState state = sent[(int) (acked % HISTORY)];
+            return state.tick == acked ? state : null;
+        }
+
+        void forget() {
+            acked = 0;
+            for (WorldState state : sent) {
+                state.tick = 0;
+            }
+        }
+    }
+
+    /** Listens on loopback; port 0 picks a free one ({@link #getPort()}). */
+    public ReplicationServer(int port) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    public ReplicationServer(InetSocketAddress address) throws IOException {
+        channel = DatagramChannel.open();
+        channel.bind(address);
+        channel.configureBlocking(false);
+    }
+
+    /**
+     * Reads the pending acks, then sends tick {@code tick} of {@code level}
+     * ({@code levelPath} goes with full snapshots) to every client. Ticks
+     * must increase and start at 1.
+     */
+    public void publish(Level level, String levelPath, long tick) throws IOException {
+        long now = System.nanoTime();
+        receiveAcks(now);
+        if (level != lastLevel) {
+            // Entity ids restart with each level: old baselines mean nothing
+            lastLevel = level;
+            for (Client client : clients.values()) {
+                client.forget();
+            }
+        }
+        if (clients.isEmpty() || level == null) return;
+        world.capture(level, tick);
+
+        expired.clear();
+        for (Map.Entry<SocketAddress, Client> e : clients.entrySet()) {
+            Client client = e.getValue();
+            if (now - client.lastHeard > CLIENT_TIMEOUT_NANOS) {
+                expired.add(e.getKey());
+                continue;
+            }
+            WorldState state = client.sent[(int) (tick % HISTORY)];
+            WorldState baseline = client.baseline();
+            if (baseline == state) baseline = null; // acked HISTORY ticks ago, about to be overwritten
+            if (client.camera.width > 0 && client.camera.height > 0) {
+                interest.set(client.camera.x - INTEREST_MARGIN, client.camera.y - INTEREST_MARGIN,
+                    client.camera.width + 2 * INTEREST_MARGIN, client.camera.height + 2 * INTEREST_MARGIN);
+                state.filter(world, interest);
+            } else {
+                state.copyFrom(world);
+            }
+            packet.clear();
+            try {
+                SnapshotCodec.encode(state, baseline, levelPath, packet);
+            } catch (BufferOverflowException ex) {
+                // Too many entities in view for one datagram; the client keeps its last state
+                state.tick = 0;
+                oversized++;
+                continue;
+            }
+            packet.flip();
+            bytesSent += packet.remaining();
+            packetsSent++;
+            if (baseline == null) fullSnapshots++;
+            channel.send(packet, e.getKey());
+        }
+        for (SocketAddress address : expired) {
+            clients.remove(address);
+            System.out.println("Client de réplication déconnecté: " + address);
+        }
+    }
+
+    /** Reads acks without sending; {@link #publish} does it too. */
+    public void poll() throws IOException {
+        receiveAcks(System.nanoTime());
+    }
+
+    private void receiveAcks(long now) throws IOException {
+        ByteBuffer in = ack;
+        in.clear();
+        SocketAddress from;
+        while ((from = channel.receive(in)) != null) {
+            in.flip();
+            try {
+                if (in.get() == SnapshotCodec.ACK) {
+                    long tick = SnapshotCodec.readVarint(in);
+                    float x = SnapshotCodec.readZigzag(in);
+                    float y = SnapshotCodec.readZigzag(in);
+                    float width = SnapshotCodec.readVarint(in);
+                    float height = SnapshotCodec.readVarint(in);
+                    Client client = clients.get(from);
+                    if (client == null) {
+                        client = new Client();
+                        clients.put(from, client);
+                        System.out.println("Client de réplication connecté: " + from);
+                    }
+                    // Acks can arrive out of order; an older one is still a valid baseline but a worse one
+                    if (tick > client.acked) client.acked = tick;
+                    client.camera.set(x, y, width, height);
+                    client.lastHeard = now;
+                }
+            } catch (RuntimeException e) {
+                System.err.println("Paquet de réplication invalide de " + from + ": " + e);
+            }
+            in.clear();
+        }
+    }
+
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    public int getClientCount() { return clients.size(); }
+    public long getBytesSent() { return bytesSent; }
+    public long getPacketsSent() { return packetsSent; }
+    public long getFullSnapshots() { return fullSnapshots; }
+
+    public String getReport() {
+        return String.format("Replication: %d packets, %d bytes (%.1f bytes/packet), %d full, %d too large for a datagram",
+            packetsSent, bytesSent, packetsSent > 0 ? bytesSent / (double) packetsSent : 0.0, fullSnapshots, oversized);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,252 @@
+package com.mario.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the replication packets. Integers are varints (zigzag
+ * for signed values), so small deltas take one byte.
+ *
+ * <pre>
+ * snapshot  byte SNAPSHOT, varint tick, varint baseline tick (0 = full),
+ *           [full only: str level path]
+ *           zigzag score, health, lives (deltas from the baseline)
+ *           varint removed, { varint id - previous id }
+ *           varint changed, { varint id - previous id, byte mask, fields }
+ *           varint entity count (checked by the decoder)
+ * ack       byte ACK, varint acknowledged tick (0 = none),
+ *           zigzag camera x, y, varint width, height (pixels)
+ * </pre>
+ * A changed entity's mask says which fields follow: NEW (kind, flags,
+ * x, y, width, height, absolute), or any of X/Y (zigzag deltas in
+ * 1/{@value WorldState#SUBPIXELS} pixel), FLAGS, SIZE and KIND (absolute).
+ * Entities unchanged since the baseline are not written at all.
+ */
+public final class SnapshotCodec {
+    public static final byte SNAPSHOT = 1;
+    public static final byte ACK = 2;
+    /** Largest UDP payload. */
+    public static final int MAX_PACKET = 65507;
+
+    private static final int MASK_X = 1;
+    private static final int MASK_Y = 1 << 1;
+    private static final int MASK_FLAGS = 1 << 2;
+    private static final int MASK_SIZE = 1 << 3;
+    private static final int MASK_KIND = 1 << 4;
+    private static final int MASK_NEW = 1 << 7;
+
+    private SnapshotCodec() {
+    }
+
+    /** Writes {@code current} as a diff against {@code baseline} (null for a full snapshot). */
+    public static void encode(WorldState current, WorldState baseline, String levelPath, ByteBuffer out) {
+        out.put(SNAPSHOT);
+        writeVarint(out, (int) current.tick);
+        writeVarint(out, baseline != null ? (int) baseline.tick : 0);
+        if (baseline == null) {
+            writeString(out, levelPath != null ? levelPath : "");
+        }
+        writeZigzag(out, current.score - (baseline != null ? baseline.score : 0));
+        writeZigzag(out, current.health - (baseline != null ? baseline.health : 0));
+        writeZigzag(out, current.lives - (baseline != null ? baseline.lives : 0));
+
+        // Removed: in the baseline, not in the current state (both sorted by id)
+        int removed = 0;
+        int baseCount = baseline != null ? baseline.count : 0;
+        for (int b = 0, c = 0; b < baseCount; b++) {
+            while (c < current.count && current.ids[c] < baseline.ids[b]) c++;
+            if (c == current.count || current.ids[c] != baseline.ids[b]) removed++;
+        }
+        writeVarint(out, removed);
+        int previous = 0;
+        for (int b = 0, c = 0; b < baseCount; b++) {
+            while (c < current.count && current.ids[c] < baseline.ids[b]) c++;
+            if (c == current.count || current.ids[c] != baseline.ids[b]) {
+                writeVarint(out, baseline.ids[b] - previous);
+                previous = baseline.ids[b];
+            }
+        }
+
+        // Changed or new; the count is patched in once known
+        int countPosition = out.position();
+        out.put(new byte[5]);
+        int changed = 0;
+        previous = 0;
+        for (int c = 0, b = 0; c < current.count; c++) {
+            int id = current.ids[c];
+            while (b < baseCount && baseline.ids[b] < id) b++;
+            int mask;
+            if (b < baseCount && baseline.ids[b] == id) {
+                mask = 0;
+                if (current.xs[c] != baseline.xs[b]) mask |= MASK_X;
+                if (current.ys[c] != baseline.ys[b]) mask |= MASK_Y;
+                if (current.flags[c] != baseline.flags[b]) mask |= MASK_FLAGS;
+                if (current.widths[c] != baseline.widths[b] || current.heights[c] != baseline.heights[b]) mask |= MASK_SIZE;
+                if (current.kinds[c] != baseline.kinds[b]) mask |= MASK_KIND;
+                if (mask == 0) continue;
+            } else {
+                mask = MASK_NEW;
+            }
+            changed++;
+            writeVarint(out, id - previous);
+            previous = id;
+            out.put((byte) mask);
+            if (mask == MASK_NEW) {
+                out.put((byte) current.kinds[c]);
+                writeVarint(out, current.flags[c]);
+                writeZigzag(out, current.xs[c]);
+                writeZigzag(out, current.ys[c]);
+                writeVarint(out, current.widths[c]);
+                writeVarint(out, current.heights[c]);
+                continue;
+            }
+            if ((mask & MASK_X) != 0) writeZigzag(out, current.xs[c] - baseline.xs[b]);
+            if ((mask & MASK_Y) != 0) writeZigzag(out, current.ys[c] - baseline.ys[b]);
+            if ((mask & MASK_FLAGS) != 0) writeVarint(out, current.flags[c]);
+            if ((mask & MASK_SIZE) != 0) {
+                writeVarint(out, current.widths[c]);
+                writeVarint(out, current.heights[c]);
+            }
+            if ((mask & MASK_KIND) != 0) out.put((byte) current.kinds[c]);
+        }
+        writePaddedVarint(out, countPosition, changed);
+        writeVarint(out, current.count);
+    }
+
+    /** Tick of the baseline the snapshot in {@code in} was diffed against (0 = full); does not consume. */
+    public static int peekBaseline(ByteBuffer in) {
+        ByteBuffer copy = in.duplicate();
+        copy.get();
+        readVarint(copy);
+        return readVarint(copy);
+    }
+
+    /** Applies the snapshot in {@code in} to {@code baseline} (null for a full one); returns the level path of a full snapshot, else null. */
+    public static String decode(ByteBuffer in, WorldState baseline, WorldState out) throws IOException {
+        if (in.get() != SNAPSHOT) throw new IOException("Not a snapshot packet");
+        out.tick = readVarint(in);
+        int baselineTick = readVarint(in);
+        if ((baselineTick == 0) != (baseline == null) || (baseline != null && baseline.tick != baselineTick)) {
+            throw new IOException("Snapshot " + out.tick + " needs baseline " + baselineTick);
+        }
+        String levelPath = baseline == null ? readString(in) : null;
+        out.score = readZigzag(in) + (baseline != null ? baseline.score : 0);
+        out.health = readZigzag(in) + (baseline != null ? baseline.health : 0);
+        out.lives = readZigzag(in) + (baseline != null ? baseline.lives : 0);
+
+        int removedCount = readVarint(in);
+        int[] removed = new int[removedCount];
+        for (int i = 0, id = 0; i < removedCount; i++) {
+            id += readVarint(in);
+            removed[i] = id;
+        }
+
+        int changedLeft = readVarint(in);
+        int baseCount = baseline != null ? baseline.count : 0;
+        out.count = 0;
+        int b = 0;
+        int r = 0;
+        int changeId = changedLeft > 0 ? readVarint(in) : Integer.MAX_VALUE;
+        while (b < baseCount || changedLeft > 0) {
+            int baseId = b < baseCount ? baseline.ids[b] : Integer.MAX_VALUE;
+            if (baseId < changeId) {
+                // Unchanged unless removed
+                while (r < removedCount && removed[r] < baseId) r++;
+                if (r == removedCount || removed[r] != baseId) {
+                    out.add(baseId, baseline.kinds[b], baseline.flags[b], baseline.xs[b], baseline.ys[b],
+                        baseline.widths[b], baseline.heights[b]);
+                }
+                b++;
+                continue;
+            }
+            int mask = in.get() & 0xFF;
+            if (mask == MASK_NEW) {
+                int kind = in.get();
+                int flags = readVarint(in);
+                int x = readZigzag(in);
+                int y = readZigzag(in);
+                out.add(changeId, kind, flags, x, y, readVarint(in), readVarint(in));
+            } else {
+                if (baseId != changeId) throw new IOException("Delta for entity " + changeId + " missing from baseline");
+                int x = baseline.xs[b] + ((mask & MASK_X) != 0 ? readZigzag(in) : 0);
+                int y = baseline.ys[b] + ((mask & MASK_Y) != 0 ? readZigzag(in) : 0);
+                int flags = (mask & MASK_FLAGS) != 0 ? readVarint(in) : baseline.flags[b];
+                int width = baseline.widths[b];
+                int height = baseline.heights[b];
+                if ((mask & MASK_SIZE) != 0) {
+                    width = readVarint(in);
+                    height = readVarint(in);
+                }
+                int kind = (mask & MASK_KIND) != 0 ? in.get() : baseline.kinds[b];
+                out.add(changeId, kind, flags, x, y, width, height);
+                b++;
+            }
+            changedLeft--;
+            changeId = changedLeft > 0 ? changeId + readVarint(in) : Integer.MAX_VALUE;
+        }
+
+        int expected = readVarint(in);
+        if (expected != out.count) {
+            throw new IOException("Snapshot " + out.tick + " decoded " + out.count + " entities, expected " + expected);
+        }
+        return levelPath;
+    }
+
+    public static void encodeAck(long tick, float cameraX, float cameraY, float cameraWidth, float cameraHeight, ByteBuffer out) {
+        out.put(ACK);
+        writeVarint(out, (int) tick);
+        writeZigzag(out, Math.round(cameraX));
+        writeZigzag(out, Math.round(cameraY));
+        writeVarint(out, Math.max(0, Math.round(cameraWidth)));
+        writeVarint(out, Math.max(0, Math.round(cameraHeight)));
+    }
+
+    static void writeVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /** Five-byte varint at {@code position}, for counts written after their items. */
+    private static void writePaddedVarint(ByteBuffer out, int position, int value) {
+        for (int i = 0; i < 4; i++) {
+            out.put(position + i, (byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put(position + 4, (byte) value);
+    }
+
+    static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    static void writeZigzag(ByteBuffer out, int value) {
+        writeVarint(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readZigzag(ByteBuffer in) {
+        int value = readVarint(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeString(ByteBuffer out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.put(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[readVarint(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
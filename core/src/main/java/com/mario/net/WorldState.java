@@ -0,0 +1,202 @@
+package com.mario.net;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.mario.model.entity.Entity;
+import com.mario.model.entity.Goomba;
+import com.mario.model.entity.Player;
+import com.mario.model.level.Level;
+import com.mario.model.level.LevelBinaryFormat;
+
+/**
+ * Replicated state of one tick, quantized: for each active entity its id,
+ * kind (LevelBinaryFormat spawn code), flags and position in 1/8 pixel,
+ * size in pixels, plus the player's score, health and lives. Entities are
+ * kept sorted by id, which is the order of {@link Level#getEntities()}.
+ * States are reused: {@link #capture}, {@link #copyFrom} and the decoder
+ * overwrite them in place.
+ */
+public class WorldState {
+    public static final int SUBPIXELS = 8;
+
+    public static final int FLAG_FACING_LEFT = 1;
+    public static final int FLAG_JUMPING = 1 << 1;
+    public static final int FLAG_RUNNING = 1 << 2;
+    public static final int FLAG_INVINCIBLE = 1 << 3;
+
+    long tick;
+    int score;
+    int health;
+    int lives;
+    int count;
+    int[] ids = new int[64];
+    int[] kinds = new int[64];
+    int[] flags = new int[64];
+    int[] xs = new int[64]; // 1/SUBPIXELS pixel
+    int[] ys = new int[64];
+    int[] widths = new int[64];
+    int[] heights = new int[64];
+
+    /** Captures the level's active entities. */
+    public void capture(Level level, long tick) {
+        this.tick = tick;
+        this.count = 0;
+        Player player = level.getPlayer();
+        score = player != null ? player.getScore() : 0;
+        health = player != null ? player.getHealth() : 0;
+        lives = player != null ? player.getLives() : 0;
+        List<Entity> entities = level.getEntities();
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            if (!entity.isActive()) continue;
+            add(entity.getId(), LevelBinaryFormat.spawnCode(entity.getType()), flagsOf(entity),
+                quantize(entity.getPosition().x), quantize(entity.getPosition().y),
+                Math.round(entity.getWidth()), Math.round(entity.getHeight()));
+        }
+    }
+
+    private static int flagsOf(Entity entity) {
+        if (entity instanceof Player) {
+            Player player = (Player) entity;
+            int flags = 0;
+            if (!player.isFacingRight()) flags |= FLAG_FACING_LEFT;
+            if (player.isJumping()) flags |= FLAG_JUMPING;
+            if (player.isRunning()) flags |= FLAG_RUNNING;
+            if (player.isInvincible()) flags |= FLAG_INVINCIBLE;
+            return flags;
+        }
+        if (entity instanceof Goomba) {
+            return entity.getVelocity().x < 0 ? FLAG_FACING_LEFT : 0;
+        }
+        return 0;
+    }
+
+    /** Keeps the entities overlapping {@code interest} (in pixels) and the player's. */
+    public void filter(WorldState source, Rectangle interest) {
+        copyHeader(source);
+        count = 0;
+        float left = interest.x * SUBPIXELS;
+        float right = (interest.x + interest.width) * SUBPIXELS;
+        float bottom = interest.y * SUBPIXELS;
+        float top = (interest.y + interest.height) * SUBPIXELS;
+        for (int i = 0; i < source.count; i++) {
+            int x = source.xs[i];
+            int y = source.ys[i];
+            boolean inside = x < right && x + source.widths[i] * SUBPIXELS > left
+                && y < top && y + source.heights[i] * SUBPIXELS > bottom;
+            if (inside || source.kinds[i] == LevelBinaryFormat.SPAWN_PLAYER) {
+                add(source.ids[i], source.kinds[i], source.flags[i], x, y, source.widths[i], source.heights[i]);
+            }
+        }
+    }
+
+    public void copyFrom(WorldState source) {
+        copyHeader(source);
+        count = 0;
+        ensureCapacity(source.count);
+        System.arraycopy(source.ids, 0, ids, 0, source.count);
+        System.arraycopy(source.kinds, 0, kinds, 0, source.count);
+        System.arraycopy(source.flags, 0, flags, 0, source.count);
+        System.arraycopy(source.xs, 0, xs, 0, source.count);
+        System.arraycopy(source.ys, 0, ys, 0, source.count);
+        System.arraycopy(source.widths, 0, widths, 0, source.count);
+        System.arraycopy(source.heights, 0, heights, 0, source.count);
+        count = source.count;
+    }
+
+    /**
+     * Blends two received states, {@code alpha} from 0 ({@code from}) to 1
+     * ({@code to}). Entities only in {@code to} appear at their position,
+     * those only in {@code from} are gone; jumps longer than
+     * {@code snapPixels} (respawn) are not blended.
+     */
+    public void interpolate(WorldState from, WorldState to, float alpha, float snapPixels) {
+        copyHeader(to);
+        count = 0;
+        int snap = quantize(snapPixels);
+        for (int i = 0, f = 0; i < to.count; i++) {
+            int id = to.ids[i];
+            while (f < from.count && from.ids[f] < id) f++;
+            int x = to.xs[i];
+            int y = to.ys[i];
+            if (f < from.count && from.ids[f] == id
+                && Math.abs(x - from.xs[f]) <= snap && Math.abs(y - from.ys[f]) <= snap) {
+                x = from.xs[f] + Math.round((x - from.xs[f]) * alpha);
+                y = from.ys[f] + Math.round((y - from.ys[f]) * alpha);
+            }
+            add(id, to.kinds[i], to.flags[i], x, y, to.widths[i], to.heights[i]);
+        }
+    }
+
+    void copyHeader(WorldState source) {
+        tick = source.tick;
+        score = source.score;
+        health = source.health;
+        lives = source.lives;
+    }
+
+    void add(int id, int kind, int flag, int x, int y, int width, int height) {
+        ensureCapacity(count + 1);
+        int i = count++;
+        ids[i] = id;
+        kinds[i] = kind;
+        flags[i] = flag;
+        xs[i] = x;
+        ys[i] = y;
+        widths[i] = width;
+        heights[i] = height;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= ids.length) return;
+        int size = Math.max(capacity, ids.length * 2);
+        ids = Arrays.copyOf(ids, size);
+        kinds = Arrays.copyOf(kinds, size);
+        flags = Arrays.copyOf(flags, size);
+        xs = Arrays.copyOf(xs, size);
+        ys = Arrays.copyOf(ys, size);
+        widths = Arrays.copyOf(widths, size);
+        heights = Arrays.copyOf(heights, size);
+    }
+
+    /** Index of entity {@code id}, or -1. */
+    public int indexOf(int id) {
+        int index = Arrays.binarySearch(ids, 0, count, id);
+        return index >= 0 ? index : -1;
+    }
+
+    /** Same entities and quantized values (tick aside). */
+    public boolean sameAs(WorldState other) {
+        if (count != other.count || score != other.score || health != other.health || lives != other.lives) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (ids[i] != other.ids[i] || kinds[i] != other.kinds[i] || flags[i] != other.flags[i]
+                || xs[i] != other.xs[i] || ys[i] != other.ys[i]
+                || widths[i] != other.widths[i] || heights[i] != other.heights[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int quantize(float pixels) {
+        return Math.round(pixels * SUBPIXELS);
+    }
+
+    public long getTick() { return tick; }
+    public int getCount() { return count; }
+    public int getScore() { return score; }
+    public int getHealth() { return health; }
+    public int getLives() { return lives; }
+    public int getId(int i) { return ids[i]; }
+    /** Entity type name ("player", "coin", "goomba"...), from the kind code. */
+    public String getType(int i) { return LevelBinaryFormat.spawnType((byte) kinds[i]); }
+    public int getFlags(int i) { return flags[i]; }
+    public float getX(int i) { return xs[i] / (float) SUBPIXELS; }
+    public float getY(int i) { return ys[i] / (float) SUBPIXELS; }
+    public int getWidth(int i) { return widths[i]; }
+    public int getHeight(int i) { return heights[i]; }
+}
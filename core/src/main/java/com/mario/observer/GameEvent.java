@@ -8,5 +8,6 @@ public enum GameEvent {
     PLAYER_JUMP,
     LEVEL_COMPLETED,
     POWERUP_COLLECTED,
-    BLOCK_BROKEN
+    BLOCK_BROKEN,
+    GAME_OVER
 }
@@ -1,5 +1,14 @@
 package com.mario.observer;
 
 public interface GameEventListener {
-    void onGameEvent(GameEvent event, Object data);
+    void onGameEvent(GameEventRecord event);
+
+    /**
+     * Async listeners are called on the event thread instead of the game
+     * thread, with the event's values only: {@link GameEventRecord#getSource()}
+     * is null, since the entity may already be back in its pool.
+     */
+    default boolean isAsync() {
+        return false;
+    }
 }
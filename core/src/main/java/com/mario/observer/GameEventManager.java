@@ -1,19 +1,64 @@
 package com.mario.observer;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+import com.mario.model.entity.Entity;
+import com.mario.profiling.Counter;
+import com.mario.profiling.EventDispatchEvent;
+import com.mario.profiling.Gauge;
+import com.mario.profiling.MetricsRegistry;
+
+/**
+ * Event bus for the simulation. {@link #post} only writes into a
+ * preallocated buffer of reused records; {@link #flush()} dispatches the
+ * whole batch at the end of the tick. Listeners are routed through arrays
+ * indexed by event ordinal and timed individually. Listeners whose
+ * {@link GameEventListener#isAsync()} is true are fed through a
+ * single-producer ring to a daemon thread, with copies of the event values
+ * but not the source entity.
+ */
 public class GameEventManager {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int ASYNC_CAPACITY = 1024;
+    private static final GameEventListener[] NO_LISTENERS = new GameEventListener[0];
+    private static final ListenerStats[] NO_STATS = new ListenerStats[0];
+
     private static GameEventManager instance;
-    private final Map<GameEvent, List<GameEventListener>> listeners;
+
+    private final GameEventListener[][] listeners;
+    private final ListenerStats[][] listenerStats;
+    private final Map<GameEventListener, ListenerStats> statsByListener;
+    private final Counter[] posted;
+    private final Gauge capacity;
+
+    private GameEventRecord[] pending;
+    private int pendingCount;
+    private long sequence;
+    private boolean flushing;
+
+    private AsyncDispatcher asyncDispatcher;
 
     private GameEventManager() {
-        listeners = new HashMap<>();
+        int eventCount = GameEvent.values().length;
+        listeners = new GameEventListener[eventCount][];
+        listenerStats = new ListenerStats[eventCount][];
+        Arrays.fill(listeners, NO_LISTENERS);
+        Arrays.fill(listenerStats, NO_STATS);
+        statsByListener = new IdentityHashMap<>();
+        pending = newRecords(INITIAL_CAPACITY);
+        posted = new Counter[eventCount];
         for (GameEvent event : GameEvent.values()) {
-            listeners.put(event, new ArrayList<>());
+            posted[event.ordinal()] = MetricsRegistry.getInstance()
+                .counter("mario_events_total", "Game events posted per type", "type", event.name());
         }
+        capacity = MetricsRegistry.getInstance().gauge("mario_event_buffer_records", "Preallocated event records");
+        capacity.set(pending.length);
     }
 
     public static GameEventManager getInstance() {
@@ -24,30 +69,228 @@ public class GameEventManager {
     }
 
     public void subscribe(GameEvent event, GameEventListener listener) {
-        List<GameEventListener> eventListeners = listeners.get(event);
-        if (!eventListeners.contains(listener)) {
-            eventListeners.add(listener);
+        int ordinal = event.ordinal();
+        GameEventListener[] current = listeners[ordinal];
+        for (GameEventListener existing : current) {
+            if (existing == listener) return;
+        }
+
+        ListenerStats stats = statsByListener.computeIfAbsent(listener, ListenerStats::new);
+        listeners[ordinal] = Arrays.copyOf(current, current.length + 1);
+        listeners[ordinal][current.length] = listener;
+        listenerStats[ordinal] = Arrays.copyOf(listenerStats[ordinal], current.length + 1);
+        listenerStats[ordinal][current.length] = stats;
+
+        if (listener.isAsync() && asyncDispatcher == null) {
+            asyncDispatcher = new AsyncDispatcher();
         }
     }
 
     public void unsubscribe(GameEvent event, GameEventListener listener) {
-        listeners.get(event).remove(listener);
+        int ordinal = event.ordinal();
+        GameEventListener[] current = listeners[ordinal];
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                listeners[ordinal] = remove(current, i, NO_LISTENERS);
+                listenerStats[ordinal] = remove(listenerStats[ordinal], i, NO_STATS);
+                return;
+            }
+        }
+    }
+
+    public void post(GameEvent event) {
+        post(event, null, 0);
+    }
+
+    public void post(GameEvent event, Entity source) {
+        post(event, source, 0);
+    }
+
+    /** Records the event; listeners run on the next {@link #flush()}. */
+    public void post(GameEvent event, Entity source, int value) {
+        if (pendingCount == pending.length) {
+            grow();
+        }
+        pending[pendingCount++].set(event, source, value, sequence++);
+        posted[event.ordinal()].increment();
+    }
+
+    /** Dispatches every event posted since the last flush. Call once at the end of each tick. */
+    public void flush() {
+        if (flushing || pendingCount == 0) return;
+        flushing = true;
+        EventDispatchEvent dispatch = new EventDispatchEvent();
+        dispatch.begin();
+        int listenerCalls = 0;
+        int asyncOffers = 0;
+        try {
+            // Events posted by listeners during the flush are dispatched in the same batch
+            for (int i = 0; i < pendingCount; i++) {
+                GameEventRecord record = pending[i];
+                int ordinal = record.getType().ordinal();
+                GameEventListener[] eventListeners = listeners[ordinal];
+                ListenerStats[] stats = listenerStats[ordinal];
+                for (int l = 0; l < eventListeners.length; l++) {
+                    GameEventListener listener = eventListeners[l];
+                    if (listener.isAsync()) {
+                        asyncOffers++;
+                        if (!asyncDispatcher.offer(listener, stats[l], record)) {
+                            stats[l].dropped.incrementAndGet();
+                        }
+                    } else {
+                        listenerCalls++;
+                        long start = System.nanoTime();
+                        listener.onGameEvent(record);
+                        stats[l].record(System.nanoTime() - start);
+                    }
+                }
+            }
+            dispatch.end();
+            if (dispatch.shouldCommit()) {
+                dispatch.events = pendingCount;
+                dispatch.listenerCalls = listenerCalls;
+                dispatch.asyncOffers = asyncOffers;
+                dispatch.commit();
+            }
+        } finally {
+            // Even when a listener throws: the batch must not be dispatched again next tick
+            for (int i = 0; i < pendingCount; i++) {
+                pending[i].clear();
+            }
+            pendingCount = 0;
+            flushing = false;
+        }
     }
 
-    public void notify(GameEvent event) {
-        notify(event, null);
+    public int getPendingCount() {
+        return pendingCount;
     }
 
-    public void notify(GameEvent event, Object data) {
-        List<GameEventListener> eventListeners = listeners.get(event);
-        for (int i = 0; i < eventListeners.size(); i++) {
-            eventListeners.get(i).onGameEvent(event, data);
+    /** One line per listener: calls, total/avg/max dispatch time, dropped async events. */
+    public String getStatsReport() {
+        StringBuilder report = new StringBuilder("Event listeners:");
+        for (ListenerStats stats : statsByListener.values()) {
+            long calls = stats.calls.get();
+            long totalNanos = stats.totalNanos.get();
+            report.append(String.format("%n  %-24s calls=%d total=%.2fms avg=%.1fus max=%.1fus dropped=%d",
+                stats.name, calls, totalNanos / 1_000_000.0, calls > 0 ? totalNanos / 1000.0 / calls : 0.0,
+                stats.maxNanos.get() / 1000.0, stats.dropped.get()));
         }
+        return report.toString();
     }
 
     public void clear() {
-        for (GameEvent event : GameEvent.values()) {
-            listeners.get(event).clear();
+        Arrays.fill(listeners, NO_LISTENERS);
+        Arrays.fill(listenerStats, NO_STATS);
+        statsByListener.clear();
+        for (int i = 0; i < pendingCount; i++) {
+            pending[i].clear();
+        }
+        pendingCount = 0;
+    }
+
+    public void dispose() {
+        clear();
+        if (asyncDispatcher != null) {
+            asyncDispatcher.stop();
+            asyncDispatcher = null;
+        }
+    }
+
+    private void grow() {
+        GameEventRecord[] grown = Arrays.copyOf(pending, pending.length * 2);
+        for (int i = pending.length; i < grown.length; i++) {
+            grown[i] = new GameEventRecord();
+        }
+        pending = grown;
+        capacity.set(grown.length);
+    }
+
+    private static GameEventRecord[] newRecords(int count) {
+        GameEventRecord[] records = new GameEventRecord[count];
+        for (int i = 0; i < count; i++) {
+            records[i] = new GameEventRecord();
+        }
+        return records;
+    }
+
+    private static <T> T[] remove(T[] array, int index, T[] empty) {
+        if (array.length == 1) return empty;
+        List<T> list = new ArrayList<>(Arrays.asList(array));
+        list.remove(index);
+        return list.toArray(Arrays.copyOf(empty, list.size()));
+    }
+
+    /** Written by the game thread or, for async listeners, the event thread; read by the report. */
+    private static final class ListenerStats {
+        private final String name;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        ListenerStats(GameEventListener listener) {
+            this.name = listener.getClass().getSimpleName();
+        }
+
+        void record(long nanos) {
+            calls.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /** Single-producer/single-consumer ring of preallocated slots drained by a daemon thread. */
+    private static final class AsyncDispatcher implements Runnable {
+        private final GameEventRecord[] records = newRecords(ASYNC_CAPACITY);
+        private final GameEventListener[] targets = new GameEventListener[ASYNC_CAPACITY];
+        private final ListenerStats[] stats = new ListenerStats[ASYNC_CAPACITY];
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean running = true;
+
+        AsyncDispatcher() {
+            thread = new Thread(this, "game-events");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        boolean offer(GameEventListener listener, ListenerStats listenerStats, GameEventRecord record) {
+            long t = tail.get();
+            if (t - head.get() == ASYNC_CAPACITY) return false;
+            int slot = (int) (t % ASYNC_CAPACITY);
+            records[slot].copyValuesFrom(record);
+            targets[slot] = listener;
+            stats[slot] = listenerStats;
+            tail.lazySet(t + 1);
+            return true;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                long h = head.get();
+                if (h == tail.get()) {
+                    LockSupport.parkNanos(1_000_000L);
+                    continue;
+                }
+                int slot = (int) (h % ASYNC_CAPACITY);
+                long start = System.nanoTime();
+                try {
+                    targets[slot].onGameEvent(records[slot]);
+                } catch (RuntimeException e) {
+                    System.err.println("Async event listener failed: " + e.getMessage());
+                }
+                stats[slot].record(System.nanoTime() - start);
+                records[slot].clear();
+                head.lazySet(h + 1);
+            }
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
         }
     }
 }
@@ -0,0 +1,50 @@
+package com.mario.observer;
+
+import com.mario.model.entity.Entity;
+
+/**
+ * One buffered game event. Records are preallocated by
+ * {@link GameEventManager} and reused every tick, so listeners must copy
+ * anything they want to keep after {@code onGameEvent} returns.
+ */
+public final class GameEventRecord {
+    private GameEvent type;
+    private Entity source;
+    private float x;
+    private float y;
+    private int value;
+    private long sequence;
+
+    void set(GameEvent type, Entity source, int value, long sequence) {
+        this.type = type;
+        this.source = source;
+        this.x = source != null ? source.getPosition().x : 0f;
+        this.y = source != null ? source.getPosition().y : 0f;
+        this.value = value;
+        this.sequence = sequence;
+    }
+
+    /** Copies everything but the source, which is recycled by its pool while the copy is still read. */
+    void copyValuesFrom(GameEventRecord other) {
+        this.type = other.type;
+        this.source = null;
+        this.x = other.x;
+        this.y = other.y;
+        this.value = other.value;
+        this.sequence = other.sequence;
+    }
+
+    void clear() {
+        this.source = null;
+    }
+
+    public GameEvent getType() { return type; }
+    /** Entity that raised the event; may be null, always null for async listeners. */
+    public Entity getSource() { return source; }
+    /** Source position when the event was posted. */
+    public float getX() { return x; }
+    public float getY() { return y; }
+    /** Event specific amount (score, damage...), 0 when unused. */
+    public int getValue() { return value; }
+    public long getSequence() { return sequence; }
+}
@@ -0,0 +1,28 @@
+package com.mario.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mario.Asset")
+@Label("Asset Load/Unload")
+@Category({ "Mario", "Assets" })
+@Description("GameAssetManager loading, registering or unloading a native asset")
+@StackTrace(false)
+public class AssetEvent extends Event {
+    public static final String LOAD = "load";
+    public static final String REGISTER = "register";
+    public static final String UNLOAD = "unload";
+
+    @Label("Path")
+    public String path;
+
+    @Label("Type")
+    public String assetType;
+
+    @Label("Action")
+    public String action;
+}
@@ -0,0 +1,23 @@
+package com.mario.profiling;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Monotonic count, safe to increment from any thread. */
+public class Counter {
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,24 @@
+package com.mario.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mario.EventDispatch")
+@Label("Game Event Dispatch")
+@Category({ "Mario", "Events" })
+@Description("One GameEventManager.flush: events dispatched, synchronous listener calls and async hand-offs")
+@StackTrace(false)
+public class EventDispatchEvent extends Event {
+    @Label("Events")
+    public int events;
+
+    @Label("Listener Calls")
+    public int listenerCalls;
+
+    @Label("Async Offers")
+    public int asyncOffers;
+}
@@ -0,0 +1,26 @@
+package com.mario.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mario.FramePhase")
+@Label("Frame Phase")
+@Category({ "Mario", "Frame" })
+@Description("One phase of GameController.render: pacing, input, update or render")
+@StackTrace(false)
+public class FramePhaseEvent extends Event {
+    public static final String PACING = "pacing";
+    public static final String INPUT = "input";
+    public static final String UPDATE = "update";
+    public static final String RENDER = "render";
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Frame")
+    public long frame;
+}
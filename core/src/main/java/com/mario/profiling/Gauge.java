@@ -0,0 +1,17 @@
+package com.mario.profiling;
+
+/** Last sampled value; set by one thread, read by the exporters. */
+public class Gauge {
+    private volatile double value;
+
+    Gauge() {
+    }
+
+    public void set(double value) {
+        this.value = value;
+    }
+
+    public double get() {
+        return value;
+    }
+}
@@ -0,0 +1,196 @@
+package com.mario.profiling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Input-to-photon latency, from the key event timestamp to the end of the
+ * buffer swap showing its effect.
+ *
+ * A sample starts when InputHandler applies a key event to the player
+ * ({@link #inputApplied}), gets its render time when GameRenderer.render
+ * returns with a snapshot of that tick or a later one
+ * ({@link #frameRendered}) and completes at the start of the next
+ * frame ({@link #framePresented}): the LWJGL3 backend swaps buffers between
+ * two render() calls, so that is the first point after the swap returned.
+ * Results are kept per frame-pacing configuration as fixed-bucket
+ * histograms and can be appended to a CSV file (-Dmario.latency.csv=path)
+ * to compare vsync, frame caps and fixed-step runs. With the simulation
+ * thread on, inputApplied is called from that thread, hence the locks;
+ * a tick applied while the GL thread draws an older snapshot waits for
+ * the frame that shows it.
+ */
+public class LatencyTracker {
+    private static LatencyTracker instance;
+
+    private static final int MAX_PENDING = 32;
+    private static final long BUCKET_NANOS = 50_000L; // 0.05 ms
+    private static final int BUCKETS = 5000;           // up to 250 ms, last bucket is overflow
+
+    private final long[] pendingCapture = new long[MAX_PENDING];
+    private final long[] pendingApplied = new long[MAX_PENDING];
+    private final long[] pendingRendered = new long[MAX_PENDING];
+    private final long[] pendingTick = new long[MAX_PENDING];
+    private final boolean[] pendingDrawn = new boolean[MAX_PENDING];
+    private int pendingCount;
+
+    private final Map<String, Histogram> results = new LinkedHashMap<>();
+    private Histogram current;
+
+    private LatencyTracker() {
+        setConfiguration("default");
+    }
+
+    public static LatencyTracker getInstance() {
+        if (instance == null) {
+            instance = new LatencyTracker();
+        }
+        return instance;
+    }
+
+    /** Label of the frame-pacing setup the following samples belong to (e.g. "vsync, 61 fps cap"). */
+    public synchronized void setConfiguration(String label) {
+        current = results.computeIfAbsent(label, Histogram::new);
+        pendingCount = 0;
+    }
+
+    public String getConfiguration() {
+        return current.label;
+    }
+
+    /** A key event captured at {@code captureNanos} changed the player's state during tick number {@code tick}. */
+    public synchronized void inputApplied(long captureNanos, long tickNanos, long tick) {
+        if (pendingCount == MAX_PENDING) {
+            current.dropped++;
+            return;
+        }
+        pendingCapture[pendingCount] = captureNanos;
+        pendingApplied[pendingCount] = tickNanos;
+        pendingTick[pendingCount] = tick;
+        pendingDrawn[pendingCount] = false;
+        pendingCount++;
+    }
+
+    /** A frame showing the snapshot of tick number {@code renderedTick} has been drawn. */
+    public synchronized void frameRendered(long nowNanos, long renderedTick) {
+        for (int i = 0; i < pendingCount; i++) {
+            if (!pendingDrawn[i] && pendingTick[i] <= renderedTick) {
+                pendingDrawn[i] = true;
+                pendingRendered[i] = nowNanos;
+            }
+        }
+    }
+
+    /** The previous frame's swap has returned; completes every drawn sample. */
+    public synchronized void framePresented(long nowNanos) {
+        int kept = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            if (pendingDrawn[i]) {
+                current.record(pendingCapture[i], pendingApplied[i], pendingRendered[i], nowNanos);
+            } else {
+                pendingCapture[kept] = pendingCapture[i];
+                pendingApplied[kept] = pendingApplied[i];
+                pendingTick[kept] = pendingTick[i];
+                pendingDrawn[kept] = false;
+                kept++;
+            }
+        }
+        pendingCount = kept;
+    }
+
+    public String getReport() {
+        StringBuilder report = new StringBuilder("Input-to-photon latency:");
+        for (Histogram histogram : results.values()) {
+            if (histogram.count == 0) continue;
+            report.append(System.lineSeparator()).append(String.format(
+                "  %-32s n=%d p50=%.2f p90=%.2f p99=%.2f max=%.2f ms (input %.2f + sim/render %.2f + present %.2f)",
+                histogram.label, histogram.count, histogram.percentile(0.50), histogram.percentile(0.90),
+                histogram.percentile(0.99), histogram.max / 1e6, histogram.mean(histogram.inputNanos),
+                histogram.mean(histogram.renderNanos), histogram.mean(histogram.presentNanos)));
+        }
+        return report.toString();
+    }
+
+    /** Appends one row per configuration to {@code path}, writing the header when the file is new. */
+    public void exportCsv(String path) throws IOException {
+        Path file = Paths.get(path);
+        boolean header = !Files.exists(file);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (header) {
+                out.write("configuration,samples,p50_ms,p90_ms,p99_ms,max_ms,mean_input_ms,mean_sim_render_ms,mean_present_ms,dropped\n");
+            }
+            for (Histogram h : results.values()) {
+                if (h.count == 0) continue;
+                out.write(String.format(Locale.ROOT, "\"%s\",%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%d\n",
+                    h.label.replace("\"", "\"\""), h.count, h.percentile(0.50), h.percentile(0.90), h.percentile(0.99),
+                    h.max / 1e6, h.mean(h.inputNanos), h.mean(h.renderNanos), h.mean(h.presentNanos), h.dropped));
+            }
+        }
+    }
+
+    /** Prints the report and, when -Dmario.latency.csv is set, appends it to that file. */
+    public void dispose() {
+        System.out.println(getReport());
+        String csv = System.getProperty("mario.latency.csv");
+        if (csv != null) {
+            try {
+                exportCsv(csv);
+                System.out.println("Latency exported to " + csv);
+            } catch (IOException e) {
+                System.err.println("Latency export failed: " + e.getMessage());
+            }
+        }
+        instance = null;
+    }
+
+    private static final class Histogram {
+        private final String label;
+        private final int[] buckets = new int[BUCKETS];
+        private long count;
+        private long max;
+        private long inputNanos;
+        private long renderNanos;
+        private long presentNanos;
+        private long dropped;
+
+        Histogram(String label) {
+            this.label = label;
+        }
+
+        void record(long capture, long applied, long rendered, long presented) {
+            long total = presented - capture;
+            buckets[(int) Math.min(BUCKETS - 1, Math.max(0, total / BUCKET_NANOS))]++;
+            count++;
+            max = Math.max(max, total);
+            inputNanos += applied - capture;
+            renderNanos += rendered - applied;
+            presentNanos += presented - rendered;
+        }
+
+        /** Upper edge of the bucket holding the given fraction of samples (at most the max), in ms. */
+        double percentile(double fraction) {
+            long target = (long) Math.ceil(count * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= target) {
+                    return Math.min((i + 1) * BUCKET_NANOS, max) / 1e6;
+                }
+            }
+            return max / 1e6;
+        }
+
+        double mean(long totalNanos) {
+            return count == 0 ? 0 : totalNanos / 1e6 / count;
+        }
+    }
+}
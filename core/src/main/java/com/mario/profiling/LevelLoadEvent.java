@@ -0,0 +1,48 @@
+package com.mario.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mario.LevelLoad")
+@Label("Level Load Stage")
+@Category({ "Mario", "Level" })
+@Description("A stage of loading a level: parse (TMX maps include their tilesets), collision (the layer pass"
+    + " building collision spans, spawns and triggers), tilesets or entity spawn")
+@StackTrace(false)
+public class LevelLoadEvent extends Event {
+    public static final String PARSE = "parse";
+    public static final String COLLISION = "collision";
+    public static final String TILESETS = "tilesets";
+    public static final String SPAWN = "spawn";
+
+    @Label("Level")
+    public String level;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Items")
+    @Description("Collision spans, tilesets or entities produced by the stage")
+    public int items;
+
+    /** Starts timing a stage; {@link #finish(int)} commits it if the event is enabled. */
+    public static LevelLoadEvent start(String level, String stage) {
+        LevelLoadEvent event = new LevelLoadEvent();
+        event.level = level;
+        event.stage = stage;
+        event.begin();
+        return event;
+    }
+
+    public void finish(int items) {
+        end();
+        if (shouldCommit()) {
+            this.items = items;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.mario.profiling;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Publishes {@link MetricsRegistry} outside the game, both optional:
+ * -Dmario.metrics.port=9400 serves http://127.0.0.1:9400/metrics in the
+ * Prometheus text format (bound to the loopback interface only), and
+ * -Dmario.metrics.file=metrics.prom rewrites that file every
+ * -Dmario.metrics.interval seconds (default 10) and once more on stop.
+ * Both run on their own daemon threads; the game thread never waits on them.
+ */
+public class MetricsExporter {
+    private final MetricsRegistry registry;
+    private HttpServer server;
+    private ScheduledExecutorService dumper;
+    private Path dumpFile;
+
+    public MetricsExporter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Starts whatever the system properties ask for; returns this. */
+    public MetricsExporter startFromSystemProperties() {
+        Integer port = Integer.getInteger("mario.metrics.port");
+        if (port != null) {
+            try {
+                startServer(port);
+            } catch (IOException e) {
+                System.err.println("Metrics endpoint not started: " + e.getMessage());
+            }
+        }
+        String file = System.getProperty("mario.metrics.file");
+        if (file != null) {
+            startFileDump(Paths.get(file), Integer.getInteger("mario.metrics.interval", 10));
+        }
+        return this;
+    }
+
+    public void startServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = registry.toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "metrics-http")));
+        server.start();
+        System.out.println("Metrics: http://127.0.0.1:" + server.getAddress().getPort() + "/metrics");
+    }
+
+    public void startFileDump(Path file, int intervalSeconds) {
+        dumpFile = file;
+        dumper = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "metrics-dump"));
+        dumper.scheduleAtFixedRate(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        System.out.println("Metrics: writing " + file + " every " + intervalSeconds + " s");
+    }
+
+    /** Writes a temporary file then moves it over the dump, so readers never see half a scrape. */
+    private void dump() {
+        try {
+            Path absolute = dumpFile.toAbsolutePath();
+            Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+            Files.write(temp, registry.toPrometheus().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.err.println("Metrics dump failed: " + e.getMessage());
+        }
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (dumper != null) {
+            dumper.shutdownNow();
+            dumper = null;
+            dump();
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,159 @@
+package com.mario.profiling;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Live engine metrics: counters, gauges and duration histograms, each
+ * optionally split by one label (event type, collision pass...).
+ *
+ * Metrics are created once and kept by the code that records them, so the
+ * hot path never looks anything up; recording is lock-free and cheap
+ * enough to stay on. Gauges reading structures owned by the game thread
+ * (entity lists, the asset manager) are filled by samplers that the game
+ * thread runs from {@link #sample(long)}, never by the exporter threads.
+ * {@link #writePrometheus(StringBuilder)} renders everything in the
+ * Prometheus text format; {@link MetricsExporter} serves and dumps it.
+ */
+public class MetricsRegistry {
+    private static final long SAMPLE_INTERVAL_NANOS = 500_000_000L;
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private static MetricsRegistry instance;
+
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+    private final List<Runnable> samplers = new CopyOnWriteArrayList<>();
+    private long lastSample;
+
+    public static synchronized MetricsRegistry getInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    public Counter counter(String name, String help) {
+        return counter(name, help, null, null);
+    }
+
+    public Counter counter(String name, String help, String label, String value) {
+        return (Counter) family(name, help, "counter", label).child(value, Counter::new);
+    }
+
+    public Gauge gauge(String name, String help) {
+        return gauge(name, help, null, null);
+    }
+
+    public Gauge gauge(String name, String help, String label, String value) {
+        return (Gauge) family(name, help, "gauge", label).child(value, Gauge::new);
+    }
+
+    /** Durations recorded in nanoseconds, exported in seconds: name it {@code *_seconds}. */
+    public Histogram histogram(String name, String help) {
+        return histogram(name, help, null, null);
+    }
+
+    public Histogram histogram(String name, String help, String label, String value) {
+        return (Histogram) family(name, help, "summary", label).child(value, Histogram::new);
+    }
+
+    /** Runs on the game thread at most every 500 ms, from {@link #sample(long)}. */
+    public void addSampler(Runnable sampler) {
+        samplers.add(sampler);
+    }
+
+    public void removeSampler(Runnable sampler) {
+        samplers.remove(sampler);
+    }
+
+    /** Called by the game loop every frame; runs the samplers when they are due. */
+    public void sample(long nowNanos) {
+        if (nowNanos - lastSample < SAMPLE_INTERVAL_NANOS) return;
+        lastSample = nowNanos;
+        for (Runnable sampler : samplers) {
+            sampler.run();
+        }
+    }
+
+    private Family family(String name, String help, String type, String label) {
+        Family family = families.computeIfAbsent(name, key -> new Family(name, help, type, label));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is a " + family.type + ", not a " + type);
+        }
+        return family;
+    }
+
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        writePrometheus(out);
+        return out.toString();
+    }
+
+    public void writePrometheus(StringBuilder out) {
+        for (Family family : families.values()) {
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> child : family.children.entrySet()) {
+                String labels = family.label != null ? family.label + "=\"" + escape(child.getKey()) + "\"" : null;
+                Object metric = child.getValue();
+                if (metric instanceof Counter) {
+                    line(out, family.name, labels, ((Counter) metric).get());
+                } else if (metric instanceof Gauge) {
+                    line(out, family.name, labels, ((Gauge) metric).get());
+                } else {
+                    Histogram histogram = (Histogram) metric;
+                    for (double quantile : QUANTILES) {
+                        String quantileLabel = "quantile=\"" + quantile + "\"";
+                        line(out, family.name, labels != null ? labels + "," + quantileLabel : quantileLabel,
+                            histogram.getQuantile(quantile) / 1e9);
+                    }
+                    line(out, family.name + "_sum", labels, histogram.getSum() / 1e9);
+                    line(out, family.name + "_count", labels, histogram.getCount());
+                }
+            }
+        }
+    }
+
+    private static void line(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class Family {
+        private final String name;
+        private final String help;
+        private final String type;
+        private final String label;
+        private final Map<String, Object> children = new ConcurrentSkipListMap<>();
+
+        Family(String name, String help, String type, String label) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.label = label;
+        }
+
+        Object child(String value, Supplier<Object> factory) {
+            if ((label == null) != (value == null)) {
+                throw new IllegalArgumentException("Metric " + name + (label != null ? " needs a " + label + " label" : " has no label"));
+            }
+            return children.computeIfAbsent(value != null ? value : "", key -> factory.get());
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.mario.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.mario.PhysicsPass")
+@Label("Physics Pass")
+@Category({ "Mario", "Physics" })
+@Description("One PhysicsEngine collision pass with the pairs it tested and the contacts it resolved")
+@StackTrace(false)
+public class PhysicsPassEvent extends Event {
+    public static final String PLAYER_TERRAIN = "player-terrain";
+    public static final String PLAYER_ENEMY = "player-enemy";
+    public static final String PLAYER_COLLECTIBLE = "player-collectible";
+    public static final String ENEMY_TERRAIN = "enemy-terrain";
+
+    @Label("Pass")
+    public String pass;
+
+    @Label("Candidates")
+    public int candidates;
+
+    @Label("Contacts")
+    public int contacts;
+}
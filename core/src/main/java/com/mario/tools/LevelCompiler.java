@@ -0,0 +1,129 @@
+package com.mario.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.mario.model.level.LevelBinaryFormat;
+import com.mario.model.level.LevelBinaryWriter;
+import com.mario.model.level.LevelCatalog;
+import com.mario.model.level.LevelLoader;
+import com.mario.model.level.LevelTemplate;
+import com.mario.model.level.TmxLevelParser;
+
+/**
+ * Compiles TMX/JSON levels into the binary format read by LevelLoader.
+ * Input directories also get their {@link LevelCatalog} written to the
+ * output directory ({@code catalog.json}).
+ *
+ * Usage: LevelCompiler &lt;input file or directory&gt;... &lt;output directory&gt;
+ */
+public class LevelCompiler {
+    private final TmxLevelParser tmxParser = new TmxLevelParser();
+    private final LevelLoader levelLoader = new LevelLoader();
+    private final LevelBinaryWriter writer = new LevelBinaryWriter();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: LevelCompiler <input file or directory>... <output directory>");
+            System.exit(2);
+        }
+
+        File outputDir = new File(args[args.length - 1]);
+        List<File> sources = new ArrayList<>();
+        for (int i = 0; i < args.length - 1; i++) {
+            collectSources(new File(args[i]), sources);
+        }
+        if (sources.isEmpty()) {
+            System.err.println("No .tmx or .json levels found");
+            System.exit(1);
+        }
+
+        LevelCompiler compiler = new LevelCompiler();
+        for (File source : sources) {
+            compiler.compile(source, outputDir);
+        }
+        for (int i = 0; i < args.length - 1; i++) {
+            File input = new File(args[i]);
+            if (input.isDirectory()) {
+                writeCatalog(input, outputDir);
+            }
+        }
+    }
+
+    private static void writeCatalog(File levelsDir, File outputDir) throws IOException {
+        LevelCatalog catalog = LevelCatalog.build(levelsDir, "levels/");
+        File output = new File(outputDir, new File(LevelCatalog.PATH).getName());
+        try (Writer writer = Files.newBufferedWriter(output.toPath(), StandardCharsets.UTF_8)) {
+            catalog.write(writer);
+        }
+        System.out.println("Level catalog: " + output.getName() + " (" + catalog.size() + " levels)");
+        for (LevelCatalog.Entry entry : catalog.getEntries()) {
+            System.out.println("  " + entry);
+        }
+    }
+
+    private static void collectSources(File input, List<File> sources) {
+        if (input.isDirectory()) {
+            File[] files = input.listFiles();
+            if (files == null) return;
+            java.util.Arrays.sort(files);
+            for (File file : files) {
+                if (isLevelSource(file)) {
+                    sources.add(file);
+                }
+            }
+        } else if (isLevelSource(input)) {
+            sources.add(input);
+        }
+    }
+
+    private static boolean isLevelSource(File file) {
+        String name = file.getName();
+        return file.isFile() && (name.endsWith(".tmx") || name.endsWith(".json"));
+    }
+
+    public File compile(File source, File outputDir) throws IOException {
+        long start = System.nanoTime();
+        byte[] sourceBytes = Files.readAllBytes(source.toPath());
+        String levelPath = "levels/" + source.getName();
+
+        LevelTemplate template;
+        if (source.getName().endsWith(".tmx")) {
+            template = tmxParser.parse(levelPath, source);
+        } else {
+            template = levelLoader.parseJsonTemplate(levelPath,
+                new InputStreamReader(new ByteArrayInputStream(sourceBytes), StandardCharsets.UTF_8));
+        }
+
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create output directory: " + outputDir);
+        }
+        File output = new File(outputDir, new File(LevelBinaryFormat.compiledPath(source.getName())).getName());
+        try (OutputStream out = Files.newOutputStream(output.toPath())) {
+            writer.write(template, sha256(sourceBytes), out);
+        }
+
+        System.out.println(String.format("Compiled %s -> %s (%d bytes, %d layers, %d collision spans, %d spawns, %.1f ms)",
+            source.getName(), output.getName(), output.length(), template.getTileLayers().size(),
+            template.getSolidTiles().size(), template.getSpawns().size(), (System.nanoTime() - start) / 1_000_000.0));
+        return output;
+    }
+
+    static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.mario.view;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Turns named animation definitions into an {@link AnimationTable}.
+ *
+ * Each animation gets its integer id in definition order; a still sprite
+ * is a one-frame animation. Frames are source rectangles on a sheet and
+ * durations are converted to whole ticks of
+ * {@link AnimationTable#TICKS_PER_SECOND}. Textures are not touched here:
+ * the table loads a sheet the first time one of its frames is sampled.
+ */
+public class AnimationCompiler {
+    private final String owner;
+    private final List<String> sheets = new ArrayList<>();
+    private final List<Definition> definitions = new ArrayList<>();
+    private int currentSheet = -1;
+
+    /** {@code owner} is the GameAssetManager owner the sheets are acquired under. */
+    public AnimationCompiler(String owner) {
+        this.owner = owner;
+    }
+
+    /** Following definitions take their frames from this sheet. */
+    public AnimationCompiler sheet(String path) {
+        int index = sheets.indexOf(path);
+        if (index < 0) {
+            sheets.add(path);
+            index = sheets.size() - 1;
+        }
+        currentSheet = index;
+        return this;
+    }
+
+    public AnimationCompiler still(String name, int x, int y, int width, int height) {
+        return animation(name, 1f, false, new int[] { x, y, width, height });
+    }
+
+    /** {@code frames} holds x, y, width, height for each frame. */
+    public AnimationCompiler animation(String name, float frameDuration, boolean looping, int[] frames) {
+        if (currentSheet < 0) {
+            throw new IllegalStateException("No sheet selected for animation " + name);
+        }
+        if (frames.length == 0 || frames.length % 4 != 0) {
+            throw new IllegalArgumentException("Animation " + name + " needs x, y, width, height per frame");
+        }
+        for (Definition definition : definitions) {
+            if (definition.name.equals(name)) {
+                throw new IllegalArgumentException("Animation defined twice: " + name);
+            }
+        }
+        int ticks = Math.max(1, Math.round(frameDuration * AnimationTable.TICKS_PER_SECOND));
+        definitions.add(new Definition(name, currentSheet, ticks, looping, frames.clone()));
+        return this;
+    }
+
+    public AnimationTable compile() {
+        int count = definitions.size();
+        String[] names = new String[count];
+        int[] sheetOf = new int[count];
+        int[] first = new int[count];
+        int[] frameCount = new int[count];
+        int[] ticksPerFrame = new int[count];
+        boolean[] looping = new boolean[count];
+
+        int totalFrames = 0;
+        for (Definition definition : definitions) {
+            totalFrames += definition.frames.length / 4;
+        }
+        int[] frameSheet = new int[totalFrames];
+        int[] frameRects = new int[totalFrames * 4];
+
+        int frame = 0;
+        for (int id = 0; id < count; id++) {
+            Definition definition = definitions.get(id);
+            names[id] = definition.name;
+            sheetOf[id] = definition.sheet;
+            first[id] = frame;
+            frameCount[id] = definition.frames.length / 4;
+            ticksPerFrame[id] = definition.ticksPerFrame;
+            looping[id] = definition.looping;
+            System.arraycopy(definition.frames, 0, frameRects, frame * 4, definition.frames.length);
+            for (int f = 0; f < frameCount[id]; f++) {
+                frameSheet[frame + f] = definition.sheet;
+            }
+            frame += frameCount[id];
+        }
+        return new AnimationTable(owner, sheets.toArray(new String[0]), names, sheetOf, first, frameCount,
+            ticksPerFrame, looping, frameSheet, frameRects);
+    }
+
+    private static final class Definition {
+        private final String name;
+        private final int sheet;
+        private final int ticksPerFrame;
+        private final boolean looping;
+        private final int[] frames;
+
+        Definition(String name, int sheet, int ticksPerFrame, boolean looping, int[] frames) {
+            this.name = name;
+            this.sheet = sheet;
+            this.ticksPerFrame = ticksPerFrame;
+            this.looping = looping;
+            this.frames = frames;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.mario.view;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.mario.assets.GameAssetManager;
+
+/**
+ * Compiled animations (see {@link AnimationCompiler}), sampled by integer
+ * id and integer tick from flat arrays.
+ *
+ * Callers resolve names with {@link #id(String)} once, at load; the render
+ * loop then only indexes arrays. Every frame exists twice, facing right
+ * (as drawn on the sheet) and pre-mirrored facing left, so no region is
+ * ever flipped or otherwise changed after it is built. A sheet is loaded
+ * through {@link GameAssetManager} and its regions built the first time one
+ * of its frames is sampled; if it fails to load its frames stay null.
+ */
+public class AnimationTable {
+    public static final int TICKS_PER_SECOND = 60;
+
+    private final String owner;
+    private final String[] sheets;
+    private final boolean[] sheetLoaded;
+
+    private final String[] names;
+    private final int[] sheetOf;
+    private final int[] first;
+    private final int[] frameCount;
+    private final int[] ticksPerFrame;
+    private final boolean[] looping;
+
+    private final int[] frameSheet;
+    private final int[] frameRects; // x, y, width, height per frame
+    private final TextureRegion[] right;
+    private final TextureRegion[] left;
+
+    AnimationTable(String owner, String[] sheets, String[] names, int[] sheetOf, int[] first, int[] frameCount,
+                   int[] ticksPerFrame, boolean[] looping, int[] frameSheet, int[] frameRects) {
+        this.owner = owner;
+        this.sheets = sheets;
+        this.sheetLoaded = new boolean[sheets.length];
+        this.names = names;
+        this.sheetOf = sheetOf;
+        this.first = first;
+        this.frameCount = frameCount;
+        this.ticksPerFrame = ticksPerFrame;
+        this.looping = looping;
+        this.frameSheet = frameSheet;
+        this.frameRects = frameRects;
+        this.right = new TextureRegion[frameSheet.length];
+        this.left = new TextureRegion[frameSheet.length];
+    }
+
+    /** Id of a named animation, or -1; meant for load time, not the render loop. */
+    public int id(String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /** Whole ticks elapsed in an entity's state time. */
+    public static int tickOf(float stateTime) {
+        return (int) (stateTime * TICKS_PER_SECOND);
+    }
+
+    /** Frame of animation {@code id} at {@code tick}; null if the id is -1 or its sheet failed to load. */
+    public TextureRegion frame(int id, int tick, boolean facingLeft) {
+        if (id < 0) return null;
+        if (!sheetLoaded[sheetOf[id]]) {
+            loadSheet(sheetOf[id]);
+        }
+        int index = Math.max(0, tick) / ticksPerFrame[id];
+        int count = frameCount[id];
+        index = looping[id] ? index % count : Math.min(index, count - 1);
+        return (facingLeft ? left : right)[first[id] + index];
+    }
+
+    private void loadSheet(int sheet) {
+        sheetLoaded[sheet] = true;
+        Texture texture;
+        try {
+            texture = GameAssetManager.getInstance().acquire(owner, sheets[sheet], Texture.class);
+        } catch (Exception e) {
+            System.err.println("Failed to load sprite sheet " + sheets[sheet] + ": " + e.getMessage());
+            return;
+        }
+        int built = 0;
+        for (int f = 0; f < frameSheet.length; f++) {
+            if (frameSheet[f] != sheet) continue;
+            int r = f * 4;
+            right[f] = new TextureRegion(texture, frameRects[r], frameRects[r + 1], frameRects[r + 2], frameRects[r + 3]);
+            left[f] = new TextureRegion(right[f]);
+            left[f].flip(true, false);
+            built++;
+        }
+        System.out.println("Loaded " + sheets[sheet] + " (" + built + " frames, mirrored)");
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /** Releases the sheets; the table reloads them if sampled again. */
+    public void dispose() {
+        GameAssetManager.getInstance().release(owner);
+        Arrays.fill(sheetLoaded, false);
+        Arrays.fill(right, null);
+        Arrays.fill(left, null);
+    }
+}
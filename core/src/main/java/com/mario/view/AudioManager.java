@@ -1,27 +1,31 @@
 package com.mario.view;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.audio.Music;
-import com.badlogic.gdx.audio.Sound;
 import com.mario.observer.GameEvent;
 import com.mario.observer.GameEventListener;
 import com.mario.observer.GameEventManager;
+import com.mario.observer.GameEventRecord;
 
 public class AudioManager implements GameEventListener {
+    // OpenAL gives the lwjgl3 backend 16 sources by default; leave room for music
+    private static final int MAX_SFX_VOICES = 12;
+
     private static AudioManager instance;
-    private final Map<String, Sound> sounds;
-    private final Map<String, Music> music;
-    private Music currentMusic;
+    private final MusicPlayer musicPlayer;
+    private final SoundEffectMixer mixer;
+    private final int[] eventSounds;
     private final boolean musicEnabled = true;
     private final boolean soundEnabled = true;
+    // Music changes may come from the simulation thread; MusicPlayer runs them on the GL thread
+    private final ConcurrentLinkedQueue<Runnable> musicCommands = new ConcurrentLinkedQueue<>();
     
     private AudioManager() {
-        this.sounds = new HashMap<>();
-        this.music = new HashMap<>();
+        this.musicPlayer = new MusicPlayer();
+        this.mixer = new SoundEffectMixer(MAX_SFX_VOICES);
+        this.eventSounds = new int[GameEvent.values().length];
         loadAudio();
+        mapEventSounds();
         registerEvents();
     }
     
@@ -42,78 +46,87 @@ public class AudioManager implements GameEventListener {
         eventManager.subscribe(GameEvent.LEVEL_COMPLETED, this);
         eventManager.subscribe(GameEvent.POWERUP_COLLECTED, this);
         eventManager.subscribe(GameEvent.BLOCK_BROKEN, this);
+        eventManager.subscribe(GameEvent.GAME_OVER, this);
+    }
+
+    private void mapEventSounds() {
+        eventSounds[GameEvent.COIN_COLLECTED.ordinal()] = mixer.findId("coin");
+        eventSounds[GameEvent.ENEMY_STOMPED.ordinal()] = mixer.findId("stomp");
+        eventSounds[GameEvent.PLAYER_DAMAGED.ordinal()] = mixer.findId("powerdown");
+        eventSounds[GameEvent.PLAYER_DIED.ordinal()] = mixer.findId("die");
+        eventSounds[GameEvent.PLAYER_JUMP.ordinal()] = mixer.findId("jump");
+        eventSounds[GameEvent.LEVEL_COMPLETED.ordinal()] = mixer.findId("powerup");
+        eventSounds[GameEvent.POWERUP_COLLECTED.ordinal()] = mixer.findId("powerup");
+        eventSounds[GameEvent.BLOCK_BROKEN.ordinal()] = mixer.findId("breakblock");
     }
 
     @Override
-    public void onGameEvent(GameEvent event, Object data) {
-        switch (event) {
-            case COIN_COLLECTED:
-                playSound("coin");
-                break;
-            case ENEMY_STOMPED:
-                playSound("stomp");
-                break;
-            case PLAYER_DAMAGED:
-                playSound("powerdown");
-                break;
-            case PLAYER_DIED:
-                playSound("die");
-                break;
-            case PLAYER_JUMP:
-                playSound("jump");
-                break;
-            case LEVEL_COMPLETED:
-                playSound("powerup");
-                break;
-            case POWERUP_COLLECTED:
-                playSound("powerup");
-                break;
-            case BLOCK_BROKEN:
-                playSound("breakblock");
-                break;
+    public void onGameEvent(GameEventRecord event) {
+        if (event.getType() == GameEvent.GAME_OVER) {
+            stopMusic();
+            return;
         }
+        if (!soundEnabled) return;
+        mixer.request(eventSounds[event.getType().ordinal()], 1.0f);
+    }
+
+    /** Simulation side: queues this tick's sound requests for the GL thread. Call after the event flush. */
+    public void endTick() {
+        mixer.endTick();
+    }
+
+    /** GL side: plays the queued sound effects, applies queued music changes and advances fades. */
+    public void update(float delta) {
+        mixer.update();
+        Runnable command;
+        while ((command = musicCommands.poll()) != null) {
+            command.run();
+        }
+        musicPlayer.update(delta);
     }
     
     private void loadAudio() {
         try {
-            // Load music
-            music.put("main", Gdx.audio.newMusic(Gdx.files.internal("audio/music/mario_music.ogg")));
-            
-            // Load sound effects
-            sounds.put("coin", Gdx.audio.newSound(Gdx.files.internal("audio/sounds/coin.wav")));
-            sounds.put("jump", Gdx.audio.newSound(Gdx.files.internal("audio/sounds/bump.wav")));
-            sounds.put("stomp", Gdx.audio.newSound(Gdx.files.internal("audio/sounds/stomp.wav")));
-            sounds.put("breakblock", Gdx.audio.newSound(Gdx.files.internal("audio/sounds/breakblock.wav")));
-            sounds.put("powerup", Gdx.audio.newSound(Gdx.files.internal("audio/sounds/powerup.wav")));
-            sounds.put("powerup_spawn", Gdx.audio.newSound(Gdx.files.internal("audio/sounds/powerup_spawn.wav")));
-            sounds.put("powerdown", Gdx.audio.newSound(Gdx.files.internal("audio/sounds/powerdown.wav")));
-            sounds.put("die", Gdx.audio.newSound(Gdx.files.internal("audio/sounds/mariodie.wav")));
+            // Register sound effects (priority, max simultaneous instances); loaded by preloadSounds()
+            loadSound("coin", "audio/sounds/coin.wav", 30, 2);
+            loadSound("jump", "audio/sounds/bump.wav", 20, 1);
+            loadSound("stomp", "audio/sounds/stomp.wav", 50, 2);
+            loadSound("breakblock", "audio/sounds/breakblock.wav", 40, 2);
+            loadSound("powerup", "audio/sounds/powerup.wav", 70, 1);
+            loadSound("powerup_spawn", "audio/sounds/powerup_spawn.wav", 60, 1);
+            loadSound("powerdown", "audio/sounds/powerdown.wav", 80, 1);
+            loadSound("die", "audio/sounds/mariodie.wav", 100, 1);
             
-            System.out.println("Audio loaded: " + music.size() + " music tracks, " + sounds.size() + " sound effects");
+            System.out.println("Audio registered: " + mixer.getEffectCount() + " sound effects");
         } catch (Exception e) {
             System.err.println("Error loading audio: " + e.getMessage());
         }
     }
     
-    public void playMusic(String name) {
+    private void loadSound(String name, String path, int priority, int maxInstances) {
+        mixer.register(name, path, priority, maxInstances);
+    }
+    
+    /** GL thread, after the startup pipeline: loads every sound effect so playing one never loads it. */
+    public void preloadSounds() {
+        int loaded = mixer.preload();
+        System.out.println("Audio loaded: " + loaded + "/" + mixer.getEffectCount() + " sound effects");
+    }
+    
+    /** Plays a level's music track (null = default), crossfading from the current one. */
+    public void playLevelMusic(String track) {
         if (!musicEnabled) return;
-        
-        Music newMusic = music.get(name);
-        if (newMusic != null) {
-            if (currentMusic != null) {
-                currentMusic.stop();
-            }
-            currentMusic = newMusic;
-            currentMusic.setLooping(true);
-            currentMusic.setVolume(0.3f);
-            currentMusic.play();
-        }
+        musicCommands.add(() -> musicPlayer.play(track));
+    }
+
+    /** Loads the next level's track in the background so the switch does not stall. */
+    public void prefetchMusic(String track) {
+        if (!musicEnabled) return;
+        musicCommands.add(() -> musicPlayer.prefetch(track));
     }
     
     public void stopMusic() {
-        if (currentMusic != null) {
-            currentMusic.stop();
-        }
+        musicCommands.add(musicPlayer::stop);
     }
     
     public void playSound(String name) {
@@ -123,20 +136,25 @@ public class AudioManager implements GameEventListener {
     public void playSound(String name, float volume) {
         if (!soundEnabled) return;
         
-        Sound sound = sounds.get(name);
-        if (sound != null) {
-            sound.play(volume);
+        mixer.request(mixer.findId(name), volume);
+    }
+
+    public String[] getSoundPaths() {
+        String[] paths = new String[mixer.getEffectCount()];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = mixer.getEffectPath(i);
         }
+        return paths;
+    }
+
+    public SoundEffectMixer getMixer() {
+        return mixer;
     }
     
     public void dispose() {
-        for (Sound sound : sounds.values()) {
-            sound.dispose();
-        }
-        for (Music m : music.values()) {
-            m.dispose();
-        }
-        sounds.clear();
-        music.clear();
+        mixer.stop();
+        System.out.println(mixer.getStatsReport());
+        musicPlayer.dispose();
+        instance = null;
     }
 }
@@ -1,6 +1,8 @@
 package com.mario.view;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
@@ -8,13 +10,12 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.Rectangle;
-import com.mario.model.entity.Coin;
-import com.mario.model.entity.Entity;
-import com.mario.model.entity.Goomba;
-import com.mario.model.entity.Player;
+import com.mario.assets.NativeResourceTracker;
 import com.mario.model.level.Level;
+import com.mario.observer.GameEventManager;
 
 public class GameRenderer {
+    private static final Color SKY = new Color(0.5f, 0.7f, 1.0f, 1.0f); // levels without a background colour
     private final SpriteBatch batch;
     private final ShapeRenderer shapeRenderer;
     private final OrthographicCamera worldCamera;
@@ -22,12 +23,16 @@ public class GameRenderer {
     private final BitmapFont font;
     private final TextureManager textureManager;
     private final TilesetRenderer tilesetRenderer;
-    private final SpriteAnimator spriteAnimator;
+    private final AnimationTable animations;
+    private final int[] spriteAnimations = new int[RenderSnapshot.SPRITE_COUNT];
     private final TiledMapRenderer tiledMapRenderer;
+    private final ParticleSystem particles;
+    private final RenderQueue renderQueue;
     private Level currentLevel;
 
     public GameRenderer() {
-        this.batch = new SpriteBatch();
+        // Large enough that a screen full of particles is submitted in few flushes
+        this.batch = new SpriteBatch(8191);
         this.shapeRenderer = new ShapeRenderer();
         
         this.worldCamera = new OrthographicCamera();
@@ -38,45 +43,105 @@ public class GameRenderer {
         
         this.font = new BitmapFont();
         this.font.setColor(Color.WHITE);
+        NativeResourceTracker.created(batch, "SpriteBatch", null, null);
+        NativeResourceTracker.created(shapeRenderer, "ShapeRenderer", null, null);
+        NativeResourceTracker.created(font, "BitmapFont", null, null);
         this.textureManager = TextureManager.getInstance();
         this.tilesetRenderer = new TilesetRenderer();
-        this.spriteAnimator = new SpriteAnimator();
-        this.tiledMapRenderer = new TiledMapRenderer();
+        this.animations = SpriteAnimator.compile();
+        spriteAnimations[RenderSnapshot.SPRITE_MARIO_STAND] = animations.id("mario_stand");
+        spriteAnimations[RenderSnapshot.SPRITE_MARIO_JUMP] = animations.id("mario_jump");
+        spriteAnimations[RenderSnapshot.SPRITE_MARIO_RUN] = animations.id("mario_run");
+        spriteAnimations[RenderSnapshot.SPRITE_GOOMBA_WALK] = animations.id("goomba_walk");
+        spriteAnimations[RenderSnapshot.SPRITE_COIN] = -1;
+        this.tiledMapRenderer = new TiledMapRenderer(batch);
+        this.renderQueue = new RenderQueue();
+        this.particles = new ParticleSystem();
+        particles.subscribe(GameEventManager.getInstance());
+    }
+
+    /** Advances visual-only effects (and spawns the ones the last ticks asked for); GL thread, once per frame. */
+    public void update(float delta) {
+        particles.update(delta);
     }
     
-    public void render(Level level) {
+    /** Draws a tick captured by the simulation; the snapshot is only read. */
+    public void render(RenderSnapshot snapshot) {
+        Level level = snapshot.getLevel();
+        if (level == null) {
+            clear(SKY);
+            return;
+        }
         if (currentLevel != level) {
             currentLevel = level;
-            tilesetRenderer.loadTilesets(level);
+            particles.clear();
+            if (!level.hasTiledMap()) {
+                tilesetRenderer.loadTilesets(level);
+            }
         }
         
-        if (level.getPlayer() != null) {
-            centerCameraOnPlayer(level.getPlayer(), level);
+        if (snapshot.hasPlayer()) {
+            centerCameraOnPlayer(snapshot, level);
         }
         
         worldCamera.update();
         batch.setProjectionMatrix(worldCamera.combined);
         shapeRenderer.setProjectionMatrix(worldCamera.combined);
+        tiledMapRenderer.setView(level, worldCamera);
+        Color clearColor = tiledMapRenderer.getClearColor(level);
+        clear(clearColor != null ? clearColor : SKY);
+        tiledMapRenderer.renderStatic(level, worldCamera);
         
-        renderTiles(level);
-        renderEntities(level);
+        // World pass: one begin/end, dynamic tile layers first, then the sorted queue and particles
+        submitTiles(level);
+        submitEntities(snapshot);
+        batch.begin();
+        tiledMapRenderer.render(level);
+        renderQueue.flush(batch);
+        particles.draw(batch);
+        batch.end();
+        int worldRenderCalls = batch.renderCalls;
         
         hudCamera.update();
         batch.setProjectionMatrix(hudCamera.combined);
         
-        renderHUD(level);
+        renderHUD(snapshot);
+        renderQueue.endFrame(tiledMapRenderer.getStaticRenderCalls() + worldRenderCalls + batch.renderCalls);
+    }
+    
+    private static void clear(Color color) {
+        Gdx.gl.glClearColor(color.r, color.g, color.b, color.a);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+    }
+    
+    /** Minimal frame shown while the startup pipeline uploads assets. */
+    public void renderLoading(float progress) {
+        clear(SKY);
+        hudCamera.update();
+        shapeRenderer.setProjectionMatrix(hudCamera.combined);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(Color.DARK_GRAY);
+        shapeRenderer.rect(100, 90, 200, 8);
+        shapeRenderer.setColor(Color.WHITE);
+        shapeRenderer.rect(100, 90, 200 * progress, 8);
+        shapeRenderer.end();
+
+        batch.setProjectionMatrix(hudCamera.combined);
+        batch.begin();
+        font.draw(batch, "Chargement...", 100, 115);
+        batch.end();
     }
     
-    private void centerCameraOnPlayer(Player player, Level level) {
-        if (!player.isActive() || player.getLives() <= 0) {
+    private void centerCameraOnPlayer(RenderSnapshot snapshot, Level level) {
+        if (!snapshot.isPlayerAlive()) {
             float halfWidth = worldCamera.viewportWidth / 2;
             float halfHeight = worldCamera.viewportHeight / 2;
             worldCamera.position.set(halfWidth, halfHeight, 0);
             return;
         }
         
-        float targetX = player.getPosition().x + player.getWidth() / 2;
-        float targetY = player.getPosition().y + player.getHeight() / 2;
+        float targetX = snapshot.getCameraTargetX();
+        float targetY = snapshot.getCameraTargetY();
         
         float halfWidth = worldCamera.viewportWidth / 2;
         float halfHeight = worldCamera.viewportHeight / 2;
@@ -87,134 +152,89 @@ public class GameRenderer {
         targetX = Math.max(halfWidth, Math.min(targetX, levelWidth - halfWidth));
         targetY = Math.max(halfHeight, Math.min(targetY, levelHeight - halfHeight));
         
+        // Camera-lock trigger: keep the camera inside its bounds
+        Rectangle cameraLock = snapshot.getCameraLock();
+        if (cameraLock != null) {
+            targetX = clampToLock(targetX, cameraLock.x, cameraLock.width, halfWidth);
+            targetY = clampToLock(targetY, cameraLock.y, cameraLock.height, halfHeight);
+        }
+        
         worldCamera.position.set(targetX, targetY, 0);
     }
     
-    private void renderTiles(Level level) {
-        // Render Tiled map if available
+    private static float clampToLock(float target, float start, float size, float half) {
+        // A lock smaller than the viewport is centered
+        if (size <= half * 2) return start + size / 2;
+        return Math.max(start + half, Math.min(target, start + size - half));
+    }
+    
+    private void submitTiles(Level level) {
+        // Tiled maps are drawn by the tiled map renderer
         if (level.hasTiledMap()) {
-            tiledMapRenderer.render(level, worldCamera);
             return;
         }
         
         // Fallback to old tile rendering for JSON levels
-        batch.begin();
         // Rendre les tiles depuis les tilesets (couche graphique)
-        tilesetRenderer.renderTileLayer(batch, level, "Graphic Layer");
-        // Rendre aussi les tiles procédurales pour les couches de collision si nécessaire
-        Texture groundTexture = textureManager.getTexture("tile_ground");
+        tilesetRenderer.renderTileLayer(renderQueue, level, "Graphic Layer");
         // Rendre les tiles avec textures (fallback pour test)
         if (level.getTilesets() == null || level.getTilesets().isEmpty()) {
+            Texture groundTexture = textureManager.getTexture("tile_ground");
             for (Rectangle tile : level.getSolidTiles()) {
-                if (groundTexture != null) {
-                    batch.draw(groundTexture, tile.x, tile.y, tile.width, tile.height);
-                }
+                renderQueue.submit(RenderQueue.LAYER_TILES, groundTexture, tile.x, tile.y, tile.width, tile.height);
             }
         }
-        
-        batch.end();
     }
     
-    private void renderEntities(Level level) {
-        batch.begin();
-
-        for (Entity entity : level.getEntities()) {
-            if (entity.isActive()) {
-                renderEntity(entity);
-            }
-        }
-        
-        batch.end();
-    }
-    
-    private void renderEntity(Entity entity) {
-        Rectangle bounds = entity.getBounds();
-        
-        if (entity instanceof Player) {
-            renderPlayer((Player) entity, bounds);
-        } else if (entity instanceof Coin) {
-            Texture texture = textureManager.getTexture("coin");
-            if (texture != null) {
-                batch.draw(texture, bounds.x, bounds.y, bounds.width, bounds.height);
+    private void submitEntities(RenderSnapshot snapshot) {
+        for (int i = 0; i < snapshot.getCount(); i++) {
+            int sprite = snapshot.getSprite(i);
+            if (sprite != RenderSnapshot.SPRITE_NONE) {
+                submitSprite(snapshot, i, sprite);
             }
-        } else if (entity instanceof Goomba) {
-            renderGoomba((Goomba) entity, bounds);
         }
     }
     
-    private void renderPlayer(Player player, Rectangle bounds) {
-        // Skip rendering every other frame if invincible (flashing effect)
-        if (player.isInvincible()) {
-            int flashRate = 100; // milliseconds
-            if ((System.currentTimeMillis() / flashRate) % 2 == 0) {
-                return; // Don't render this frame (creates flashing)
-            }
-        }
+    private void submitSprite(RenderSnapshot snapshot, int i, int sprite) {
+        float x = snapshot.getX(i);
+        float y = snapshot.getY(i);
+        float width = snapshot.getWidth(i);
+        float height = snapshot.getHeight(i);
         
-        TextureRegion frame;
-        
-        if (player.isJumping()) {
-            // Jumping sprite
-            frame = spriteAnimator.getStaticSprite("mario_jump");
-        } else if (player.isRunning()) {
-            // Running animation
-            frame = spriteAnimator.getAnimationFrame("mario_run", player.getStateTime(), true);
-        } else {
-            // Standing sprite
-            frame = spriteAnimator.getStaticSprite("mario_stand");
+        if (sprite == RenderSnapshot.SPRITE_COIN) {
+            renderQueue.submit(RenderQueue.LAYER_ITEMS, textureManager.getTexture("coin"), x, y, width, height);
+            return;
         }
         
-        if (frame != null) {
-            // Flip sprite based on direction
-            if (!player.isFacingRight() && !frame.isFlipX()) {
-                frame.flip(true, false);
-            } else if (player.isFacingRight() && frame.isFlipX()) {
-                frame.flip(true, false);
-            }
-            
-            // Scale from 16x16 to 32x32
-            batch.draw(frame, bounds.x, bounds.y, bounds.width, bounds.height);
-        } else {
-            // Fallback to simple texture
-            Texture texture = textureManager.getTexture("player");
-            if (texture != null) {
-                batch.draw(texture, bounds.x, bounds.y, bounds.width, bounds.height);
-            }
-        }
-    }
-    
-    private void renderGoomba(Goomba goomba, Rectangle bounds) {
-        TextureRegion frame = spriteAnimator.getAnimationFrame("goomba_walk", goomba.getStateTime(), true);
+        boolean player = sprite != RenderSnapshot.SPRITE_GOOMBA_WALK;
+        // Left-facing frames are mirrored copies, the sheet regions are never flipped
+        TextureRegion frame = animations.frame(spriteAnimations[sprite], snapshot.getAnimationTick(i), snapshot.isFacingLeft(i));
+        int layer = player ? RenderQueue.LAYER_PLAYER : RenderQueue.LAYER_ENEMIES;
         
         if (frame != null) {
             // Scale from 16x16 to 32x32
-            batch.draw(frame, bounds.x, bounds.y, bounds.width, bounds.height);
+            renderQueue.submit(layer, frame, x, y, width, height, false);
         } else {
             // Fallback to simple texture
-            Texture texture = textureManager.getTexture("goomba");
-            if (texture != null) {
-                batch.draw(texture, bounds.x, bounds.y, bounds.width, bounds.height);
-            }
+            renderQueue.submit(layer, textureManager.getTexture(player ? "player" : "goomba"), x, y, width, height);
         }
     }
     
-    private void renderHUD(Level level) {
+    private void renderHUD(RenderSnapshot snapshot) {
         batch.begin();
         
-        if (level.getPlayer() != null) {
-            Player player = level.getPlayer();
-
+        if (snapshot.hasPlayer()) {
             // Afficher le score (adjusted for 400x208 viewport)
-            font.draw(batch, "Score: " + player.getScore(), 10, 200);
+            font.draw(batch, "Score: " + snapshot.getScore(), 10, 200);
 
             // Afficher la santé
-            font.draw(batch, "Health: " + player.getHealth(), 10, 185);
+            font.draw(batch, "Health: " + snapshot.getHealth(), 10, 185);
 
             // Afficher les vies
-            font.draw(batch, "Lives: " + player.getLives(), 10, 170);
+            font.draw(batch, "Lives: " + snapshot.getLives(), 10, 170);
 
             // Afficher GAME OVER si le joueur est mort
-            if (!player.isActive() || player.getLives() <= 0) {
+            if (!snapshot.isPlayerAlive()) {
                 font.getData().setScale(2f); // Texte plus grand
                 font.setColor(Color.RED);
                 font.draw(batch, "GAME OVER", 120, 120);
@@ -229,12 +249,18 @@ public class GameRenderer {
     }
     
     public void dispose() {
+        NativeResourceTracker.disposed(batch);
+        NativeResourceTracker.disposed(shapeRenderer);
+        NativeResourceTracker.disposed(font);
         batch.dispose();
         shapeRenderer.dispose();
         font.dispose();
         textureManager.dispose();
         tilesetRenderer.dispose();
-        spriteAnimator.dispose();
+        animations.dispose();
+        System.out.println(renderQueue.getStatsReport());
+        System.out.println(particles.getStatsReport());
+        particles.dispose();
         tiledMapRenderer.dispose();
     }
 }
@@ -0,0 +1,496 @@
+package com.mario.view;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.maps.MapLayer;
+import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTile;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.mario.assets.NativeResourceTracker;
+
+/**
+ * Load-time analysis of a Tiled map's tile layers, so that most of the
+ * map is not drawn tile by tile every frame.
+ *
+ * <ul>
+ * <li>Invisible and empty layers are dropped.</li>
+ * <li>The most common tile of the bottom layer, when it is one opaque
+ *     colour (the "Background Color" sky), becomes the clear colour: every
+ *     cell of that colour with only that colour below it is skipped, and a
+ *     layer left without cells is dropped.</li>
+ * <li>A layer left with one solid colour over the whole map becomes a
+ *     single stretched quad per chunk.</li>
+ * <li>The other static layers are baked into {@link SpriteCache} geometry,
+ *     one cache per chunk of one screen width holding every baked layer in
+ *     order; a frame draws the one or two chunks in view.</li>
+ * <li>Layers with animated tiles, and every layer above the first one,
+ *     stay on the tiled map renderer (dynamic). So do visible image
+ *     layers and every tile layer above them, to keep the drawing order
+ *     while the baked layers are drawn first.</li>
+ * </ul>
+ * GL thread only: baking uploads the geometry, and solid colours are read
+ * from the tileset images.
+ */
+public class LayerOptimizer {
+    public enum Decision { DROPPED_INVISIBLE, DROPPED_EMPTY, CLEAR_COLOR, SINGLE_QUAD, BAKED, DYNAMIC }
+
+    private static final int VERTEX_SIZE = 5; // x, y, color, u, v
+    private static final int SPRITE_SIZE = 4 * VERTEX_SIZE;
+    private static final int MAX_CACHED_SPRITES = 8191; // SpriteCache limit with indices
+    private static final int NOT_SOLID = 0; // RGBA8888 colours below are opaque, never 0
+
+    private final Color clearColor;
+    private final List<MapLayer> dynamicLayers;
+    private final SpriteCache cache;
+    private final int[] chunkCaches;
+    private final float chunkWidth;
+    private final String report;
+    private int renderCalls;
+
+    private LayerOptimizer(Color clearColor, List<MapLayer> dynamicLayers, SpriteCache cache,
+                           int[] chunkCaches, float chunkWidth, String report) {
+        this.clearColor = clearColor;
+        this.dynamicLayers = dynamicLayers;
+        this.cache = cache;
+        this.chunkCaches = chunkCaches;
+        this.chunkWidth = chunkWidth;
+        this.report = report;
+    }
+
+    /** Analyses and bakes {@code map}; {@code viewWidth} is the camera width, used as chunk width. */
+    public static LayerOptimizer optimize(TiledMap map, float viewWidth, float viewHeight) {
+        long start = System.nanoTime();
+        List<LayerInfo> layers = new ArrayList<>();
+        boolean aboveImage = false;
+        int images = 0;
+        for (MapLayer layer : map.getLayers()) {
+            if (layer instanceof TiledMapTileLayer) {
+                layers.add(new LayerInfo((TiledMapTileLayer) layer, aboveImage));
+            } else if (isDrawnImage(layer)) {
+                aboveImage = true;
+                images++;
+            }
+        }
+        if (layers.isEmpty()) {
+            return new LayerOptimizer(null, dynamicLayers(map, layers), null, new int[0], viewWidth,
+                "Layers: no tile layers, " + images + " image layers");
+        }
+
+        TiledMapTileLayer first = layers.get(0).layer;
+        int columns = first.getWidth();
+        int rows = first.getHeight();
+        float tileWidth = first.getTileWidth();
+        float tileHeight = first.getTileHeight();
+        SolidColors solids = new SolidColors();
+        try {
+            int clear = classify(layers, columns, rows, solids);
+            int chunkColumns = Math.max(1, (int) (viewWidth / tileWidth));
+            int chunks = (columns + chunkColumns - 1) / chunkColumns;
+
+            int sprites = 0;
+            for (LayerInfo info : layers) {
+                if (info.decision == Decision.SINGLE_QUAD) sprites += chunks;
+                else if (info.decision == Decision.BAKED) sprites += info.kept;
+            }
+            SpriteCache cache = null;
+            int[] chunkCaches = new int[0];
+            if (sprites > MAX_CACHED_SPRITES) {
+                // Too large for one cache: leave the static layers to the tiled map renderer
+                for (LayerInfo info : layers) {
+                    if (info.decision == Decision.SINGLE_QUAD || info.decision == Decision.BAKED) {
+                        info.decision = Decision.DYNAMIC;
+                    }
+                }
+            } else if (sprites > 0) {
+                cache = new SpriteCache(sprites, true);
+                NativeResourceTracker.created(cache, "SpriteCache", null, null);
+                chunkCaches = bake(cache, layers, solids, clear, columns, rows, tileWidth, tileHeight, chunkColumns, chunks);
+            }
+
+            Color clearColor = clear != NOT_SOLID ? new Color(clear) : null;
+            String report = report(layers, images, columns, rows, viewWidth / tileWidth, viewHeight / tileHeight,
+                chunks, chunkCaches.length > 0, (System.nanoTime() - start) / 1_000_000.0);
+            return new LayerOptimizer(clearColor, dynamicLayers(map, layers), cache, chunkCaches, chunkColumns * tileWidth, report);
+        } finally {
+            solids.dispose();
+        }
+    }
+
+    /** Dynamic tile layers and drawn image layers, in map order. */
+    private static List<MapLayer> dynamicLayers(TiledMap map, List<LayerInfo> layers) {
+        List<MapLayer> dynamic = new ArrayList<>();
+        int tileLayer = 0;
+        for (MapLayer layer : map.getLayers()) {
+            if (layer instanceof TiledMapTileLayer) {
+                if (layers.get(tileLayer++).decision == Decision.DYNAMIC) dynamic.add(layer);
+            } else if (isDrawnImage(layer)) {
+                dynamic.add(layer);
+            }
+        }
+        return dynamic;
+    }
+
+    private static boolean isDrawnImage(MapLayer layer) {
+        return layer instanceof TiledMapImageLayer && layer.isVisible() && layer.getOpacity() > 0f
+            && ((TiledMapImageLayer) layer).getTextureRegion() != null;
+    }
+
+    /** Sets each layer's decision and kept cells; returns the clear colour (RGBA8888) or NOT_SOLID. */
+    private static int classify(List<LayerInfo> layers, int columns, int rows, SolidColors solids) {
+        LayerInfo bottom = null;
+        for (LayerInfo info : layers) {
+            TiledMapTileLayer layer = info.layer;
+            if (!layer.isVisible() || layer.getOpacity() <= 0f) {
+                info.decision = Decision.DROPPED_INVISIBLE;
+                continue;
+            }
+            info.cells = countCells(layer, columns, rows);
+            if (info.cells == 0) {
+                info.decision = Decision.DROPPED_EMPTY;
+            } else if (bottom == null) {
+                bottom = info;
+            }
+        }
+
+        int clear = NOT_SOLID;
+        if (bottom != null && bottom.layer.getOpacity() >= 1f) {
+            clear = solids.of(mostCommonTile(bottom.layer, columns, rows));
+        }
+
+        // Cells still showing only the clear colour
+        boolean[] clearBelow = new boolean[columns * rows];
+        Arrays.fill(clearBelow, clear != NOT_SOLID);
+        boolean dynamic = false;
+        for (LayerInfo info : layers) {
+            if (info.decision != null) continue;
+            TiledMapTileLayer layer = info.layer;
+            boolean opaque = layer.getOpacity() >= 1f;
+            dynamic |= info.aboveImage || hasAnimatedTiles(layer, columns, rows);
+            int uniform = NOT_SOLID;
+            boolean mixed = false;
+            for (int row = 0; row < rows; row++) {
+                for (int column = 0; column < columns; column++) {
+                    TiledMapTileLayer.Cell cell = layer.getCell(column, row);
+                    if (cell == null || cell.getTile() == null) continue;
+                    int index = row * columns + column;
+                    int color = solids.of(cell.getTile());
+                    if (opaque && color == clear && clearBelow[index]) {
+                        continue; // same colour as what is already there
+                    }
+                    clearBelow[index] = false;
+                    info.kept++;
+                    if (info.kept == 1) uniform = color;
+                    else if (color != uniform) mixed = true;
+                }
+            }
+
+            if (dynamic) {
+                info.decision = Decision.DYNAMIC;
+            } else if (info.kept == 0) {
+                info.decision = Decision.CLEAR_COLOR;
+            } else if (!mixed && uniform != NOT_SOLID && info.kept == columns * rows) {
+                info.decision = Decision.SINGLE_QUAD;
+                info.quadTile = mostCommonTile(layer, columns, rows);
+            } else {
+                info.decision = Decision.BAKED;
+            }
+        }
+        return clear;
+    }
+
+    /** Writes the quads and baked cells of each chunk into one cache per chunk; returns the cache ids. */
+    private static int[] bake(SpriteCache cache, List<LayerInfo> layers, SolidColors solids, int clear, int columns,
+                              int rows, float tileWidth, float tileHeight, int chunkColumns, int chunks) {
+        int[] ids = new int[chunks];
+        float[] vertices = new float[SPRITE_SIZE];
+        boolean[] clearBelow = new boolean[columns * rows];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int c0 = chunk * chunkColumns;
+            int c1 = Math.min(columns, c0 + chunkColumns);
+            cache.beginCache();
+            Arrays.fill(clearBelow, clear != NOT_SOLID);
+            for (LayerInfo info : layers) {
+                if (info.decision == null || info.decision == Decision.DROPPED_INVISIBLE
+                    || info.decision == Decision.DROPPED_EMPTY) {
+                    continue;
+                }
+                TiledMapTileLayer layer = info.layer;
+                float color = Color.toFloatBits(1f, 1f, 1f, layer.getOpacity());
+                boolean opaque = layer.getOpacity() >= 1f;
+                if (info.decision == Decision.SINGLE_QUAD) {
+                    TextureRegion region = info.quadTile.getTextureRegion();
+                    // Inset by one texel so linear filtering never samples the neighbouring tiles
+                    TextureRegion inner = new TextureRegion(region, 1, 1,
+                        Math.max(1, region.getRegionWidth() - 2), Math.max(1, region.getRegionHeight() - 2));
+                    quad(vertices, c0 * tileWidth, 0, c1 * tileWidth, rows * tileHeight, color, inner, null);
+                    cache.add(inner.getTexture(), vertices, 0, SPRITE_SIZE);
+                    Arrays.fill(clearBelow, false);
+                    continue;
+                }
+                for (int row = 0; row < rows; row++) {
+                    for (int column = c0; column < c1; column++) {
+                        TiledMapTileLayer.Cell cell = layer.getCell(column, row);
+                        if (cell == null || cell.getTile() == null) continue;
+                        int index = row * columns + column;
+                        if (opaque && clearBelow[index] && solids.of(cell.getTile()) == clear) continue;
+                        clearBelow[index] = false;
+                        if (info.decision != Decision.BAKED) continue; // dynamic: drawn by the map renderer
+                        TiledMapTile tile = cell.getTile();
+                        TextureRegion region = tile.getTextureRegion();
+                        float x = column * tileWidth + tile.getOffsetX();
+                        float y = row * tileHeight + tile.getOffsetY();
+                        quad(vertices, x, y, x + region.getRegionWidth(), y + region.getRegionHeight(), color, region, cell);
+                        cache.add(region.getTexture(), vertices, 0, SPRITE_SIZE);
+                    }
+                }
+            }
+            ids[chunk] = cache.endCache();
+        }
+        return ids;
+    }
+
+    /** Same corner order and flip/rotation UV swaps as OrthogonalTiledMapRenderer. */
+    private static void quad(float[] v, float x1, float y1, float x2, float y2, float color,
+                             TextureRegion region, TiledMapTileLayer.Cell cell) {
+        float u1 = region.getU();
+        float v1 = region.getV2();
+        float u2 = region.getU2();
+        float v2 = region.getV();
+        v[0] = x1; v[1] = y1; v[2] = color; v[3] = u1; v[4] = v1;
+        v[5] = x1; v[6] = y2; v[7] = color; v[8] = u1; v[9] = v2;
+        v[10] = x2; v[11] = y2; v[12] = color; v[13] = u2; v[14] = v2;
+        v[15] = x2; v[16] = y1; v[17] = color; v[18] = u2; v[19] = v1;
+        if (cell == null) return;
+        if (cell.getFlipHorizontally()) {
+            swap(v, 3, 13);
+            swap(v, 8, 18);
+        }
+        if (cell.getFlipVertically()) {
+            swap(v, 4, 14);
+            swap(v, 9, 19);
+        }
+        switch (cell.getRotation()) {
+            case TiledMapTileLayer.Cell.ROTATE_90:
+                rotate(v, 4, 9, 14, 19);
+                rotate(v, 3, 8, 13, 18);
+                break;
+            case TiledMapTileLayer.Cell.ROTATE_180:
+                swap(v, 3, 13);
+                swap(v, 8, 18);
+                swap(v, 4, 14);
+                swap(v, 9, 19);
+                break;
+            case TiledMapTileLayer.Cell.ROTATE_270:
+                rotate(v, 4, 19, 14, 9);
+                rotate(v, 3, 18, 13, 8);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void swap(float[] v, int a, int b) {
+        float t = v[a];
+        v[a] = v[b];
+        v[b] = t;
+    }
+
+    /** v[a] = v[b], v[b] = v[c], v[c] = v[d], v[d] = old v[a]. */
+    private static void rotate(float[] v, int a, int b, int c, int d) {
+        float t = v[a];
+        v[a] = v[b];
+        v[b] = v[c];
+        v[c] = v[d];
+        v[d] = t;
+    }
+
+    private static int countCells(TiledMapTileLayer layer, int columns, int rows) {
+        int cells = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                TiledMapTileLayer.Cell cell = layer.getCell(column, row);
+                if (cell != null && cell.getTile() != null) cells++;
+            }
+        }
+        return cells;
+    }
+
+    private static boolean hasAnimatedTiles(TiledMapTileLayer layer, int columns, int rows) {
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                TiledMapTileLayer.Cell cell = layer.getCell(column, row);
+                if (cell != null && cell.getTile() instanceof AnimatedTiledMapTile) return true;
+            }
+        }
+        return false;
+    }
+
+    private static TiledMapTile mostCommonTile(TiledMapTileLayer layer, int columns, int rows) {
+        Map<TiledMapTile, int[]> counts = new IdentityHashMap<>();
+        TiledMapTile best = null;
+        int bestCount = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                TiledMapTileLayer.Cell cell = layer.getCell(column, row);
+                if (cell == null || cell.getTile() == null) continue;
+                int count = ++counts.computeIfAbsent(cell.getTile(), t -> new int[1])[0];
+                if (count > bestCount) {
+                    bestCount = count;
+                    best = cell.getTile();
+                }
+            }
+        }
+        return best;
+    }
+
+    private static String report(List<LayerInfo> layers, int images, int columns, int rows, float viewColumns, float viewRows,
+                                 int chunks, boolean cached, double millis) {
+        // Share of the map in view, to turn cell counts into quads per frame
+        double inView = Math.min(1.0, (viewColumns + 1) / columns) * Math.min(1.0, (viewRows + 1) / rows);
+        double before = 0;
+        double after = 0;
+        StringBuilder out = new StringBuilder();
+        for (LayerInfo info : layers) {
+            before += info.cells * inView;
+            if (info.decision == Decision.DYNAMIC) after += info.cells * inView;
+            out.append(String.format("%n  %-20s %-17s %5d cells, %5d kept", "'" + info.layer.getName() + "'",
+                info.decision, info.cells, info.kept));
+        }
+        int cacheDraws = cached ? Math.min(2, chunks) : 0;
+        return String.format("Layers optimized in %.1f ms: ~%.0f tile quads per frame -> ~%.0f batched + %d cached chunk draws (%d chunks), %d image layers",
+            millis, before, after, cacheDraws, chunks, images) + out;
+    }
+
+    /** Clear colour taking the place of the dropped background, or null. */
+    public Color getClearColor() {
+        return clearColor;
+    }
+
+    /** Layers still drawn through the tiled map renderer (tile and image layers), bottom first. */
+    public List<MapLayer> getDynamicLayers() {
+        return dynamicLayers;
+    }
+
+    /** Draws the chunks in view; call outside batch.begin()/end(), before the dynamic layers. */
+    public void renderStatic(OrthographicCamera camera) {
+        renderCalls = 0;
+        if (cache == null) return;
+        float left = camera.position.x - camera.viewportWidth * camera.zoom / 2;
+        float right = camera.position.x + camera.viewportWidth * camera.zoom / 2;
+        int first = Math.max(0, (int) Math.floor(left / chunkWidth));
+        int last = Math.min(chunkCaches.length - 1, (int) Math.floor(right / chunkWidth));
+        if (first > last) return;
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        cache.setProjectionMatrix(camera.combined);
+        cache.begin();
+        for (int chunk = first; chunk <= last; chunk++) {
+            cache.draw(chunkCaches[chunk]);
+        }
+        cache.end();
+        renderCalls = cache.renderCalls;
+    }
+
+    /** GL draw calls of the last {@link #renderStatic}. */
+    public int getRenderCalls() {
+        return renderCalls;
+    }
+
+    public String getReport() {
+        return report;
+    }
+
+    public void dispose() {
+        if (cache != null) {
+            NativeResourceTracker.disposed(cache);
+            cache.dispose();
+        }
+    }
+
+    private static final class LayerInfo {
+        private final TiledMapTileLayer layer;
+        private final boolean aboveImage; // drawn over an image layer, so never baked
+        private Decision decision;
+        private int cells;
+        private int kept;
+        private TiledMapTile quadTile;
+
+        LayerInfo(TiledMapTileLayer layer, boolean aboveImage) {
+            this.layer = layer;
+            this.aboveImage = aboveImage;
+        }
+    }
+
+    /** Opaque single-colour tiles, read once per tileset texture from its image data. */
+    private static final class SolidColors {
+        private final Map<TiledMapTile, Integer> colors = new IdentityHashMap<>();
+        private final Map<Texture, Pixmap> pixmaps = new IdentityHashMap<>();
+        private final List<Pixmap> owned = new ArrayList<>();
+
+        int of(TiledMapTile tile) {
+            if (tile == null) return NOT_SOLID;
+            Integer color = colors.get(tile);
+            if (color == null) {
+                color = compute(tile);
+                colors.put(tile, color);
+            }
+            return color;
+        }
+
+        private int compute(TiledMapTile tile) {
+            if (tile instanceof AnimatedTiledMapTile) return NOT_SOLID;
+            TextureRegion region = tile.getTextureRegion();
+            Pixmap pixmap = pixmap(region.getTexture());
+            if (pixmap == null) return NOT_SOLID;
+            int x0 = region.getRegionX();
+            int y0 = region.getRegionY();
+            int color = pixmap.getPixel(x0, y0);
+            if ((color & 0xFF) != 0xFF) return NOT_SOLID; // RGBA8888: alpha in the low byte
+            for (int y = y0; y < y0 + region.getRegionHeight(); y++) {
+                for (int x = x0; x < x0 + region.getRegionWidth(); x++) {
+                    if (pixmap.getPixel(x, y) != color) return NOT_SOLID;
+                }
+            }
+            return color;
+        }
+
+        private Pixmap pixmap(Texture texture) {
+            if (pixmaps.containsKey(texture)) return pixmaps.get(texture);
+            Pixmap pixmap = null;
+            TextureData data = texture.getTextureData();
+            try {
+                if (!data.isPrepared()) data.prepare();
+                pixmap = data.consumePixmap();
+                if (data.disposePixmap()) owned.add(pixmap);
+            } catch (RuntimeException e) {
+                // Not readable back (compressed or GL-only data): no solid tiles in it
+                System.err.println("Layer optimizer: tileset pixels unavailable (" + e.getMessage() + ")");
+            }
+            pixmaps.put(texture, pixmap);
+            return pixmap;
+        }
+
+        void dispose() {
+            for (Pixmap pixmap : owned) {
+                pixmap.dispose();
+            }
+            owned.clear();
+        }
+    }
+}
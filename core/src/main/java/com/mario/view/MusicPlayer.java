@@ -0,0 +1,238 @@
+package com.mario.view;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Music;
+import com.badlogic.gdx.files.FileHandle;
+import com.mario.assets.NativeResourceTracker;
+
+/**
+ * Streams one music track per level.
+ *
+ * {@link #prefetch(String)} reads the next track's file on a background
+ * thread; once the bytes are in memory the track is opened and its first
+ * buffers decoded (play + pause at volume 0) during {@link #update(float)}.
+ * {@link #play(String)} then only resumes it and crossfades from the
+ * current track. Tracks that are no longer needed are disposed so their
+ * decoders and buffers are released.
+ */
+public class MusicPlayer {
+    public static final String DEFAULT_TRACK = "audio/music/mario_music.ogg";
+    private static final float VOLUME = 0.3f;
+    private static final float CROSSFADE_SECONDS = 1.0f;
+
+    private final ExecutorService prefetchExecutor;
+    private final Map<String, Future<byte[]>> pendingReads;
+    private final Map<String, Music> primedTracks;
+
+    private String currentPath;
+    private Music current;
+    private Music fadingOut;
+    private float fadeElapsed;
+
+    public MusicPlayer() {
+        this.prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "music-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pendingReads = new HashMap<>();
+        this.primedTracks = new HashMap<>();
+    }
+
+    /** Starts loading a track in the background; other prefetched tracks are released. */
+    public void prefetch(String path) {
+        String track = path != null ? path : DEFAULT_TRACK;
+        releaseUnused(track);
+        if (track.equals(currentPath) || primedTracks.containsKey(track) || pendingReads.containsKey(track)) {
+            return;
+        }
+        pendingReads.put(track, prefetchExecutor.submit(() -> Gdx.files.internal(track).readBytes()));
+        System.out.println("Prefetching music: " + track);
+    }
+
+    /** Switches to the given track (null = default), crossfading from the current one. */
+    public void play(String path) {
+        String track = path != null ? path : DEFAULT_TRACK;
+        if (track.equals(currentPath) && current != null) {
+            if (!current.isPlaying()) {
+                current.setVolume(VOLUME);
+                current.play();
+            }
+            return;
+        }
+
+        Music next = primedTracks.remove(track);
+        if (next == null) {
+            next = open(track);
+            if (next == null) return;
+        }
+        next.setLooping(true);
+
+        if (fadingOut != null) {
+            close(fadingOut);
+            fadingOut = null;
+        }
+        if (current != null && current.isPlaying()) {
+            fadingOut = current;
+            fadeElapsed = 0f;
+            next.setVolume(0f);
+        } else {
+            if (current != null) close(current);
+            next.setVolume(VOLUME);
+        }
+        next.play();
+        current = next;
+        currentPath = track;
+        releaseUnused(track);
+    }
+
+    public void stop() {
+        if (fadingOut != null) {
+            close(fadingOut);
+            fadingOut = null;
+        }
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    /** Advances crossfades and primes tracks whose prefetch finished. Call every frame on the GL thread. */
+    public void update(float delta) {
+        Iterator<Map.Entry<String, Future<byte[]>>> it = pendingReads.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Future<byte[]>> entry = it.next();
+            if (!entry.getValue().isDone()) continue;
+            it.remove();
+            Music music = openPrefetched(entry.getKey(), entry.getValue());
+            if (music != null) {
+                // Decode the first buffers now so play() only has to resume
+                music.setVolume(0f);
+                music.play();
+                music.pause();
+                primedTracks.put(entry.getKey(), music);
+            }
+        }
+
+        if (fadingOut != null) {
+            fadeElapsed += delta;
+            float t = Math.min(1f, fadeElapsed / CROSSFADE_SECONDS);
+            current.setVolume(VOLUME * t);
+            fadingOut.setVolume(VOLUME * (1f - t));
+            if (t >= 1f) {
+                fadingOut.stop();
+                close(fadingOut);
+                fadingOut = null;
+            }
+        }
+    }
+
+    public void dispose() {
+        prefetchExecutor.shutdownNow();
+        pendingReads.clear();
+        for (Music music : primedTracks.values()) {
+            close(music);
+        }
+        primedTracks.clear();
+        if (fadingOut != null) close(fadingOut);
+        if (current != null) close(current);
+        fadingOut = null;
+        current = null;
+        currentPath = null;
+    }
+
+    private Music open(String track) {
+        Future<byte[]> pending = pendingReads.remove(track);
+        if (pending != null) {
+            return openPrefetched(track, pending);
+        }
+        System.out.println("Music not prefetched, opening synchronously: " + track);
+        try {
+            return opened(Gdx.audio.newMusic(Gdx.files.internal(track)), track);
+        } catch (RuntimeException e) {
+            System.err.println("Error loading music " + track + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private Music openPrefetched(String track, Future<byte[]> read) {
+        try {
+            return opened(Gdx.audio.newMusic(new MemoryFileHandle(track, read.get())), track);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            System.err.println("Error prefetching music " + track + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static Music opened(Music music, String track) {
+        NativeResourceTracker.created(music, "Music", track, null);
+        return music;
+    }
+
+    private static void close(Music music) {
+        NativeResourceTracker.disposed(music);
+        music.dispose();
+    }
+
+    private void releaseUnused(String keep) {
+        Iterator<Map.Entry<String, Music>> primed = primedTracks.entrySet().iterator();
+        while (primed.hasNext()) {
+            Map.Entry<String, Music> entry = primed.next();
+            if (!entry.getKey().equals(keep)) {
+                close(entry.getValue());
+                primed.remove();
+            }
+        }
+        Iterator<Map.Entry<String, Future<byte[]>>> pending = pendingReads.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<String, Future<byte[]>> entry = pending.next();
+            if (!entry.getKey().equals(keep)) {
+                entry.getValue().cancel(true);
+                pending.remove();
+            }
+        }
+    }
+
+    /** Music decoders reopen the stream when looping, so each read() starts a new view of the bytes. */
+    private static final class MemoryFileHandle extends FileHandle {
+        private final byte[] data;
+
+        MemoryFileHandle(String path, byte[] data) {
+            super(new File(path), Files.FileType.Internal);
+            this.data = data;
+        }
+
+        @Override
+        public InputStream read() {
+            return new ByteArrayInputStream(data);
+        }
+
+        @Override
+        public byte[] readBytes() {
+            return data.clone();
+        }
+
+        @Override
+        public long length() {
+            return data.length;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+    }
+}
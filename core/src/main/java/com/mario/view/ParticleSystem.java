@@ -0,0 +1,292 @@
+package com.mario.view;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.mario.assets.GameAssetManager;
+import com.mario.model.entity.Entity;
+import com.mario.observer.GameEvent;
+import com.mario.observer.GameEventListener;
+import com.mario.observer.GameEventManager;
+import com.mario.observer.GameEventRecord;
+
+/**
+ * Short-lived visual effects (stomp puffs, brick debris, coin sparkles).
+ *
+ * Particles live in preallocated parallel arrays: {@link #update(float)}
+ * integrates them in one loop and removes dead ones by swapping in the last
+ * live particle. {@link #draw(SpriteBatch)} writes SpriteBatch vertices for
+ * every particle into one array and submits it in a single call against a
+ * small procedural atlas, so drawing never switches texture. Nothing is
+ * allocated after construction; when the pool is full new particles are
+ * dropped.
+ *
+ * Game events may be dispatched on the simulation thread while particles
+ * are drawn on the GL thread, so {@link #onGameEvent} only queues the
+ * effect in a single-producer ring; {@link #update(float)} spawns the
+ * queued effects on the GL thread.
+ */
+public class ParticleSystem implements GameEventListener {
+    public static final int DEFAULT_CAPACITY = 32768;
+
+    private static final String OWNER = "particles";
+    private static final int VERTEX_SIZE = 5; // x, y, color, u, v
+    private static final int SPRITE_SIZE = 4 * VERTEX_SIZE;
+    private static final int ATLAS_WIDTH = 16;
+    private static final int ATLAS_HEIGHT = 8;
+
+    /** Atlas regions: a solid square and a soft dot, 8x8 each. */
+    private static final int SHAPE_SQUARE = 0;
+    private static final int SHAPE_DOT = 1;
+    private static final float[] SHAPE_U = { 0f, 0.5f };
+    private static final float[] SHAPE_U2 = { 0.5f, 1f };
+    private static final int REQUEST_CAPACITY = 256; // power of two
+
+    public enum Preset {
+        // count, speed, spread (rad), upward bias, gravity, life, size, rgb, shape
+        STOMP_PUFF(10, 60f, (float) Math.PI, 30f, 0f, 0.35f, 5f, 0xDDDDDD, SHAPE_DOT),
+        BRICK_DEBRIS(8, 160f, (float) Math.PI / 2, 180f, -900f, 0.9f, 6f, 0x3860B0, SHAPE_SQUARE),
+        COIN_SPARKLE(12, 90f, (float) Math.PI * 2, 0f, 0f, 0.45f, 4f, 0x30D8F8, SHAPE_DOT);
+
+        final int count;
+        final float speed;
+        final float spread;
+        final float upward;
+        final float gravity;
+        final float life;
+        final float size;
+        final int abgr; // SpriteBatch color order, alpha added per frame
+        final int shape;
+
+        Preset(int count, float speed, float spread, float upward, float gravity, float life, float size,
+               int abgr, int shape) {
+            this.count = count;
+            this.speed = speed;
+            this.spread = spread;
+            this.upward = upward;
+            this.gravity = gravity;
+            this.life = life;
+            this.size = size;
+            this.abgr = abgr;
+            this.shape = shape;
+        }
+    }
+
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] vx;
+    private final float[] vy;
+    private final float[] gravity;
+    private final float[] age;
+    private final float[] life;
+    private final float[] size;
+    private final int[] abgr;
+    private final int[] shape;
+    private final float[] vertices;
+    private final Preset[] eventPresets;
+
+    private int count;
+    private int peak;
+    private long emitted;
+    private long dropped;
+    private int seed = 0x2545F491;
+    private Texture atlas;
+
+    // Event thread -> GL thread ring of requested effects
+    private final Preset[] requestPresets = new Preset[REQUEST_CAPACITY];
+    private final float[] requestX = new float[REQUEST_CAPACITY];
+    private final float[] requestY = new float[REQUEST_CAPACITY];
+    private final AtomicLong requestHead = new AtomicLong();
+    private final AtomicLong requestTail = new AtomicLong();
+    private volatile long requestsDropped;
+
+    public ParticleSystem() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ParticleSystem(int capacity) {
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.vx = new float[capacity];
+        this.vy = new float[capacity];
+        this.gravity = new float[capacity];
+        this.age = new float[capacity];
+        this.life = new float[capacity];
+        this.size = new float[capacity];
+        this.abgr = new int[capacity];
+        this.shape = new int[capacity];
+        this.vertices = new float[capacity * SPRITE_SIZE];
+        this.eventPresets = new Preset[GameEvent.values().length];
+        eventPresets[GameEvent.ENEMY_STOMPED.ordinal()] = Preset.STOMP_PUFF;
+        eventPresets[GameEvent.BLOCK_BROKEN.ordinal()] = Preset.BRICK_DEBRIS;
+        eventPresets[GameEvent.COIN_COLLECTED.ordinal()] = Preset.COIN_SPARKLE;
+    }
+
+    public void subscribe(GameEventManager eventManager) {
+        for (GameEvent event : GameEvent.values()) {
+            if (eventPresets[event.ordinal()] != null) {
+                eventManager.subscribe(event, this);
+            }
+        }
+    }
+
+    @Override
+    public void onGameEvent(GameEventRecord event) {
+        Preset preset = eventPresets[event.getType().ordinal()];
+        if (preset == null) return;
+        Entity source = event.getSource();
+        float centerX = event.getX() + (source != null ? source.getWidth() / 2 : 0f);
+        float centerY = event.getY() + (source != null ? source.getHeight() / 2 : 0f);
+        long t = requestTail.get();
+        if (t - requestHead.get() == REQUEST_CAPACITY) {
+            requestsDropped++;
+            return;
+        }
+        int slot = (int) (t & (REQUEST_CAPACITY - 1));
+        requestPresets[slot] = preset;
+        requestX[slot] = centerX;
+        requestY[slot] = centerY;
+        requestTail.lazySet(t + 1); // publishes the slot
+    }
+
+    private void spawnRequested() {
+        long h = requestHead.get();
+        long t = requestTail.get();
+        while (h < t) {
+            int slot = (int) (h & (REQUEST_CAPACITY - 1));
+            emit(requestPresets[slot], requestX[slot], requestY[slot]);
+            h++;
+        }
+        requestHead.lazySet(h);
+    }
+
+    public void emit(Preset preset, float originX, float originY) {
+        for (int n = 0; n < preset.count; n++) {
+            if (count == capacity) {
+                dropped += preset.count - n;
+                break;
+            }
+            int i = count++;
+            float angle = (float) (Math.PI / 2) + (nextFloat() - 0.5f) * preset.spread;
+            float speed = preset.speed * (0.5f + nextFloat() * 0.5f);
+            x[i] = originX;
+            y[i] = originY;
+            vx[i] = (float) Math.cos(angle) * speed;
+            vy[i] = (float) Math.sin(angle) * speed + preset.upward;
+            gravity[i] = preset.gravity;
+            age[i] = 0f;
+            life[i] = preset.life * (0.75f + nextFloat() * 0.5f);
+            size[i] = preset.size;
+            abgr[i] = preset.abgr;
+            shape[i] = preset.shape;
+            emitted++;
+        }
+        if (count > peak) peak = count;
+    }
+
+    public void update(float delta) {
+        spawnRequested();
+        int i = 0;
+        while (i < count) {
+            float a = age[i] + delta;
+            if (a >= life[i]) {
+                // Swap the last live particle into this slot and look at it again
+                int last = --count;
+                x[i] = x[last];
+                y[i] = y[last];
+                vx[i] = vx[last];
+                vy[i] = vy[last];
+                gravity[i] = gravity[last];
+                age[i] = age[last];
+                life[i] = life[last];
+                size[i] = size[last];
+                abgr[i] = abgr[last];
+                shape[i] = shape[last];
+                continue;
+            }
+            age[i] = a;
+            vy[i] += gravity[i] * delta;
+            x[i] += vx[i] * delta;
+            y[i] += vy[i] * delta;
+            i++;
+        }
+    }
+
+    /** Writes one quad per live particle into the vertex array; returns the number of floats written. */
+    public int prepareVertices() {
+        float[] v = vertices;
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            float half = size[i] * 0.5f;
+            float x1 = x[i] - half;
+            float y1 = y[i] - half;
+            float x2 = x[i] + half;
+            float y2 = y[i] + half;
+            int alpha = (int) (255 * (1f - age[i] / life[i]));
+            // Same packing as NumberUtils.intToFloatColor
+            float color = Float.intBitsToFloat(((alpha << 24) | abgr[i]) & 0xfeffffff);
+            float u = SHAPE_U[shape[i]];
+            float u2 = SHAPE_U2[shape[i]];
+
+            v[offset] = x1; v[offset + 1] = y1; v[offset + 2] = color; v[offset + 3] = u; v[offset + 4] = 1f;
+            v[offset + 5] = x1; v[offset + 6] = y2; v[offset + 7] = color; v[offset + 8] = u; v[offset + 9] = 0f;
+            v[offset + 10] = x2; v[offset + 11] = y2; v[offset + 12] = color; v[offset + 13] = u2; v[offset + 14] = 0f;
+            v[offset + 15] = x2; v[offset + 16] = y1; v[offset + 17] = color; v[offset + 18] = u2; v[offset + 19] = 1f;
+            offset += SPRITE_SIZE;
+        }
+        return offset;
+    }
+
+    /** Draws every particle; the batch must already be begun with the world projection. */
+    public void draw(SpriteBatch batch) {
+        if (count == 0) return;
+        if (atlas == null) {
+            atlas = GameAssetManager.getInstance().register(OWNER, "procedural/particles", Texture.class, createAtlas());
+        }
+        batch.draw(atlas, vertices, 0, prepareVertices());
+    }
+
+    private static Texture createAtlas() {
+        Pixmap pixmap = new Pixmap(ATLAS_WIDTH, ATLAS_HEIGHT, Pixmap.Format.RGBA8888);
+        pixmap.setColor(Color.WHITE);
+        pixmap.fillRectangle(0, 0, 8, 8);
+        pixmap.fillCircle(12, 4, 3);
+        Texture texture = new Texture(pixmap);
+        pixmap.dispose();
+        return texture;
+    }
+
+    /** xorshift32: cheap and allocation-free. */
+    private float nextFloat() {
+        int s = seed;
+        s ^= s << 13;
+        s ^= s >>> 17;
+        s ^= s << 5;
+        seed = s;
+        return (s >>> 8) * (1f / (1 << 24));
+    }
+
+    /** Drops live particles and effects still queued (level change). */
+    public void clear() {
+        count = 0;
+        requestHead.lazySet(requestTail.get());
+    }
+
+    public int getCount() { return count; }
+    public int getCapacity() { return capacity; }
+
+    public String getStatsReport() {
+        return String.format("Particles: live=%d peak=%d/%d emitted=%d dropped=%d", count, peak, capacity, emitted, dropped + requestsDropped);
+    }
+
+    public void dispose() {
+        GameAssetManager.getInstance().release(OWNER);
+        atlas = null;
+        count = 0;
+    }
+}
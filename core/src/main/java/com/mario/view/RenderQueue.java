@@ -0,0 +1,173 @@
+package com.mario.view;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+
+/**
+ * Draw commands of one frame (texture, UVs, position, size, layer, flip),
+ * submitted in any order and drawn by {@link #flush(Batch)} sorted by
+ * layer, then texture, then submission order. Each run of commands
+ * sharing a texture is written into one vertex array and handed to the
+ * batch in a single draw call, so the batch only switches texture between
+ * runs. Flipping only swaps the command's UVs; shared TextureRegions are
+ * never mutated. Arrays grow as needed and are reused between frames.
+ */
+public class RenderQueue {
+    public static final int LAYER_TILES = 0;
+    public static final int LAYER_ITEMS = 1;
+    public static final int LAYER_ENEMIES = 2;
+    public static final int LAYER_PLAYER = 3;
+
+    private static final int SPRITE_SIZE = 20; // 4 vertices of x, y, color, u, v
+    private static final int INDEX_BITS = 32;
+    private static final int TEXTURE_BITS = 16;
+
+    private Texture[] commandTextures;
+    private float[] commandData; // x, y, width, height, left u, bottom v, right u, top v
+    private long[] keys;
+    private int count;
+
+    // Textures seen this frame; the index is the texture part of the sort key
+    private Texture[] textures = new Texture[16];
+    private int textureCount;
+
+    private float[] vertices = new float[SPRITE_SIZE * 256];
+
+    private long frames;
+    private long sprites;
+    private long runs;
+    private long renderCalls;
+    private int peak;
+
+    public RenderQueue() {
+        this(1024);
+    }
+
+    public RenderQueue(int initialCapacity) {
+        this.commandTextures = new Texture[initialCapacity];
+        this.commandData = new float[initialCapacity * 8];
+        this.keys = new long[initialCapacity];
+    }
+
+    public void submit(int layer, TextureRegion region, float x, float y, float width, float height, boolean flipX) {
+        float left = region.getU();
+        float right = region.getU2();
+        if (flipX) {
+            float swap = left;
+            left = right;
+            right = swap;
+        }
+        add(layer, region.getTexture(), x, y, width, height, left, region.getV2(), right, region.getV());
+    }
+
+    public void submit(int layer, Texture texture, float x, float y, float width, float height) {
+        add(layer, texture, x, y, width, height, 0f, 1f, 1f, 0f);
+    }
+
+    private void add(int layer, Texture texture, float x, float y, float width, float height,
+                     float left, float bottom, float right, float top) {
+        if (texture == null) return;
+        if (count == keys.length) {
+            grow();
+        }
+        int i = count++;
+        commandTextures[i] = texture;
+        int d = i * 8;
+        commandData[d] = x;
+        commandData[d + 1] = y;
+        commandData[d + 2] = width;
+        commandData[d + 3] = height;
+        commandData[d + 4] = left;
+        commandData[d + 5] = bottom;
+        commandData[d + 6] = right;
+        commandData[d + 7] = top;
+        keys[i] = ((long) layer << (INDEX_BITS + TEXTURE_BITS)) | ((long) textureIndex(texture) << INDEX_BITS) | i;
+    }
+
+    private int textureIndex(Texture texture) {
+        for (int t = 0; t < textureCount; t++) {
+            if (textures[t] == texture) return t;
+        }
+        if (textureCount == textures.length) {
+            textures = Arrays.copyOf(textures, textureCount * 2);
+        }
+        textures[textureCount] = texture;
+        return textureCount++;
+    }
+
+    private void grow() {
+        int capacity = keys.length * 2;
+        commandTextures = Arrays.copyOf(commandTextures, capacity);
+        commandData = Arrays.copyOf(commandData, capacity * 8);
+        keys = Arrays.copyOf(keys, capacity);
+    }
+
+    /** Draws every queued command into the begun batch and empties the queue. */
+    public void flush(Batch batch) {
+        Arrays.sort(keys, 0, count);
+        float color = batch.getPackedColor();
+        int start = 0;
+        while (start < count) {
+            Texture texture = commandTextures[(int) keys[start]];
+            int end = start + 1;
+            while (end < count && commandTextures[(int) keys[end]] == texture) {
+                end++;
+            }
+            int floats = writeRun(start, end, color);
+            batch.draw(texture, vertices, 0, floats);
+            runs++;
+            start = end;
+        }
+
+        sprites += count;
+        peak = Math.max(peak, count);
+        Arrays.fill(commandTextures, 0, count, null);
+        Arrays.fill(textures, 0, textureCount, null);
+        count = 0;
+        textureCount = 0;
+    }
+
+    private int writeRun(int start, int end, float color) {
+        int floats = (end - start) * SPRITE_SIZE;
+        if (vertices.length < floats) {
+            vertices = new float[Math.max(floats, vertices.length * 2)];
+        }
+        float[] v = vertices;
+        int o = 0;
+        for (int k = start; k < end; k++) {
+            int d = (int) keys[k] * 8;
+            float x1 = commandData[d];
+            float y1 = commandData[d + 1];
+            float x2 = x1 + commandData[d + 2];
+            float y2 = y1 + commandData[d + 3];
+            float left = commandData[d + 4];
+            float bottom = commandData[d + 5];
+            float right = commandData[d + 6];
+            float top = commandData[d + 7];
+
+            v[o] = x1; v[o + 1] = y1; v[o + 2] = color; v[o + 3] = left; v[o + 4] = bottom;
+            v[o + 5] = x1; v[o + 6] = y2; v[o + 7] = color; v[o + 8] = left; v[o + 9] = top;
+            v[o + 10] = x2; v[o + 11] = y2; v[o + 12] = color; v[o + 13] = right; v[o + 14] = top;
+            v[o + 15] = x2; v[o + 16] = y1; v[o + 17] = color; v[o + 18] = right; v[o + 19] = bottom;
+            o += SPRITE_SIZE;
+        }
+        return floats;
+    }
+
+    /** Counts the batch's GPU draw calls for the frame (SpriteBatch.renderCalls after end()). */
+    public void endFrame(int batchRenderCalls) {
+        frames++;
+        renderCalls += batchRenderCalls;
+    }
+
+    public int size() { return count; }
+
+    public String getStatsReport() {
+        if (frames == 0) return "Render queue: no frames";
+        return String.format("Render queue: per frame %.1f sprites, %.1f texture runs, %.1f render calls (peak %d sprites)",
+            sprites / (double) frames, runs / (double) frames, renderCalls / (double) frames, peak);
+    }
+}
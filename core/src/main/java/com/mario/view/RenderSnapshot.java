@@ -0,0 +1,177 @@
+package com.mario.view;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.mario.model.entity.Coin;
+import com.mario.model.entity.Entity;
+import com.mario.model.entity.Goomba;
+import com.mario.model.entity.Player;
+import com.mario.model.level.EntityRegistry;
+import com.mario.model.level.Level;
+
+/**
+ * Everything {@link GameRenderer} needs to draw one simulation tick:
+ * a sprite id, animation tick, bounds and facing per active entity, the
+ * camera target and lock, and the HUD values. {@link #capture} copies them
+ * out of the level so the renderer never touches live entities; the level
+ * itself is only kept for its static data (tile layers, Tiled map, size).
+ * Snapshots are recycled through a triple buffer: one is only written by
+ * capture() and is not changed while the renderer holds it.
+ */
+public class RenderSnapshot {
+    public static final int SPRITE_NONE = -1; // counted, not drawn
+    public static final int SPRITE_MARIO_STAND = 0;
+    public static final int SPRITE_MARIO_JUMP = 1;
+    public static final int SPRITE_MARIO_RUN = 2;
+    public static final int SPRITE_GOOMBA_WALK = 3;
+    public static final int SPRITE_COIN = 4;
+    public static final int SPRITE_COUNT = 5;
+
+    private static final long FLASH_MILLIS = 100;
+
+    private Level level;
+    private long tick;
+
+    private int count;
+    private Class<?>[] types = new Class<?>[64];
+    private int[] sprites = new int[64];
+    private int[] animationTicks = new int[64];
+    private float[] bounds = new float[64 * 4];
+    private boolean[] facingLeft = new boolean[64];
+
+    private boolean hasPlayer;
+    private boolean playerAlive;
+    private float cameraTargetX;
+    private float cameraTargetY;
+    private int score;
+    private int health;
+    private int lives;
+
+    private boolean cameraLocked;
+    private final Rectangle cameraLock = new Rectangle();
+
+    /** Copies the level's drawable state; {@code lock} is the active camera-lock trigger or null. */
+    public void capture(Level level, Rectangle lock, long tick) {
+        this.level = level;
+        this.tick = tick;
+        this.count = 0;
+        this.hasPlayer = false;
+        this.cameraLocked = lock != null;
+        if (lock != null) {
+            cameraLock.set(lock);
+        }
+        if (level == null) return;
+
+        long now = System.currentTimeMillis();
+        EntityRegistry entities = level.getEntityRegistry();
+        Player player = level.getPlayer();
+        if (player != null && player.isActive()) {
+            addPlayer(player, now);
+        }
+        List<Goomba> goombas = entities.getGoombas();
+        for (int i = 0; i < goombas.size(); i++) {
+            Goomba goomba = goombas.get(i);
+            if (goomba.isActive()) {
+                add(goomba, SPRITE_GOOMBA_WALK, AnimationTable.tickOf(goomba.getStateTime()), false);
+            }
+        }
+        List<Coin> coins = entities.getCoins();
+        for (int i = 0; i < coins.size(); i++) {
+            Coin coin = coins.get(i);
+            if (coin.isActive()) {
+                add(coin, SPRITE_COIN, 0, false);
+            }
+        }
+        List<Entity> others = entities.getOthers();
+        for (int i = 0; i < others.size(); i++) {
+            Entity entity = others.get(i);
+            if (entity.isActive()) {
+                add(entity, SPRITE_NONE, 0, false);
+            }
+        }
+
+        if (player != null) {
+            hasPlayer = true;
+            playerAlive = player.isActive() && player.getLives() > 0;
+            cameraTargetX = player.getPosition().x + player.getWidth() / 2;
+            cameraTargetY = player.getPosition().y + player.getHeight() / 2;
+            score = player.getScore();
+            health = player.getHealth();
+            lives = player.getLives();
+        }
+    }
+
+    private void addPlayer(Player player, long nowMillis) {
+        int sprite;
+        // Skip every other 100 ms while invincible (flashing effect)
+        if (player.isInvincible() && (nowMillis / FLASH_MILLIS) % 2 == 0) {
+            sprite = SPRITE_NONE;
+        } else if (player.isJumping()) {
+            sprite = SPRITE_MARIO_JUMP;
+        } else if (player.isRunning()) {
+            sprite = SPRITE_MARIO_RUN;
+        } else {
+            sprite = SPRITE_MARIO_STAND;
+        }
+        add(player, sprite, AnimationTable.tickOf(player.getStateTime()), !player.isFacingRight());
+    }
+
+    private void add(Entity entity, int sprite, int animationTick, boolean left) {
+        if (count == sprites.length) {
+            grow();
+        }
+        int i = count++;
+        types[i] = entity.getClass();
+        Rectangle box = entity.getBounds();
+        bounds[i * 4] = box.x;
+        bounds[i * 4 + 1] = box.y;
+        bounds[i * 4 + 2] = box.width;
+        bounds[i * 4 + 3] = box.height;
+        sprites[i] = sprite;
+        animationTicks[i] = animationTick;
+        facingLeft[i] = left;
+    }
+
+    private void grow() {
+        int capacity = sprites.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        sprites = Arrays.copyOf(sprites, capacity);
+        animationTicks = Arrays.copyOf(animationTicks, capacity);
+        bounds = Arrays.copyOf(bounds, capacity * 4);
+        facingLeft = Arrays.copyOf(facingLeft, capacity);
+    }
+
+    /** Adds the captured entities per type (class simple name) to {@code counts}. */
+    public void countEntitiesByType(Map<String, Integer> counts) {
+        for (int i = 0; i < count; i++) {
+            counts.merge(types[i].getSimpleName(), 1, Integer::sum);
+        }
+    }
+
+    /** Null until the first capture of a level. */
+    public Level getLevel() { return level; }
+    public long getTick() { return tick; }
+
+    public int getCount() { return count; }
+    public int getSprite(int i) { return sprites[i]; }
+    public int getAnimationTick(int i) { return animationTicks[i]; }
+    public boolean isFacingLeft(int i) { return facingLeft[i]; }
+    public float getX(int i) { return bounds[i * 4]; }
+    public float getY(int i) { return bounds[i * 4 + 1]; }
+    public float getWidth(int i) { return bounds[i * 4 + 2]; }
+    public float getHeight(int i) { return bounds[i * 4 + 3]; }
+
+    public boolean hasPlayer() { return hasPlayer; }
+    public boolean isPlayerAlive() { return playerAlive; }
+    public float getCameraTargetX() { return cameraTargetX; }
+    public float getCameraTargetY() { return cameraTargetY; }
+    public int getScore() { return score; }
+    public int getHealth() { return health; }
+    public int getLives() { return lives; }
+
+    /** Camera-lock bounds, or null when the camera follows the player. */
+    public Rectangle getCameraLock() { return cameraLocked ? cameraLock : null; }
+}
@@ -0,0 +1,329 @@
+package com.mario.view;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.files.FileHandle;
+import com.mario.assets.GameAssetManager;
+import com.mario.profiling.Counter;
+import com.mario.profiling.MetricsRegistry;
+
+/**
+ * Schedules sound effects requested by the game thread.
+ *
+ * The game thread only marks sounds as requested: identical requests in the
+ * same tick are coalesced (loudest volume wins) and {@link #endTick()} pushes
+ * one command per sound into a lock-free single-producer ring. The GL
+ * thread drains it once per frame in {@link #update()}, enforces per-sound
+ * and global voice limits, steals the oldest lowest-priority voice when
+ * needed and calls {@code Sound.play}. Every OpenAL call stays on the GL
+ * thread, which also runs the backend's audio update and the music: the
+ * backend's source pool is not thread-safe.
+ * Sounds are loaded through {@link GameAssetManager} and their durations
+ * read once by {@link #preload()}, never from {@link #request}: a request
+ * for a sound that is not loaded is dropped. The effect list is fixed
+ * after preload, so the simulation thread only ever touches the request
+ * arrays and the ring, never the asset manager (GL thread only).
+ */
+public class SoundEffectMixer {
+    private static final int QUEUE_CAPACITY = 256;
+    private static final float DEFAULT_DURATION = 0.5f;
+    private static final String OWNER = "audio";
+
+    private final int maxVoices;
+    private final List<Effect> effects = new ArrayList<>();
+
+    // Game thread: per-tick coalescing
+    private boolean[] requested = new boolean[0];
+    private float[] requestedVolume = new float[0];
+    private int[] requestedIds = new int[0];
+    private int requestedCount;
+
+    // Game thread -> GL thread ring
+    private final int[] queueIds = new int[QUEUE_CAPACITY];
+    private final float[] queueVolumes = new float[QUEUE_CAPACITY];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // GL thread: active voices
+    private final Voice[] voices;
+    private int voiceCount;
+
+    private final AtomicLong requestedTotal = new AtomicLong();
+    private final AtomicLong coalescedTotal = new AtomicLong();
+    private final AtomicLong droppedTotal = new AtomicLong();
+    private final AtomicLong stolenTotal = new AtomicLong();
+    private final AtomicLong playedTotal = new AtomicLong();
+    private volatile int playing;
+
+    private boolean preloaded; // no registrations after this
+
+    public SoundEffectMixer(int maxVoices) {
+        this.maxVoices = maxVoices;
+        this.voices = new Voice[maxVoices];
+        for (int i = 0; i < maxVoices; i++) {
+            voices[i] = new Voice();
+        }
+    }
+
+    /**
+     * Registers a sound and returns its id. The sound itself is loaded by
+     * {@link #preload()}. Higher priority voices can steal lower ones when all
+     * voices are busy.
+     */
+    public int register(String name, String path, int priority, int maxInstances) {
+        if (preloaded) {
+            throw new IllegalStateException("Sound registered after preload: " + name);
+        }
+        Effect effect = new Effect(name, path, priority, maxInstances);
+        effects.add(effect);
+        int count = effects.size();
+        requested = Arrays.copyOf(requested, count);
+        requestedVolume = Arrays.copyOf(requestedVolume, count);
+        requestedIds = Arrays.copyOf(requestedIds, count);
+        return count - 1;
+    }
+
+    public int getEffectCount() {
+        return effects.size();
+    }
+
+    public String getEffectPath(int id) {
+        return effects.get(id).path;
+    }
+
+    public int findId(String name) {
+        for (int i = 0; i < effects.size(); i++) {
+            if (effects.get(i).name.equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /** Game thread: requests a sound for this tick. */
+    public void request(int id, float volume) {
+        if (id < 0 || id >= requested.length) return;
+        if (effects.get(id).sound == null) {
+            droppedTotal.incrementAndGet(); // not preloaded, or failed to load
+            return;
+        }
+        requestedTotal.incrementAndGet();
+        if (requested[id]) {
+            coalescedTotal.incrementAndGet();
+            requestedVolume[id] = Math.max(requestedVolume[id], volume);
+            return;
+        }
+        requested[id] = true;
+        requestedVolume[id] = volume;
+        requestedIds[requestedCount++] = id;
+    }
+
+    /** Game thread: hands this tick's coalesced requests to the GL thread. */
+    public void endTick() {
+        for (int i = 0; i < requestedCount; i++) {
+            int id = requestedIds[i];
+            requested[id] = false;
+            long t = tail.get();
+            if (t - head.get() == QUEUE_CAPACITY) {
+                droppedTotal.incrementAndGet();
+                continue;
+            }
+            int slot = (int) (t % QUEUE_CAPACITY);
+            queueIds[slot] = id;
+            queueVolumes[slot] = requestedVolume[id];
+            tail.lazySet(t + 1);
+        }
+        requestedCount = 0;
+    }
+
+    /**
+     * Loads every registered sound and reads its duration. Call on the GL
+     * thread once the startup pipeline has decoded the sounds, so each
+     * acquire is a cache hit; returns the number of sounds loaded.
+     */
+    public int preload() {
+        preloaded = true;
+        int loaded = 0;
+        for (int i = 0; i < effects.size(); i++) {
+            if (load(effects.get(i))) loaded++;
+        }
+        return loaded;
+    }
+
+    private boolean load(Effect effect) {
+        if (effect.sound != null) return true;
+        if (effect.failed) return false;
+        try {
+            Sound sound = GameAssetManager.getInstance().acquire(OWNER, effect.path, Sound.class);
+            effect.durationNanos = (long) (durationSeconds(Gdx.files.internal(effect.path)) * 1_000_000_000L);
+            effect.sound = sound; // volatile write, read by request() on the simulation thread
+            return true;
+        } catch (RuntimeException e) {
+            effect.failed = true;
+            System.err.println("Error loading sound " + effect.path + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** GL thread, once per frame: frees finished voices and plays the sounds queued since the last frame. */
+    public void update() {
+        long now = System.nanoTime();
+        expireVoices(now);
+        long h = head.get();
+        long t = tail.get();
+        while (h != t) {
+            int slot = (int) (h % QUEUE_CAPACITY);
+            play(effects.get(queueIds[slot]), queueVolumes[slot], now);
+            h++;
+        }
+        head.lazySet(h);
+    }
+
+    private void play(Effect effect, float volume, long now) {
+        // Per-sound limit: restart the oldest instance of the same sound
+        if (effect.activeVoices >= effect.maxInstances) {
+            int oldest = findOldest(effect, Integer.MAX_VALUE);
+            if (oldest < 0) {
+                droppedTotal.incrementAndGet();
+                return;
+            }
+            stopVoice(oldest);
+            stolenTotal.incrementAndGet();
+        } else if (voiceCount >= maxVoices) {
+            // Global limit: steal the oldest voice with priority <= ours
+            int victim = findOldest(null, effect.priority);
+            if (victim < 0) {
+                droppedTotal.incrementAndGet();
+                return;
+            }
+            stopVoice(victim);
+            stolenTotal.incrementAndGet();
+        }
+
+        long soundId = effect.sound.play(volume);
+        if (soundId == -1) {
+            droppedTotal.incrementAndGet();
+            return;
+        }
+        Voice voice = voices[voiceCount++];
+        voice.effect = effect;
+        voice.soundId = soundId;
+        voice.startNanos = now;
+        voice.endNanos = now + effect.durationNanos;
+        effect.activeVoices++;
+        effect.plays.increment();
+        playedTotal.incrementAndGet();
+        playing = voiceCount;
+    }
+
+    /** Oldest voice of the given effect (or any effect with priority <= maxPriority when null). */
+    private int findOldest(Effect effect, int maxPriority) {
+        int oldest = -1;
+        for (int i = 0; i < voiceCount; i++) {
+            Voice voice = voices[i];
+            boolean candidate = effect != null ? voice.effect == effect : voice.effect.priority <= maxPriority;
+            if (candidate && (oldest < 0 || voice.startNanos < voices[oldest].startNanos)) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    private void stopVoice(int index) {
+        Voice voice = voices[index];
+        voice.effect.sound.stop(voice.soundId);
+        removeVoice(index);
+    }
+
+    private void expireVoices(long now) {
+        for (int i = voiceCount - 1; i >= 0; i--) {
+            if (voices[i].endNanos <= now) {
+                removeVoice(i);
+            }
+        }
+    }
+
+    private void removeVoice(int index) {
+        Voice removed = voices[index];
+        removed.effect.activeVoices--;
+        removed.effect = null;
+        voiceCount--;
+        voices[index] = voices[voiceCount];
+        voices[voiceCount] = removed;
+        playing = voiceCount;
+    }
+
+    public long getRequested() { return requestedTotal.get(); }
+    public long getCoalesced() { return coalescedTotal.get(); }
+    public long getDropped() { return droppedTotal.get(); }
+    public long getStolen() { return stolenTotal.get(); }
+    public long getPlayed() { return playedTotal.get(); }
+    public int getPlaying() { return playing; }
+
+    public String getStatsReport() {
+        return String.format("SFX: requested=%d coalesced=%d played=%d stolen=%d dropped=%d playing=%d",
+            getRequested(), getCoalesced(), getPlayed(), getStolen(), getDropped(), getPlaying());
+    }
+
+    /** GL thread: releases every sound loaded so far. */
+    public void stop() {
+        GameAssetManager.getInstance().release(OWNER);
+    }
+
+    /** Reads the length of a PCM WAV from its header; voices are tracked by time since Sound has no end callback. */
+    static float durationSeconds(FileHandle file) {
+        try {
+            ByteBuffer wav = ByteBuffer.wrap(file.readBytes()).order(ByteOrder.LITTLE_ENDIAN);
+            if (wav.remaining() < 12 || wav.getInt(0) != 0x46464952 || wav.getInt(8) != 0x45564157) {
+                return DEFAULT_DURATION; // not RIFF/WAVE
+            }
+            int byteRate = 0;
+            int position = 12;
+            while (position + 8 <= wav.limit()) {
+                int chunkId = wav.getInt(position);
+                int chunkSize = wav.getInt(position + 4);
+                if (chunkId == 0x20746D66 && chunkSize >= 12) { // "fmt "
+                    byteRate = wav.getInt(position + 16);
+                } else if (chunkId == 0x61746164 && byteRate > 0) { // "data"
+                    return (float) chunkSize / byteRate;
+                }
+                position += 8 + chunkSize + (chunkSize & 1);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Could not read duration of " + file.path() + ": " + e.getMessage());
+        }
+        return DEFAULT_DURATION;
+    }
+
+    private static final class Effect {
+        private final String name;
+        private final String path;
+        private final int priority;
+        private final int maxInstances;
+        private volatile Sound sound;
+        private long durationNanos;
+        private boolean failed;
+        private int activeVoices;
+        private final Counter plays;
+
+        Effect(String name, String path, int priority, int maxInstances) {
+            this.name = name;
+            this.path = path;
+            this.priority = priority;
+            this.maxInstances = maxInstances;
+            this.plays = MetricsRegistry.getInstance().counter("mario_audio_plays_total", "Sound effects started", "sound", name);
+        }
+    }
+
+    private static final class Voice {
+        private Effect effect;
+        private long soundId;
+        private long startNanos;
+        private long endNanos;
+    }
+}
@@ -6,14 +6,18 @@ import java.util.Map;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.mario.assets.GameAssetManager;
 
 public class TextureManager {
+    private static final String OWNER = "procedural-textures";
+
     private static TextureManager instance;
     private final Map<String, Texture> textures;
+    private final GameAssetManager assets;
 
     private TextureManager() {
         this.textures = new HashMap<>();
-        loadTextures();
+        this.assets = GameAssetManager.getInstance();
     }
 
     public static TextureManager getInstance() {
@@ -23,16 +27,16 @@ public class TextureManager {
         return instance;
     }
 
-    private void loadTextures() {
-        // Créer des textures procédurales temporaires
-        // Vous pouvez remplacer cela par de vraies images plus tard
-        textures.put("player", createPlayerTexture());
-        textures.put("goomba", createGoombaTexture());
-        textures.put("coin", createCoinTexture());
-        textures.put("tile_ground", createGroundTileTexture());
-        textures.put("tile_brick", createBrickTileTexture());
-
-        System.out.println("Textures chargées: " + textures.size() + " textures");
+    // Créer les textures procédurales à la première utilisation
+    private Texture createTexture(String name) {
+        switch (name) {
+            case "player": return createPlayerTexture();
+            case "goomba": return createGoombaTexture();
+            case "coin": return createCoinTexture();
+            case "tile_ground": return createGroundTileTexture();
+            case "tile_brick": return createBrickTileTexture();
+            default: return null;
+        }
     }
 
     private Texture createPlayerTexture() {
@@ -171,14 +175,21 @@ public class TextureManager {
     }
 
     public Texture getTexture(String name) {
-        return textures.get(name);
+        Texture texture = textures.get(name);
+        if (texture == null && !textures.containsKey(name)) {
+            texture = createTexture(name);
+            if (texture != null) {
+                texture = assets.register(OWNER, "procedural/" + name, Texture.class, texture);
+            }
+            textures.put(name, texture);
+        }
+        return texture;
     }
 
     public void dispose() {
-        for (Texture texture : textures.values()) {
-            texture.dispose();
-        }
+        assets.release(OWNER);
         textures.clear();
+        instance = null;
     }
 }
 
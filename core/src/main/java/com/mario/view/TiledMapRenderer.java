@@ -1,43 +1,104 @@
 package com.mario.view;
 
+import java.util.List;
+
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.maps.MapLayer;
 import com.badlogic.gdx.maps.tiled.TiledMap;
+import com.badlogic.gdx.maps.tiled.TiledMapImageLayer;
+import com.badlogic.gdx.maps.tiled.TiledMapTileLayer;
 import com.badlogic.gdx.maps.tiled.renderers.OrthogonalTiledMapRenderer;
+import com.badlogic.gdx.maps.tiled.tiles.AnimatedTiledMapTile;
+import com.mario.assets.NativeResourceTracker;
 import com.mario.model.level.Level;
 
+/**
+ * Draws a level's Tiled map: the layers {@link LayerOptimizer} baked from
+ * SpriteCache chunks before the world pass, the dynamic ones into the
+ * game's shared batch inside it.
+ */
 public class TiledMapRenderer {
+    private final Batch batch;
     private OrthogonalTiledMapRenderer tiledRenderer;
+    private LayerOptimizer layers;
     private TiledMap currentMap;
-    
-    public TiledMapRenderer() {
+
+    public TiledMapRenderer(Batch batch) {
+        this.batch = batch;
     }
-    
-    public void render(Level level, OrthographicCamera camera) {
+
+    /** Selects the map and sets the batch projection from the camera; call before batch.begin(). */
+    public void setView(Level level, OrthographicCamera camera) {
         if (!level.hasTiledMap()) {
             return; // No Tiled map to render
         }
-        
+
         TiledMap map = level.getTiledMap();
-        
+
         // Create or update renderer if map changed
         if (map != currentMap) {
-            if (tiledRenderer != null) {
-                tiledRenderer.dispose();
-            }
-            tiledRenderer = new OrthogonalTiledMapRenderer(map);
+            dispose();
+            tiledRenderer = new OrthogonalTiledMapRenderer(map, batch);
+            NativeResourceTracker.created(tiledRenderer, "OrthogonalTiledMapRenderer", null, null);
+            layers = LayerOptimizer.optimize(map, camera.viewportWidth, camera.viewportHeight);
+            System.out.println(layers.getReport());
             currentMap = map;
         }
-        
+
         // Set the view based on the camera
         tiledRenderer.setView(camera);
-        
-        // Render only visible layers (automatic frustum culling by LibGDX)
-        tiledRenderer.render();
     }
-    
+
+    /** Clear colour replacing the map's background layer, or null to keep the default. */
+    public Color getClearColor(Level level) {
+        return level.hasTiledMap() && layers != null ? layers.getClearColor() : null;
+    }
+
+    /** Draws the baked layers in view; call before batch.begin(). */
+    public void renderStatic(Level level, OrthographicCamera camera) {
+        if (level.hasTiledMap() && layers != null) {
+            layers.renderStatic(camera);
+        }
+    }
+
+    /**
+     * Draws the dynamic tile and image layers (culled to the view by LibGDX);
+     * the batch must be begun. Advances the animated tiles' clock, which
+     * OrthogonalTiledMapRenderer.render() would otherwise do.
+     */
+    public void render(Level level) {
+        if (!level.hasTiledMap() || tiledRenderer == null) {
+            return;
+        }
+        AnimatedTiledMapTile.updateAnimationBaseTime();
+        List<MapLayer> dynamic = layers.getDynamicLayers();
+        for (int i = 0; i < dynamic.size(); i++) {
+            MapLayer layer = dynamic.get(i);
+            if (layer instanceof TiledMapTileLayer) {
+                tiledRenderer.renderTileLayer((TiledMapTileLayer) layer);
+            } else {
+                tiledRenderer.renderImageLayer((TiledMapImageLayer) layer);
+            }
+        }
+    }
+
+    /** GL draw calls of the baked layers this frame. */
+    public int getStaticRenderCalls() {
+        return layers != null ? layers.getRenderCalls() : 0;
+    }
+
     public void dispose() {
         if (tiledRenderer != null) {
+            NativeResourceTracker.disposed(tiledRenderer);
             tiledRenderer.dispose();
+            tiledRenderer = null;
+            currentMap = null;
+        }
+        if (layers != null) {
+            layers.dispose();
+            layers = null;
         }
     }
 }
@@ -3,14 +3,15 @@ package com.mario.view;
 import java.util.HashMap;
 import java.util.Map;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.mario.assets.GameAssetManager;
 import com.mario.model.level.Level;
 import com.mario.model.level.LevelData;
 
 public class TilesetRenderer {
+    private static final String OWNER = "tileset-renderer";
+
     private final Map<String, Texture> tilesetTextures;
     private final Map<String, TextureRegion[]> tilesetRegions;
     
@@ -33,7 +34,7 @@ public class TilesetRenderer {
             // Charger la texture du tileset
             String imagePath = "levels/" + tileset.getImage();
             try {
-                Texture texture = new Texture(Gdx.files.internal(imagePath));
+                Texture texture = GameAssetManager.getInstance().acquire(OWNER, imagePath, Texture.class);
                 tilesetTextures.put(tilesetName, texture);
                 
                 // Créer les régions de texture pour chaque tile
@@ -72,7 +73,7 @@ public class TilesetRenderer {
         return regions;
     }
     
-    public void renderTileLayer(SpriteBatch batch, Level level, String layerName) {
+    public void renderTileLayer(RenderQueue queue, Level level, String layerName) {
         if (level.getTilesets() == null || level.getTilesets().isEmpty()) {
             return;
         }
@@ -119,15 +120,13 @@ public class TilesetRenderer {
                 float posY = (height - y - 1) * tileHeight;
                 
                 // Dessiner le tile
-                batch.draw(regions[regionIndex], posX, posY, tileWidth, tileHeight);
+                queue.submit(RenderQueue.LAYER_TILES, regions[regionIndex], posX, posY, tileWidth, tileHeight, false);
             }
         }
     }
     
     public void dispose() {
-        for (Texture texture : tilesetTextures.values()) {
-            texture.dispose();
-        }
+        GameAssetManager.getInstance().release(OWNER);
         tilesetTextures.clear();
         tilesetRegions.clear();
     }
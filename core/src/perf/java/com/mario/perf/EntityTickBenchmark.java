@@ -0,0 +1,138 @@
+package com.mario.perf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.mario.model.entity.Coin;
+import com.mario.model.entity.Collectible;
+import com.mario.model.entity.Enemy;
+import com.mario.model.entity.Entity;
+import com.mario.model.entity.Goomba;
+import com.mario.model.entity.Player;
+import com.mario.model.level.EntityRegistry;
+
+/**
+ * Per-tick entity cost of the old mixed entity list against
+ * {@link EntityRegistry}: update every active entity, then the player's
+ * enemy and collectible candidate scans (the PhysicsEngine loops, without
+ * any contact). The mixed variant interleaves coins and goombas in one
+ * List&lt;Entity&gt; and filters with instanceof like the previous code;
+ * the registry variant walks its type and capability lists. The player is
+ * kept grounded and away from everything so both variants stay identical.
+ */
+public class EntityTickBenchmark {
+    private static final int[] ENTITY_COUNTS = { 200, 2_000, 20_000 };
+    private static final int COINS_PER_GOOMBA = 4;
+    private static final float DELTA = 1f / 60f;
+    private static final int WARMUP_TICKS = 20_000;
+    private static final int TICKS = 5_000;
+
+    static volatile int sink;
+
+    public static void main(String[] args) {
+        System.out.println(String.format("%10s %-9s %10s %10s %10s", "entities", "variant", "mean (us)", "p50 (us)", "p99 (us)"));
+        for (int count : ENTITY_COUNTS) {
+            List<Entity> mixed = new ArrayList<>();
+            Player mixedPlayer = populate(count, mixed);
+            EntityRegistry registry = new EntityRegistry();
+            List<Entity> spawned = new ArrayList<>();
+            populate(count, spawned);
+            for (Entity entity : spawned) {
+                registry.add(entity);
+            }
+
+            for (int tick = 0; tick < WARMUP_TICKS; tick++) {
+                sink += mixedTick(mixed, mixedPlayer);
+                sink += registryTick(registry);
+            }
+            report(count, "mixed", measure(() -> mixedTick(mixed, mixedPlayer)));
+            report(count, "registry", measure(() -> registryTick(registry)));
+        }
+    }
+
+    private static Player populate(int count, List<Entity> out) {
+        Player player = new Player(-10_000f, 0f);
+        player.setOnGround(true);
+        out.add(player);
+        for (int i = 1; i < count; i++) {
+            float x = i * 20f;
+            if (i % (COINS_PER_GOOMBA + 1) == 0) {
+                out.add(new Goomba(x, 64f));
+            } else {
+                out.add(new Coin(x, 96f));
+            }
+        }
+        return player;
+    }
+
+    /** The previous Level.update and PhysicsEngine scans. */
+    private static int mixedTick(List<Entity> entities, Player player) {
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            if (entity.isActive()) {
+                entity.update(DELTA);
+            }
+        }
+        int contacts = 0;
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            if (entity instanceof Enemy && entity.isActive() && player.collidesWith(entity)) {
+                contacts++;
+            }
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            Entity entity = entities.get(i);
+            if (entity instanceof Collectible && entity.isActive()
+                && ((Collectible) entity).isCollectable() && player.collidesWith(entity)) {
+                contacts++;
+            }
+        }
+        return contacts;
+    }
+
+    private static int registryTick(EntityRegistry registry) {
+        registry.updateAll(DELTA);
+        Player player = registry.getPlayer();
+        int contacts = 0;
+        List<Entity> enemies = registry.getEnemies();
+        for (int i = 0; i < enemies.size(); i++) {
+            Entity entity = enemies.get(i);
+            if (entity.isActive() && player.collidesWith(entity)) {
+                contacts++;
+            }
+        }
+        List<Entity> collectibles = registry.getCollectibles();
+        for (int i = 0; i < collectibles.size(); i++) {
+            Entity entity = collectibles.get(i);
+            if (entity.isActive() && ((Collectible) entity).isCollectable() && player.collidesWith(entity)) {
+                contacts++;
+            }
+        }
+        return contacts;
+    }
+
+    private interface Tick {
+        int run();
+    }
+
+    private static long[] measure(Tick tick) {
+        long[] tickNanos = new long[TICKS];
+        for (int i = 0; i < TICKS; i++) {
+            long start = System.nanoTime();
+            sink += tick.run();
+            tickNanos[i] = System.nanoTime() - start;
+        }
+        return tickNanos;
+    }
+
+    private static void report(int count, String variant, long[] tickNanos) {
+        long total = 0;
+        for (long nanos : tickNanos) {
+            total += nanos;
+        }
+        Arrays.sort(tickNanos);
+        System.out.println(String.format("%,10d %-9s %10.2f %10.2f %10.2f", count, variant,
+            total / 1e3 / TICKS, tickNanos[TICKS / 2] / 1e3, tickNanos[TICKS * 99 / 100] / 1e3));
+    }
+}
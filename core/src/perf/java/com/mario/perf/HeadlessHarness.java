@@ -0,0 +1,46 @@
+package com.mario.perf;
+
+import java.lang.reflect.Proxy;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.graphics.GL20;
+
+/**
+ * Starts a headless libGDX application with a no-op GL so engine code that
+ * creates textures can run without a window. Image decoding still happens,
+ * only the GPU upload is skipped.
+ */
+final class HeadlessHarness {
+
+    private HeadlessHarness() {
+    }
+
+    static HeadlessApplication start() {
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.updatesPerSecond = 1;
+        HeadlessApplication application = new HeadlessApplication(new ApplicationAdapter() {
+        }, config);
+        GL20 gl = noopGl();
+        Gdx.gl = gl;
+        Gdx.gl20 = gl;
+        return application;
+    }
+
+    private static GL20 noopGl() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] { GL20.class },
+            (proxy, method, args) -> defaultValue(method.getReturnType()));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return Boolean.FALSE;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        if (type == String.class) return "";
+        return null;
+    }
+}
@@ -0,0 +1,112 @@
+package com.mario.perf;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.mario.assets.GameAssetManager;
+import com.mario.model.level.LevelLoader;
+import com.mario.model.level.LevelTemplate;
+
+/**
+ * Compares TMX and compiled (.lvl) loading for the shipped levels.
+ * Cold = first load in a fresh JVM (median of several child processes),
+ * warm = median of repeated loads in this JVM after warm-up.
+ */
+public class LevelLoadBenchmark {
+    private static final String[] LEVELS = { "levels/level1.tmx", "levels/level2.tmx", "levels/level3.tmx" };
+    private static final String[] FORMATS = { "tmx", "lvl" };
+    private static final int COLD_RUNS = 3;
+    private static final int WARMUP_RUNS = 10;
+    private static final int WARM_RUNS = 30;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("--cold")) {
+            HeadlessHarness.start();
+            System.out.println("RESULT " + loadOnce(newLoader(args[1]), args[2]));
+            System.exit(0);
+        }
+
+        HeadlessHarness.start();
+        // Warm runs must parse again, not hit the asset cache
+        for (GameAssetManager.Category category : GameAssetManager.Category.values()) {
+            GameAssetManager.getInstance().setBudget(category, 0);
+        }
+        List<String> rows = new ArrayList<>();
+        for (String level : LEVELS) {
+            for (String format : FORMATS) {
+                long cold = median(coldRuns(format, level));
+                long warm = median(warmRuns(format, level));
+                rows.add(String.format("%-20s %-5s %12.3f %12.3f", level, format, cold / 1e6, warm / 1e6));
+            }
+        }
+
+        System.out.println();
+        System.out.println(String.format("%-20s %-5s %12s %12s", "level", "fmt", "cold (ms)", "warm (ms)"));
+        for (String row : rows) {
+            System.out.println(row);
+        }
+        System.exit(0);
+    }
+
+    private static LevelLoader newLoader(String format) {
+        LevelLoader loader = new LevelLoader();
+        loader.setPreferCompiled(format.equals("lvl"));
+        return loader;
+    }
+
+    private static long loadOnce(LevelLoader loader, String level) {
+        long start = System.nanoTime();
+        LevelTemplate template = loader.loadTemplate(level);
+        long elapsed = System.nanoTime() - start;
+        template.dispose();
+        return elapsed;
+    }
+
+    private static long[] warmRuns(String format, String level) {
+        LevelLoader loader = newLoader(format);
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            loadOnce(loader, level);
+        }
+        long[] samples = new long[WARM_RUNS];
+        for (int i = 0; i < WARM_RUNS; i++) {
+            samples[i] = loadOnce(loader, level);
+        }
+        return samples;
+    }
+
+    private static long[] coldRuns(String format, String level) throws Exception {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        long[] samples = new long[COLD_RUNS];
+        for (int i = 0; i < COLD_RUNS; i++) {
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                LevelLoadBenchmark.class.getName(), "--cold", format, level)
+                .directory(new File(System.getProperty("user.dir")))
+                .redirectErrorStream(true)
+                .start();
+            long result = -1;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("RESULT ")) {
+                        result = Long.parseLong(line.substring(7).trim());
+                    }
+                }
+            }
+            if (process.waitFor() != 0 || result < 0) {
+                throw new IllegalStateException("Cold run failed for " + format + " " + level);
+            }
+            samples[i] = result;
+        }
+        return samples;
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
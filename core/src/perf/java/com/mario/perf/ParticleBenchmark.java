@@ -0,0 +1,70 @@
+package com.mario.perf;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import com.mario.view.ParticleSystem;
+
+/**
+ * Steady-state particle load: every 60 Hz frame tops the system up to the
+ * target live count with a mix of presets, integrates it and writes the
+ * SpriteBatch vertices. Reports per-frame time percentiles and the bytes
+ * allocated by the measured frames; only the few hundred bytes of the
+ * allocation counter call itself are expected, whatever the frame count.
+ */
+public class ParticleBenchmark {
+    private static final int[] LIVE_COUNTS = { 1_000, 10_000, 30_000, 60_000 };
+    private static final float DELTA = 1f / 60f;
+    private static final int WARMUP_FRAMES = 600;
+    private static final int FRAMES = 1200;
+
+    static volatile int sink;
+
+    public static void main(String[] args) {
+        System.out.println(String.format("%10s %10s %10s %10s %14s", "particles", "mean (ms)", "p50 (ms)", "p99 (ms)", "allocated B"));
+        for (int live : LIVE_COUNTS) {
+            run(live);
+        }
+    }
+
+    private static void run(int live) {
+        ParticleSystem particles = new ParticleSystem(live + live / 4);
+        ParticleSystem.Preset[] presets = ParticleSystem.Preset.values();
+        long[] frameNanos = new long[FRAMES];
+
+        for (int frame = 0; frame < WARMUP_FRAMES; frame++) {
+            sink += frame(particles, presets, live, frame);
+        }
+
+        long allocatedBefore = allocatedBytes();
+        for (int frame = 0; frame < FRAMES; frame++) {
+            long start = System.nanoTime();
+            sink += frame(particles, presets, live, frame);
+            frameNanos[frame] = System.nanoTime() - start;
+        }
+        long allocated = allocatedBytes() - allocatedBefore;
+
+        long total = 0;
+        for (long nanos : frameNanos) {
+            total += nanos;
+        }
+        Arrays.sort(frameNanos);
+        System.out.println(String.format("%,10d %10.3f %10.3f %10.3f %,14d", particles.getCount(),
+            total / 1e6 / FRAMES, frameNanos[FRAMES / 2] / 1e6, frameNanos[FRAMES * 99 / 100] / 1e6, allocated));
+    }
+
+    private static int frame(ParticleSystem particles, ParticleSystem.Preset[] presets, int live, int frame) {
+        int effect = frame;
+        while (particles.getCount() < live) {
+            ParticleSystem.Preset preset = presets[effect++ % presets.length];
+            particles.emit(preset, (effect * 37) % 3200, 100 + (effect * 13) % 200);
+        }
+        particles.update(DELTA);
+        return particles.prepareVertices();
+    }
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,185 @@
+package com.mario.perf;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.mario.model.entity.Coin;
+import com.mario.model.entity.Entity;
+import com.mario.model.entity.Goomba;
+import com.mario.model.entity.Player;
+import com.mario.model.level.Level;
+import com.mario.model.physics.PhysicsEngine;
+import com.mario.net.ReplicationClient;
+import com.mario.net.ReplicationServer;
+import com.mario.net.SnapshotCodec;
+import com.mario.net.WorldState;
+
+/**
+ * End-to-end replication over loopback: a level with a growing number of
+ * goombas and coins is simulated, a {@link ReplicationServer} sends every
+ * tick to a {@link ReplicationClient} whose camera sweeps the level, and
+ * each decoded state is checked against what the server should have sent
+ * (exit status 1 on any difference). Coins are collected and goombas
+ * spawned as it runs so removals and new entities go through the diffs.
+ *
+ * Reported per tick: entities in the interest region, the size of a full
+ * snapshot of the whole level and of a delta of the whole level (what
+ * replicating without interest management would cost), then the bytes
+ * actually sent with interest management, when the client acks every
+ * tick and when it only reads its socket every {@link #LAGGING_POLL}
+ * ticks (diffs against older baselines).
+ */
+public class ReplicationBenchmark {
+    private static final int[] ENTITY_COUNTS = { 50, 200, 1_000, 5_000 };
+    private static final int COINS_PER_GOOMBA = 4;
+    private static final int LEVEL_TILES = 240; // about the size of the shipped levels
+    private static final int TILE = 16;
+    private static final float CAMERA_WIDTH = 400f;
+    private static final float CAMERA_HEIGHT = 240f;
+    private static final float CAMERA_SPEED = 2f; // pixels per tick
+    private static final int TICKS = 1_200;
+    private static final int CHURN_INTERVAL = 10; // ticks between a collected coin and a new goomba
+    private static final int LAGGING_POLL = 4;
+    private static final float DELTA = 1f / 60f;
+
+    private static int mismatches;
+
+    public static void main(String[] args) throws IOException {
+        System.out.println(String.format("%9s %8s %12s %12s %12s %12s %12s", "entities", "in view",
+            "world full", "world delta", "view full", "view delta", "lag delta"));
+        for (int count : ENTITY_COUNTS) {
+            Run synced = run(count, 1);
+            Run lagging = run(count, LAGGING_POLL);
+            System.out.println(String.format("%,9d %8.0f %,12.0f %,12.0f %,12.0f %,12.1f %,12.1f", count,
+                synced.inView / (double) TICKS, synced.worldFullBytes / (double) TICKS,
+                synced.worldDeltaBytes / (double) TICKS, synced.viewFullBytes / (double) TICKS,
+                synced.deltaBytes / (double) synced.deltaPackets,
+                lagging.deltaBytes / (double) lagging.deltaPackets));
+        }
+        System.out.println("Bytes per tick; deltas exclude the first full snapshot.");
+        if (mismatches > 0) {
+            System.err.println(mismatches + " decoded states differ from the server's");
+            System.exit(1);
+        }
+    }
+
+    private static final class Run {
+        long inView;
+        long worldFullBytes;
+        long worldDeltaBytes;
+        long viewFullBytes;
+        long deltaBytes;
+        long deltaPackets;
+    }
+
+    private static Run run(int count, int pollInterval) throws IOException {
+        Random random = new Random(count);
+        Level level = createLevel(count, random);
+        PhysicsEngine physics = new PhysicsEngine();
+        Run result = new Run();
+        ByteBuffer scratch = ByteBuffer.allocate(1 << 20);
+        WorldState world = new WorldState();
+        WorldState previousWorld = new WorldState();
+        WorldState expected = new WorldState();
+        WorldState[] expectedByTick = new WorldState[64];
+        for (int i = 0; i < expectedByTick.length; i++) {
+            expectedByTick[i] = new WorldState();
+        }
+        WorldState interpolated = new WorldState();
+        Rectangle ackedInterest = new Rectangle();
+
+        try (ReplicationServer server = new ReplicationServer(0);
+             ReplicationClient client = new ReplicationClient(
+                 new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()), 60)) {
+            float cameraX = 0f;
+            client.setCamera(cameraX, 0f, CAMERA_WIDTH, CAMERA_HEIGHT);
+            client.keepAlive();
+            setInterest(ackedInterest, cameraX);
+            long firstFull = -1;
+
+            for (long tick = 1; tick <= TICKS; tick++) {
+                step(level, physics, random, tick);
+                server.publish(level, "bench", tick);
+                if (firstFull < 0 && server.getPacketsSent() > 0) firstFull = server.getBytesSent();
+
+                world.capture(level, tick);
+                expected.filter(world, ackedInterest);
+                expectedByTick[(int) (tick % expectedByTick.length)].copyFrom(expected);
+                result.inView += expected.getCount();
+                result.worldFullBytes += encodedSize(world, null, scratch);
+                result.worldDeltaBytes += encodedSize(world, tick > 1 ? previousWorld : null, scratch);
+                result.viewFullBytes += encodedSize(expected, null, scratch);
+                previousWorld.copyFrom(world);
+
+                if (tick % pollInterval != 0) continue;
+                cameraX = (cameraX + CAMERA_SPEED * pollInterval) % (LEVEL_TILES * TILE - CAMERA_WIDTH);
+                client.setCamera(cameraX, 0f, CAMERA_WIDTH, CAMERA_HEIGHT);
+                if (client.poll(100) > 0) {
+                    WorldState latest = client.getLatest();
+                    if (!latest.sameAs(expectedByTick[(int) (latest.getTick() % expectedByTick.length)])) {
+                        mismatches++;
+                    }
+                    client.interpolate(latest.getTick() - ReplicationClient.INTERPOLATION_DELAY + 0.5, interpolated);
+                }
+                setInterest(ackedInterest, cameraX);
+            }
+            result.deltaBytes = server.getBytesSent() - firstFull;
+            result.deltaPackets = Math.max(1, server.getPacketsSent() - 1);
+        }
+        level.dispose();
+        return result;
+    }
+
+    private static void setInterest(Rectangle interest, float cameraX) {
+        float margin = ReplicationServer.INTEREST_MARGIN;
+        interest.set(cameraX - margin, -margin, CAMERA_WIDTH + 2 * margin, CAMERA_HEIGHT + 2 * margin);
+    }
+
+    private static int encodedSize(WorldState state, WorldState baseline, ByteBuffer buffer) {
+        buffer.clear();
+        SnapshotCodec.encode(state, baseline, "bench", buffer);
+        return buffer.position();
+    }
+
+    private static Level createLevel(int count, Random random) {
+        int height = 15;
+        Level level = new Level(LEVEL_TILES, height, TILE, TILE);
+        int[] ground = new int[LEVEL_TILES * height];
+        for (int x = 0; x < LEVEL_TILES; x++) {
+            ground[(height - 1) * LEVEL_TILES + x] = 1;
+        }
+        level.addTileLayer("Collision", ground);
+        level.addEntity(new Player(32f, TILE));
+        for (int i = 1; i < count; i++) {
+            float x = 48f + random.nextFloat() * (LEVEL_TILES * TILE - 96f);
+            if (i % (COINS_PER_GOOMBA + 1) == 0) {
+                level.addEntity(new Goomba(x, TILE));
+            } else {
+                level.addEntity(new Coin(x, 48f + random.nextInt(8) * TILE));
+            }
+        }
+        return level;
+    }
+
+    private static void step(Level level, PhysicsEngine physics, Random random, long tick) {
+        level.update(DELTA);
+        Player player = level.getPlayer();
+        physics.handlePlayerTerrainCollision(player, level.getSolidTiles());
+        physics.handleEnemyTerrainCollisions(level);
+        if (tick % CHURN_INTERVAL != 0) return;
+        List<Entity> entities = level.getEntities();
+        for (int tries = 0; tries < 8; tries++) {
+            Entity entity = entities.get(random.nextInt(entities.size()));
+            if (entity instanceof Coin) {
+                entity.setActive(false);
+                break;
+            }
+        }
+        level.addEntity(new Goomba(48f + random.nextFloat() * (LEVEL_TILES * TILE - 96f), TILE));
+    }
+}
@@ -0,0 +1,140 @@
+package com.mario.perf;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.mario.assets.GameAssetManager;
+import com.mario.assets.NativeResourceTracker;
+import com.mario.model.entity.EntityFactory;
+import com.mario.model.level.Level;
+import com.mario.model.level.LevelLoader;
+import com.mario.model.level.LevelTemplateCache;
+import com.mario.observer.GameEventManager;
+
+/**
+ * Loads, plays and unloads every shipped level over and over with the
+ * native resource tracker on and asset budgets at zero, so each unload
+ * must release everything the level created. Native live counts and the
+ * heap after GC are sampled ten times; the run fails (exit code 1) if a
+ * leak is reported, if native objects outlive the run's warm-up level, or
+ * if the heap keeps growing across the last samples.
+ *
+ * Usage: SoakTest [cycles] (default 2000 passes over all levels).
+ */
+public class SoakTest {
+    private static final int TICKS_PER_LEVEL = 120;
+    private static final float DELTA = 1f / 60f;
+    private static final int SAMPLES = 10;
+    private static final long HEAP_SLACK_BYTES = 8L * 1024 * 1024;
+
+    public static void main(String[] args) {
+        if (!NativeResourceTracker.ENABLED) {
+            System.err.println("Run with -Dmario.native.debug=true");
+            System.exit(2);
+        }
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        HeadlessHarness.start();
+        for (GameAssetManager.Category category : GameAssetManager.Category.values()) {
+            GameAssetManager.getInstance().setBudget(category, 0);
+        }
+
+        String[] levels = findLevels();
+        LevelTemplateCache cache = new LevelTemplateCache(new LevelLoader(), 1, Long.MAX_VALUE);
+        NativeResourceTracker tracker = NativeResourceTracker.getInstance();
+        System.out.println("Soak: " + cycles + " cycles over " + Arrays.toString(levels));
+
+        int warmup = Math.max(1, cycles / SAMPLES);
+        int baselineNative = -1;
+        long baselineHeap = 0;
+        List<long[]> samples = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int cycle = 1; cycle <= cycles; cycle++) {
+            for (String path : levels) {
+                play(cache.instantiate(path));
+            }
+            if (cycle % warmup == 0) {
+                long heap = usedHeapAfterGc();
+                int live = tracker.getLiveCount();
+                if (baselineNative < 0) {
+                    baselineNative = live;
+                    baselineHeap = heap;
+                }
+                samples.add(new long[] { cycle, live, heap });
+                System.out.println(String.format("cycle %6d  native live=%4d %s  heap=%7.2f MB  (%.1f s)",
+                    cycle, live, tracker.getLiveCounts(), heap / 1048576.0, (System.nanoTime() - start) / 1e9));
+            }
+        }
+        cache.clear();
+
+        List<String> failures = new ArrayList<>();
+        if (tracker.getLeakCount() > 0) {
+            failures.add(tracker.getLeakCount() + " native objects outlived their level");
+        }
+        int finalNative = tracker.getLiveCount();
+        if (finalNative > baselineNative) {
+            failures.add("native live count grew from " + baselineNative + " to " + finalNative);
+        }
+        if (heapKeepsGrowing(samples, baselineHeap)) {
+            failures.add(String.format("heap grew from %.2f MB to %.2f MB across the last samples",
+                baselineHeap / 1048576.0, samples.get(samples.size() - 1)[2] / 1048576.0));
+        }
+
+        System.out.println(tracker.getReport());
+        System.out.println(EntityFactory.getInstance().getPoolReport());
+        System.out.println(GameAssetManager.getInstance().getResidentReport());
+        if (failures.isEmpty()) {
+            System.out.println("Soak passed");
+            System.exit(0);
+        }
+        for (String failure : failures) {
+            System.err.println("Soak failed: " + failure);
+        }
+        tracker.reportLive();
+        System.exit(1);
+    }
+
+    private static void play(Level level) {
+        GameEventManager events = GameEventManager.getInstance();
+        for (int tick = 0; tick < TICKS_PER_LEVEL; tick++) {
+            level.update(DELTA);
+            level.updateTriggers();
+            events.flush();
+        }
+        level.dispose();
+    }
+
+    /** Growth in each of the last three intervals and beyond the slack above the baseline. */
+    private static boolean heapKeepsGrowing(List<long[]> samples, long baselineHeap) {
+        if (samples.size() < 4) return false;
+        int last = samples.size() - 1;
+        for (int i = last - 2; i <= last; i++) {
+            if (samples.get(i)[2] <= samples.get(i - 1)[2]) return false;
+        }
+        return samples.get(last)[2] > baselineHeap + HEAP_SLACK_BYTES;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String[] findLevels() {
+        File[] files = new File("levels").listFiles((dir, name) -> name.endsWith(".tmx") || name.endsWith(".json"));
+        if (files == null || files.length == 0) {
+            throw new IllegalStateException("No levels found under " + new File("levels").getAbsolutePath());
+        }
+        String[] levels = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            levels[i] = "levels/" + files[i].getName();
+        }
+        Arrays.sort(levels);
+        return levels;
+    }
+}
@@ -0,0 +1,176 @@
+package com.mario.perf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.mario.model.level.TileDataDecoder;
+
+/**
+ * Decodes 1024x1024 (10^6+ tile) layers in every Tiled encoding with
+ * {@link TileDataDecoder} and with the previous whole-buffer approach
+ * (base64 to byte[], inflate to byte[], byte-by-byte int conversion),
+ * then compares sequential and parallel decoding of a multi-layer map.
+ */
+public class TileDecodeBenchmark {
+    private static final int SIDE = 1024;
+    private static final int TILES = SIDE * SIDE;
+    private static final int LAYERS = 4;
+    private static final int WARMUP_RUNS = 5;
+    private static final int RUNS = 15;
+
+    private interface Decoder {
+        int[] decode() throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] tiles = generateLayer(new Random(42));
+        byte[] raw = toLittleEndian(tiles);
+
+        String csv = toCsv(tiles);
+        String base64 = Base64.getEncoder().encodeToString(raw);
+        String zlib = Base64.getEncoder().encodeToString(deflate(raw, false));
+        String gzip = Base64.getEncoder().encodeToString(deflate(raw, true));
+
+        System.out.println(String.format("%,d tiles per layer, %d layers in the parallel run", TILES, LAYERS));
+        System.out.println(String.format("%-14s %-9s %10s %14s", "encoding", "decoder", "ms", "allocated MB"));
+        run("csv", "stream", tiles, () -> TileDataDecoder.decode(csv, "csv", null, TILES));
+        run("csv", "legacy", tiles, () -> legacyCsv(csv));
+        run("base64", "stream", tiles, () -> TileDataDecoder.decode(base64, "base64", null, TILES));
+        run("base64", "legacy", tiles, () -> legacyBase64(base64, null));
+        run("base64+zlib", "stream", tiles, () -> TileDataDecoder.decode(zlib, "base64", "zlib", TILES));
+        run("base64+zlib", "legacy", tiles, () -> legacyBase64(zlib, "zlib"));
+        run("base64+gzip", "stream", tiles, () -> TileDataDecoder.decode(gzip, "base64", "gzip", TILES));
+        run("base64+gzip", "legacy", tiles, () -> legacyBase64(gzip, "gzip"));
+
+        List<TileDataDecoder.Source> sources = new ArrayList<>();
+        for (int i = 0; i < LAYERS; i++) {
+            sources.add(new TileDataDecoder.Source(zlib, "base64", "zlib", TILES));
+        }
+        long sequential = median(() -> {
+            for (TileDataDecoder.Source ignored : sources) {
+                TileDataDecoder.decode(zlib, "base64", "zlib", TILES);
+            }
+        });
+        long parallel = median(() -> TileDataDecoder.decodeAll(sources));
+        System.out.println();
+        System.out.println(String.format("%d x base64+zlib layers: sequential %.2f ms, parallel %.2f ms (%d cores)",
+            LAYERS, sequential / 1e6, parallel / 1e6, Runtime.getRuntime().availableProcessors()));
+    }
+
+    private interface Task {
+        void run() throws IOException;
+    }
+
+    private static void run(String encoding, String name, int[] expected, Decoder decoder) throws IOException {
+        if (!Arrays.equals(expected, decoder.decode())) {
+            throw new IllegalStateException(name + " decoder produced wrong data for " + encoding);
+        }
+        long allocatedBefore = allocatedBytes();
+        decoder.decode();
+        long allocated = allocatedBytes() - allocatedBefore;
+        long nanos = median(decoder::decode);
+        System.out.println(String.format("%-14s %-9s %10.2f %14.1f", encoding, name, nanos / 1e6, allocated / 1e6));
+    }
+
+    private static long median(Task task) throws IOException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            task.run();
+        }
+        long[] samples = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[RUNS / 2];
+    }
+
+    @SuppressWarnings("deprecation")
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /** Runs of ground/sky like a real map, with some flipped gids. */
+    private static int[] generateLayer(Random random) {
+        int[] tiles = new int[TILES];
+        int i = 0;
+        while (i < TILES) {
+            int run = 1 + random.nextInt(32);
+            int gid = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(700);
+            if (random.nextInt(20) == 0) gid |= 0x80000000;
+            for (int j = 0; j < run && i < TILES; j++) {
+                tiles[i++] = gid;
+            }
+        }
+        return tiles;
+    }
+
+    private static byte[] toLittleEndian(int[] tiles) {
+        byte[] bytes = new byte[tiles.length * 4];
+        for (int i = 0; i < tiles.length; i++) {
+            bytes[i * 4] = (byte) tiles[i];
+            bytes[i * 4 + 1] = (byte) (tiles[i] >>> 8);
+            bytes[i * 4 + 2] = (byte) (tiles[i] >>> 16);
+            bytes[i * 4 + 3] = (byte) (tiles[i] >>> 24);
+        }
+        return bytes;
+    }
+
+    private static String toCsv(int[] tiles) {
+        StringBuilder builder = new StringBuilder(tiles.length * 4);
+        for (int i = 0; i < tiles.length; i++) {
+            if (i > 0) builder.append(i % SIDE == 0 ? ",\n" : ",");
+            builder.append(Integer.toUnsignedString(tiles[i]));
+        }
+        return builder.toString();
+    }
+
+    private static byte[] deflate(byte[] raw, boolean gzip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = gzip ? new GZIPOutputStream(out) : new DeflaterOutputStream(out)) {
+            deflater.write(raw);
+        }
+        return out.toByteArray();
+    }
+
+    private static int[] legacyCsv(String csv) {
+        String[] values = csv.split(",");
+        int[] tiles = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            tiles[i] = (int) Long.parseLong(values[i].trim());
+        }
+        return tiles;
+    }
+
+    private static int[] legacyBase64(String data, String compression) throws IOException {
+        byte[] bytes = Base64.getDecoder().decode(data);
+        if (compression != null) {
+            InputStream in = new ByteArrayInputStream(bytes);
+            in = compression.equals("gzip") ? new GZIPInputStream(in) : new InflaterInputStream(in);
+            bytes = in.readAllBytes();
+        }
+        int[] tiles = new int[bytes.length / 4];
+        for (int i = 0; i < tiles.length; i++) {
+            int offset = i * 4;
+            tiles[i] = (bytes[offset] & 0xFF)
+                | ((bytes[offset + 1] & 0xFF) << 8)
+                | ((bytes[offset + 2] & 0xFF) << 16)
+                | ((bytes[offset + 3] & 0xFF) << 24);
+        }
+        return tiles;
+    }
+}
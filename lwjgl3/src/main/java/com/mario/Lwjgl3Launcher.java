@@ -1,26 +1,94 @@
 package com.mario;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
+import com.badlogic.gdx.backends.lwjgl3.Lwjgl3WindowAdapter;
+import com.mario.controller.FramePacer;
+import com.mario.controller.FramePacingProfile;
 import com.mario.controller.GameController;
+import com.mario.profiling.LatencyTracker;
 
 
 public class Lwjgl3Launcher {
+    private static final String CONFIG_FILE = "mario.properties";
+
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) return;
-        createApplication();
+        createApplication(selectProfile(args));
+    }
+
+    private static Lwjgl3Application createApplication(FramePacingProfile profile) {
+        int refreshRate = Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate;
+        FramePacer pacer = new FramePacer(profile, refreshRate);
+        return new Lwjgl3Application(new GameController(pacer), getConfiguration(profile, refreshRate, pacer));
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new GameController(), getDefaultConfiguration());
+    /** --pacing=NAME on the command line, else "pacing" in mario.properties, else the default profile. */
+    private static FramePacingProfile selectProfile(String[] args) {
+        String name = null;
+        for (String arg : args) {
+            if (arg.startsWith("--pacing=")) {
+                name = arg.substring("--pacing=".length());
+            }
+        }
+        if (name == null) {
+            Path config = Paths.get(CONFIG_FILE);
+            if (Files.exists(config)) {
+                Properties properties = new Properties();
+                try (InputStream in = Files.newInputStream(config)) {
+                    properties.load(in);
+                    name = properties.getProperty("pacing");
+                } catch (IOException e) {
+                    System.err.println("Impossible de lire " + CONFIG_FILE + ": " + e.getMessage());
+                }
+            }
+        }
+        if (name == null) return FramePacingProfile.DEFAULT;
+        try {
+            return FramePacingProfile.fromName(name.trim());
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + ", using " + FramePacingProfile.DEFAULT);
+            return FramePacingProfile.DEFAULT;
+        }
     }
 
-    private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
+    private static Lwjgl3ApplicationConfiguration getConfiguration(FramePacingProfile profile, int refreshRate,
+                                                                   FramePacer pacer) {
         Lwjgl3ApplicationConfiguration configuration = new Lwjgl3ApplicationConfiguration();
         configuration.setTitle("Mario Game Engine - LibGDX");
-        configuration.useVsync(true);
-        configuration.setForegroundFPS(Lwjgl3ApplicationConfiguration.getDisplayMode().refreshRate + 1);
+        configuration.useVsync(profile.isVsync());
+        configuration.setForegroundFPS(profile.getForegroundFps(refreshRate));
+        configuration.setIdleFPS(profile.getIdleFps());
         configuration.setWindowedMode(800, 600);
+        configuration.setWindowListener(new Lwjgl3WindowAdapter() {
+            @Override
+            public void focusLost() {
+                pacer.setFocused(false);
+            }
+
+            @Override
+            public void focusGained() {
+                pacer.setFocused(true);
+            }
+        });
+
+        int limiterFps = profile.getLimiterFps(refreshRate);
+        String label = profile + ": vsync " + (profile.isVsync() ? "on" : "off")
+            + ", " + (limiterFps > 0 ? limiterFps + " fps limiter" : capLabel(profile.getForegroundFps(refreshRate)))
+            + ", variable step";
+        LatencyTracker.getInstance().setConfiguration(label);
+        System.out.println("Frame pacing: " + label);
         return configuration;
     }
+
+    private static String capLabel(int fps) {
+        return fps > 0 ? fps + " fps cap" : "uncapped";
+    }
 }